@@ -0,0 +1,79 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.hash;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class FileHashingBenchmark {
+
+    @Param({"1024", "65536", "1048576", "134217728"})
+    int fileSize;
+
+    @Param({"stream", "channel", "channel.mapped"})
+    String type;
+
+    File file;
+    FileHasher hasher;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = File.createTempFile("file-hashing", ".bin");
+        byte[] content = new byte[Math.min(fileSize, 1024 * 1024)];
+        new Random(1234L).nextBytes(content);
+        try (OutputStream outputStream = Files.newOutputStream(file.toPath())) {
+            for (int written = 0; written < fileSize; written += content.length) {
+                outputStream.write(content, 0, Math.min(content.length, fileSize - written));
+            }
+        }
+        if (type.equals("stream")) {
+            hasher = new DefaultFileHasher(new DefaultStreamHasher());
+        } else {
+            hasher = new ChannelFileHasher(type.equals("channel.mapped"));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public HashCode hashFile() {
+        return hasher.hash(file);
+    }
+}
@@ -26,8 +26,10 @@ import org.gradle.caching.BuildCacheKey
 import org.gradle.caching.BuildCacheServiceFactory
 import org.gradle.caching.http.HttpBuildCache
 import org.gradle.internal.hash.HashCode
+import org.gradle.internal.resource.transport.http.DefaultHttpSettings
 import org.gradle.internal.resource.transport.http.DefaultSslContextFactory
 import org.gradle.internal.resource.transport.http.HttpClientHelper
+import org.gradle.internal.verifier.HttpRedirectVerifier
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.test.fixtures.server.http.AuthScheme
 import org.gradle.test.fixtures.server.http.HttpResourceInteraction
@@ -329,6 +331,62 @@ class HttpBuildCacheServiceTest extends Specification {
         cache.store(key, writer("".bytes))
     }
 
+    def "does not load entries that do not exist when checking for entries in batches"() {
+        server.expect("/cache/", ["POST"], new HttpServer.ActionSupport("check for entries") {
+            void handle(HttpServletRequest request, HttpServletResponse response) {
+                assert request.getHeader(HttpHeaders.CONTENT_TYPE).startsWith(HttpBuildCacheExistenceChecker.BUILD_CACHE_KEYS_CONTENT_TYPE)
+                assert request.inputStream.text == key.hashCode
+                response.setStatus(200)
+            }
+        })
+
+        expect:
+        !batchCheckingCache().load(key) { input -> }
+    }
+
+    def "loads entries that exist when checking for entries in batches"() {
+        def srcFile = tempDir.file("cached.zip")
+        srcFile.text = "Data"
+        server.expect("/cache/", ["POST"], new HttpServer.ActionSupport("check for entries") {
+            void handle(HttpServletRequest request, HttpServletResponse response) {
+                response.setStatus(200)
+                response.outputStream << "${key.hashCode}\n"
+            }
+        })
+        server.expectGet("/cache/${key.hashCode}", srcFile)
+
+        when:
+        def receivedInput = null
+        def loaded = batchCheckingCache().load(key) { input ->
+            receivedInput = input.text
+        }
+
+        then:
+        loaded
+        receivedInput == "Data"
+    }
+
+    def "stops checking for entries in batches when server does not support it"() {
+        def srcFile = tempDir.file("cached.zip")
+        srcFile.text = "Data"
+        def cache = batchCheckingCache()
+        server.expect("/cache/", ["POST"], new HttpServer.ActionSupport("check for entries") {
+            void handle(HttpServletRequest request, HttpServletResponse response) {
+                response.setStatus(HttpStatus.SC_METHOD_NOT_ALLOWED)
+            }
+        })
+        server.expectGet("/cache/${key.hashCode}", srcFile)
+
+        expect:
+        cache.load(key) { input -> }
+
+        when:
+        server.expectGet("/cache/${key.hashCode}", srcFile)
+
+        then:
+        cache.load(key) { input -> }
+    }
+
     def "does preemptive authentication"() {
         config.credentials.username = 'user'
         config.credentials.password = 'password'
@@ -367,6 +425,15 @@ class HttpBuildCacheServiceTest extends Specification {
         })
     }
 
+    private HttpBuildCacheService batchCheckingCache() {
+        def httpClientHelper = httpClientHelperFactory.create(DefaultHttpSettings.builder()
+            .withAuthenticationSettings([])
+            .withSslContextFactory(new DefaultSslContextFactory())
+            .withRedirectVerifier({} as HttpRedirectVerifier)
+            .build())
+        return new HttpBuildCacheService(httpClientHelper, config.url, {}, false, true)
+    }
+
     private class NoopBuildCacheDescriber implements BuildCacheServiceFactory.Describer {
 
         @Override
@@ -45,6 +45,8 @@
 public class DefaultHttpBuildCacheServiceFactory implements BuildCacheServiceFactory<HttpBuildCache> {
 
     private static final int MAX_REDIRECTS = Integer.getInteger("org.gradle.cache.http.max-redirects", 10);
+    private static final int MAX_CONNECTIONS = Integer.getInteger("org.gradle.cache.http.max-connections", 20);
+    private static final boolean BATCH_EXISTENCE_CHECKS = Boolean.getBoolean("org.gradle.cache.http.batch-existence-checks");
 
     private final SslContextFactory sslContextFactory;
     private final HttpBuildCacheRequestCustomizer requestCustomizer;
@@ -89,6 +91,7 @@ public BuildCacheService createBuildCacheService(HttpBuildCache configuration, D
         DefaultHttpSettings.Builder builder = DefaultHttpSettings.builder()
             .withAuthenticationSettings(authentications)
             .maxRedirects(MAX_REDIRECTS)
+            .maxConnections(MAX_CONNECTIONS)
             .withRedirectMethodHandlingStrategy(HttpSettings.RedirectMethodHandlingStrategy.ALLOW_FOLLOW_FOR_MUTATIONS)
             .withRedirectVerifier(redirectVerifier);
         if (allowUntrustedServer) {
@@ -104,8 +107,11 @@ public BuildCacheService createBuildCacheService(HttpBuildCache configuration, D
             .config("allowUntrustedServer", Boolean.toString(allowUntrustedServer))
             .config("allowInsecureProtocol", Boolean.toString(allowInsecureProtocol))
             .config("useExpectContinue", Boolean.toString(useExpectContinue));
+        if (BATCH_EXISTENCE_CHECKS) {
+            describer.config("batchExistenceChecks", "true");
+        }
 
-        return new HttpBuildCacheService(httpClientHelper, noUserInfoUrl, requestCustomizer, useExpectContinue);
+        return new HttpBuildCacheService(httpClientHelper, noUserInfoUrl, requestCustomizer, useExpectContinue, BATCH_EXISTENCE_CHECKS);
     }
 
     private HttpRedirectVerifier createRedirectVerifier(URI url, boolean allowInsecureProtocol) {
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.http.internal;
+
+import com.google.common.collect.ImmutableSet;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.gradle.caching.BuildCacheKey;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.resource.transport.http.HttpClientHelper;
+import org.gradle.internal.resource.transport.http.HttpClientResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Checks which entries exist in an HTTP build cache with batched requests.
+ *
+ * A batch is a {@code POST} to the cache root with the hash codes of the keys to check, one per line, and the server responds with the hash codes of the keys that exist, one per line.
+ * Checks requested while a batch is in flight are combined into the next batch, so concurrent checks cost at most two round trips.
+ * When the server does not support batched checks, or a batch fails, entries are assumed to exist so they are loaded as usual.
+ */
+class HttpBuildCacheExistenceChecker {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpBuildCacheExistenceChecker.class);
+    static final String BUILD_CACHE_KEYS_CONTENT_TYPE = "application/vnd.gradle.build-cache-keys.v1";
+
+    private static final Set<Integer> UNSUPPORTED_HTTP_ERROR_CODES = ImmutableSet.of(
+        HttpStatus.SC_NOT_FOUND,
+        HttpStatus.SC_METHOD_NOT_ALLOWED,
+        HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE,
+        HttpStatus.SC_NOT_IMPLEMENTED
+    );
+
+    private final URI root;
+    private final HttpClientHelper httpClientHelper;
+    private final HttpBuildCacheRequestCustomizer requestCustomizer;
+
+    private final Object lock = new Object();
+    private List<PendingCheck> pending = new ArrayList<>();
+    private boolean batchInFlight;
+    private volatile boolean unsupported;
+
+    HttpBuildCacheExistenceChecker(URI root, HttpClientHelper httpClientHelper, HttpBuildCacheRequestCustomizer requestCustomizer) {
+        this.root = root;
+        this.httpClientHelper = httpClientHelper;
+        this.requestCustomizer = requestCustomizer;
+    }
+
+    /**
+     * Returns false when the entry is known not to exist, and true when it exists or its existence could not be checked.
+     */
+    boolean mayExist(BuildCacheKey key) {
+        if (unsupported) {
+            return true;
+        }
+        PendingCheck check = new PendingCheck(key.getHashCode());
+        List<PendingCheck> batch;
+        synchronized (lock) {
+            pending.add(check);
+            while (true) {
+                if (check.done) {
+                    return check.mayExist;
+                }
+                if (!batchInFlight) {
+                    batchInFlight = true;
+                    batch = pending;
+                    pending = new ArrayList<>();
+                    break;
+                }
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        }
+
+        Set<String> existing = null;
+        try {
+            existing = checkBatch(batch);
+        } finally {
+            // Always complete the batch, so that the waiting checks never block on a batch that failed with an error
+            synchronized (lock) {
+                for (PendingCheck pendingCheck : batch) {
+                    pendingCheck.mayExist = existing == null || existing.contains(pendingCheck.hashCode);
+                    pendingCheck.done = true;
+                }
+                batchInFlight = false;
+                // Wake up the checks that have completed, and let one of the others perform the next batch
+                lock.notifyAll();
+            }
+        }
+        return check.mayExist;
+    }
+
+    /**
+     * Returns the hash codes of the keys that exist, or null when the check failed.
+     */
+    private Set<String> checkBatch(List<PendingCheck> batch) {
+        if (unsupported) {
+            return null;
+        }
+        String body = batch.stream().map(check -> check.hashCode).distinct().collect(Collectors.joining("\n"));
+        HttpPost httpPost = new HttpPost(root);
+        httpPost.addHeader(HttpHeaders.ACCEPT, BUILD_CACHE_KEYS_CONTENT_TYPE);
+        httpPost.setEntity(new StringEntity(body, ContentType.create(BUILD_CACHE_KEYS_CONTENT_TYPE, StandardCharsets.UTF_8)));
+        requestCustomizer.customize(httpPost);
+
+        try (HttpClientResponse response = httpClientHelper.performHttpRequest(httpPost)) {
+            StatusLine statusLine = response.getStatusLine();
+            int statusCode = statusLine.getStatusCode();
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Response for checking {} entries: {}", batch.size(), statusLine);
+            }
+            if (statusCode >= 200 && statusCode < 300) {
+                Set<String> existing = new HashSet<>();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.getContent(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        existing.add(line.trim());
+                    }
+                }
+                return existing;
+            }
+            if (UNSUPPORTED_HTTP_ERROR_CODES.contains(statusCode)) {
+                LOGGER.info("HTTP build cache does not support checking for entries in batches (response status {}), loading entries without checking.", statusCode);
+                unsupported = true;
+            }
+            return null;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("Could not check for entries in HTTP build cache, loading entries without checking.", e);
+            return null;
+        }
+    }
+
+    private static class PendingCheck {
+        private final String hashCode;
+        private boolean done;
+        private boolean mayExist;
+
+        PendingCheck(String hashCode) {
+            this.hashCode = hashCode;
+        }
+    }
+}
@@ -37,6 +37,7 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -66,8 +67,18 @@ public class HttpBuildCacheService implements BuildCacheService {
     private final HttpClientHelper httpClientHelper;
     private final HttpBuildCacheRequestCustomizer requestCustomizer;
     private final boolean useExpectContinue;
+    @Nullable
+    private final HttpBuildCacheExistenceChecker existenceChecker;
 
     public HttpBuildCacheService(HttpClientHelper httpClientHelper, URI url, HttpBuildCacheRequestCustomizer requestCustomizer, boolean useExpectContinue) {
+        this(httpClientHelper, url, requestCustomizer, useExpectContinue, false);
+    }
+
+    /**
+     * @param batchExistenceChecks whether to check for the existence of entries in batches before loading them.
+     * This saves round trips for missing entries when the server supports it, at the cost of a round trip for existing entries.
+     */
+    public HttpBuildCacheService(HttpClientHelper httpClientHelper, URI url, HttpBuildCacheRequestCustomizer requestCustomizer, boolean useExpectContinue, boolean batchExistenceChecks) {
         this.requestCustomizer = requestCustomizer;
         this.useExpectContinue = useExpectContinue;
         if (!url.getPath().endsWith("/")) {
@@ -75,10 +86,14 @@ public HttpBuildCacheService(HttpClientHelper httpClientHelper, URI url, HttpBui
         }
         this.root = url;
         this.httpClientHelper = httpClientHelper;
+        this.existenceChecker = batchExistenceChecks ? new HttpBuildCacheExistenceChecker(url, httpClientHelper, requestCustomizer) : null;
     }
 
     @Override
     public boolean load(BuildCacheKey key, BuildCacheEntryReader reader) throws BuildCacheException {
+        if (existenceChecker != null && !existenceChecker.mayExist(key)) {
+            return false;
+        }
         final URI uri = root.resolve("./" + key.getHashCode());
         HttpGet httpGet = new HttpGet(uri);
         httpGet.addHeader(HttpHeaders.ACCEPT, BUILD_CACHE_CONTENT_TYPE + ", */*");
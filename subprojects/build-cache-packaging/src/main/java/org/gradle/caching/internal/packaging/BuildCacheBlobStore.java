@@ -0,0 +1,46 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging;
+
+import org.gradle.internal.hash.HashCode;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Stores the content of files in build cache entries by content hash, so that files which are identical across entries are only stored once.
+ *
+ * Blobs are keyed by the hash and the Unix mode of the file, so that restoring a blob never needs to change the permissions of a shared blob.
+ */
+public interface BuildCacheBlobStore {
+    /**
+     * Stores the content of the given file, unless a blob with the same hash and mode is already stored.
+     */
+    void store(HashCode contentHash, int unixMode, File file) throws IOException;
+
+    /**
+     * Restores the content of the blob with the given hash and mode to the given file, replacing it if it exists.
+     *
+     * @return {@code false} if there is no such blob.
+     */
+    boolean restore(HashCode contentHash, int unixMode, File target) throws IOException;
+
+    /**
+     * Removes the blob with the given hash and mode, for example because its content does not match its hash.
+     */
+    void discard(HashCode contentHash, int unixMode) throws IOException;
+}
@@ -45,6 +45,14 @@ public long getEntries() {
 
     UnpackResult unpack(CacheableEntity entity, InputStream input, OriginReader readOrigin) throws IOException;
 
+    /**
+     * Returns a packer that stores the content of regular files in the given blob store, and only references them from the packed entry.
+     *
+     * The returned packer can still unpack entries which contain the content of their files.
+     * Unpacking an entry whose content is no longer in the blob store fails with a {@link MissingBlobException}.
+     */
+    BuildCacheEntryPacker withBlobStore(BuildCacheBlobStore blobStore);
+
     class UnpackResult {
         private final OriginMetadata originMetadata;
         private final long entries;
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl;
+
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The compression applied to packed build cache entries.
+ *
+ * Every codec except {@link #GZIP} is identified by a header in front of the compressed entry, see {@link CompressingBuildCacheEntryPacker}.
+ */
+public enum BuildCacheEntryCompression {
+    /**
+     * The default, readable by all Gradle versions.
+     */
+    GZIP((byte) 0) {
+        @Override
+        OutputStream compress(OutputStream output) throws IOException {
+            return new GZIPOutputStream(output, BUFFER_SIZE);
+        }
+
+        @Override
+        InputStream decompress(InputStream input) throws IOException {
+            return new GZIPInputStream(input, BUFFER_SIZE);
+        }
+    },
+    /**
+     * Compresses and decompresses several times faster than {@link #GZIP}, at the cost of larger entries.
+     */
+    LZ4((byte) 1) {
+        @Override
+        OutputStream compress(OutputStream output) throws IOException {
+            return new FramedLZ4CompressorOutputStream(output);
+        }
+
+        @Override
+        InputStream decompress(InputStream input) throws IOException {
+            return new FramedLZ4CompressorInputStream(input);
+        }
+    },
+    /**
+     * Stores entries without compression, for outputs that are already compressed, like jars.
+     */
+    NONE((byte) 2) {
+        @Override
+        OutputStream compress(OutputStream output) {
+            return output;
+        }
+
+        @Override
+        InputStream decompress(InputStream input) {
+            return input;
+        }
+    };
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final byte id;
+
+    BuildCacheEntryCompression(byte id) {
+        this.id = id;
+    }
+
+    byte getId() {
+        return id;
+    }
+
+    abstract OutputStream compress(OutputStream output) throws IOException;
+
+    abstract InputStream decompress(InputStream input) throws IOException;
+
+    @Nullable
+    static BuildCacheEntryCompression forId(byte id) {
+        for (BuildCacheEntryCompression compression : values()) {
+            if (compression.id == id) {
+                return compression;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the compression with the given case-insensitive name.
+     */
+    public static BuildCacheEntryCompression forName(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("Unknown build cache entry compression '%s'. Supported values are: %s.",
+                name, Arrays.stream(values()).map(value -> value.name().toLowerCase(Locale.ROOT)).collect(Collectors.joining(", "))), e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl;
+
+import org.gradle.caching.internal.CacheableEntity;
+import org.gradle.caching.internal.origin.OriginReader;
+import org.gradle.caching.internal.origin.OriginWriter;
+import org.gradle.caching.internal.packaging.BuildCacheBlobStore;
+import org.gradle.caching.internal.packaging.BuildCacheEntryPacker;
+import org.gradle.internal.snapshot.FileSystemSnapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.Map;
+
+/**
+ * Compresses packed entries with a configurable {@link BuildCacheEntryCompression}.
+ *
+ * Entries compressed with {@link BuildCacheEntryCompression#GZIP} are plain gzip streams, so they stay readable by older Gradle versions.
+ * Entries using any other compression start with a header of the bytes {@code GBC} followed by the id of the compression.
+ * Unpacking detects the compression from the entry itself, so entries packed with any compression can be loaded regardless of the configured one.
+ */
+public class CompressingBuildCacheEntryPacker implements BuildCacheEntryPacker {
+    private static final byte[] HEADER_MAGIC = {'G', 'B', 'C'};
+    private static final int HEADER_LENGTH = HEADER_MAGIC.length + 1;
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+
+    private final BuildCacheEntryPacker delegate;
+    private final BuildCacheEntryCompression compression;
+
+    public CompressingBuildCacheEntryPacker(BuildCacheEntryPacker delegate, BuildCacheEntryCompression compression) {
+        this.delegate = delegate;
+        this.compression = compression;
+    }
+
+    @Override
+    public PackResult pack(CacheableEntity entity, Map<String, ? extends FileSystemSnapshot> snapshots, OutputStream output, OriginWriter writeOrigin) throws IOException {
+        if (compression != BuildCacheEntryCompression.GZIP) {
+            output.write(HEADER_MAGIC);
+            output.write(compression.getId());
+        }
+        try (OutputStream compressedOutput = compression.compress(output)) {
+            return delegate.pack(entity, snapshots, compressedOutput, writeOrigin);
+        }
+    }
+
+    @Override
+    public UnpackResult unpack(CacheableEntity entity, InputStream input, OriginReader readOrigin) throws IOException {
+        PushbackInputStream pushbackInput = new PushbackInputStream(input, HEADER_LENGTH);
+        byte[] header = new byte[HEADER_LENGTH];
+        int headerLength = readHeader(pushbackInput, header);
+        BuildCacheEntryCompression entryCompression;
+        if (headerLength >= 2 && (header[0] & 0xff) == GZIP_MAGIC_1 && (header[1] & 0xff) == GZIP_MAGIC_2) {
+            pushbackInput.unread(header, 0, headerLength);
+            entryCompression = BuildCacheEntryCompression.GZIP;
+        } else {
+            entryCompression = headerLength == HEADER_LENGTH && hasHeaderMagic(header)
+                ? BuildCacheEntryCompression.forId(header[HEADER_MAGIC.length])
+                : null;
+            if (entryCompression == null) {
+                throw new IllegalStateException("Cached entry format error, unknown compression of build cache entry");
+            }
+        }
+        try (InputStream decompressedInput = entryCompression.decompress(pushbackInput)) {
+            return delegate.unpack(entity, decompressedInput, readOrigin);
+        }
+    }
+
+    @Override
+    public BuildCacheEntryPacker withBlobStore(BuildCacheBlobStore blobStore) {
+        return new CompressingBuildCacheEntryPacker(delegate.withBlobStore(blobStore), compression);
+    }
+
+    private static int readHeader(InputStream input, byte[] header) throws IOException {
+        int length = 0;
+        while (length < header.length) {
+            int read = input.read(header, length, header.length - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+        }
+        return length;
+    }
+
+    private static boolean hasHeaderMagic(byte[] header) {
+        for (int i = 0; i < HEADER_MAGIC.length; i++) {
+            if (header[i] != HEADER_MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
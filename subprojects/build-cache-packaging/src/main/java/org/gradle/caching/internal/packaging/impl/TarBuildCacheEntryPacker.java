@@ -30,7 +30,9 @@
 import org.gradle.caching.internal.origin.OriginMetadata;
 import org.gradle.caching.internal.origin.OriginReader;
 import org.gradle.caching.internal.origin.OriginWriter;
+import org.gradle.caching.internal.packaging.BuildCacheBlobStore;
 import org.gradle.caching.internal.packaging.BuildCacheEntryPacker;
+import org.gradle.caching.internal.packaging.MissingBlobException;
 import org.gradle.internal.RelativePathSupplier;
 import org.gradle.internal.file.FileType;
 import org.gradle.internal.file.TreeType;
@@ -75,6 +77,9 @@
 
 /**
  * Packages build cache entries to a POSIX TAR file.
+ *
+ * When a {@link BuildCacheBlobStore} is used, the content of regular files is stored in the blob store, and the TAR entries
+ * for these files are empty and reference their content via the {@value #CONTENT_HASH_PAX_HEADER} PAX header.
  */
 public class TarBuildCacheEntryPacker implements BuildCacheEntryPacker {
 
@@ -89,6 +94,7 @@ private interface UnixPermissions {
 
     private static final Charset ENCODING = StandardCharsets.UTF_8;
     private static final String METADATA_PATH = "METADATA";
+    private static final String CONTENT_HASH_PAX_HEADER = "GRADLE.contentHash";
     private static final Pattern TREE_PATH = Pattern.compile("(missing-)?tree-([^/]+)(?:/(.*))?");
     private static final int BUFFER_SIZE = 64 * 1024;
     private static final ThreadLocal<byte[]> COPY_BUFFERS = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
@@ -97,17 +103,34 @@ private interface UnixPermissions {
     private final FilePermissionAccess filePermissionAccess;
     private final StreamHasher streamHasher;
     private final Interner<String> stringInterner;
+    private final BuildCacheBlobStore blobStore;
 
     public TarBuildCacheEntryPacker(
         TarPackerFileSystemSupport fileSystemSupport,
         FilePermissionAccess filePermissionAccess,
         StreamHasher streamHasher,
         Interner<String> stringInterner
+    ) {
+        this(fileSystemSupport, filePermissionAccess, streamHasher, stringInterner, null);
+    }
+
+    private TarBuildCacheEntryPacker(
+        TarPackerFileSystemSupport fileSystemSupport,
+        FilePermissionAccess filePermissionAccess,
+        StreamHasher streamHasher,
+        Interner<String> stringInterner,
+        @Nullable BuildCacheBlobStore blobStore
     ) {
         this.fileSystemSupport = fileSystemSupport;
         this.filePermissionAccess = filePermissionAccess;
         this.streamHasher = streamHasher;
         this.stringInterner = stringInterner;
+        this.blobStore = blobStore;
+    }
+
+    @Override
+    public BuildCacheEntryPacker withBlobStore(BuildCacheBlobStore blobStore) {
+        return new TarBuildCacheEntryPacker(fileSystemSupport, filePermissionAccess, streamHasher, stringInterner, blobStore);
     }
 
     @Override
@@ -151,7 +174,7 @@ private long pack(CacheableEntity entity, Map<String, ? extends FileSystemSnapsh
     }
 
     private long packTree(String name, TreeType type, FileSystemSnapshot snapshots, TarArchiveOutputStream tarOutput) {
-        PackingVisitor packingVisitor = new PackingVisitor(tarOutput, name, type, filePermissionAccess);
+        PackingVisitor packingVisitor = new PackingVisitor(tarOutput, name, type, filePermissionAccess, blobStore);
         snapshots.accept(new RelativePathTracker(), packingVisitor);
         return packingVisitor.getPackedEntryCount();
     }
@@ -264,15 +287,42 @@ private TarArchiveEntry unpackTree(String treeName, TreeType treeType, File tree
     }
 
     private RegularFileSnapshot unpackFile(TarArchiveInputStream input, TarArchiveEntry entry, File file, String fileName) throws IOException {
+        String contentHash = entry.getExtraPaxHeader(CONTENT_HASH_PAX_HEADER);
+        if (contentHash != null) {
+            return restoreFile(entry, HashCode.fromString(contentHash), file, fileName);
+        }
         try (CountingOutputStream output = new CountingOutputStream(new FileOutputStream(file))) {
             HashCode hash = streamHasher.hashCopy(input, output);
             chmodUnpackedFile(entry, file);
             String internedAbsolutePath = stringInterner.intern(file.getAbsolutePath());
             String internedFileName = stringInterner.intern(fileName);
-            return new RegularFileSnapshot(internedAbsolutePath, internedFileName, hash, DefaultFileMetadata.file(output.getCount(), file.lastModified(), DIRECT));
+            return new RegularFileSnapshot(internedAbsolutePath, internedFileName, hash, DefaultFileMetadata.file(file.lastModified(), output.getCount(), DIRECT));
         }
     }
 
+    private RegularFileSnapshot restoreFile(TarArchiveEntry entry, HashCode contentHash, File file, String fileName) throws IOException {
+        if (blobStore == null) {
+            throw new IllegalStateException("Cached entry format error, content of entry is stored in a blob store: " + entry.getName());
+        }
+        int mode = entry.getMode() & UnixPermissions.PERM_MASK;
+        if (!blobStore.restore(contentHash, mode, file)) {
+            throw new MissingBlobException(String.format("Content %s of entry %s is missing from the blob store", contentHash, entry.getName()));
+        }
+        // Blobs live outside of the entry, so check that the restored content is still the content the entry was packed with
+        HashCode restoredHash;
+        try (InputStream input = new FileInputStream(file)) {
+            restoredHash = streamHasher.hash(input);
+        }
+        if (!restoredHash.equals(contentHash)) {
+            blobStore.discard(contentHash, mode);
+            throw new MissingBlobException(String.format("Content %s of entry %s in the blob store has hash %s", contentHash, entry.getName(), restoredHash));
+        }
+        filePermissionAccess.chmod(file, mode);
+        String internedAbsolutePath = stringInterner.intern(file.getAbsolutePath());
+        String internedFileName = stringInterner.intern(fileName);
+        return new RegularFileSnapshot(internedAbsolutePath, internedFileName, contentHash, DefaultFileMetadata.file(file.lastModified(), file.length(), DIRECT));
+    }
+
     @Nullable
     private TarArchiveEntry unpackDirectoryTree(TarArchiveInputStream input, TarArchiveEntry rootEntry, Map<String, FileSystemLocationSnapshot> snapshots, AtomicLong entries, File treeRoot, String treeName) throws IOException {
         RelativePathParser parser = new RelativePathParser(rootEntry.getName());
@@ -336,15 +386,17 @@ private static class PackingVisitor implements RelativePathTrackingFileSystemSna
         private final String treeRoot;
         private final FilePermissionAccess filePermissionAccess;
         private final TreeType type;
+        private final BuildCacheBlobStore blobStore;
 
         private long packedEntryCount;
 
-        public PackingVisitor(TarArchiveOutputStream tarOutput, String treeName, TreeType type, FilePermissionAccess filePermissionAccess) {
+        public PackingVisitor(TarArchiveOutputStream tarOutput, String treeName, TreeType type, FilePermissionAccess filePermissionAccess, @Nullable BuildCacheBlobStore blobStore) {
             this.tarOutput = tarOutput;
             this.treePath = "tree-" + escape(treeName);
             this.treeRoot = treePath + "/";
             this.type = type;
             this.filePermissionAccess = filePermissionAccess;
+            this.blobStore = blobStore;
         }
 
         @Override
@@ -365,7 +417,11 @@ public void visitRegularFile(RegularFileSnapshot fileSnapshot) {
                     assertCorrectType(isRoot, snapshot);
                     File file = new File(snapshot.getAbsolutePath());
                     int fileMode = filePermissionAccess.getUnixMode(file);
-                    storeFileEntry(file, targetPath, file.length(), fileMode, tarOutput);
+                    if (blobStore != null) {
+                        storeFileEntryInBlobStore(file, fileSnapshot.getHash(), targetPath, fileMode, tarOutput);
+                    } else {
+                        storeFileEntry(file, targetPath, file.length(), fileMode, tarOutput);
+                    }
                 }
 
                 @Override
@@ -438,5 +494,19 @@ private void storeFileEntry(File inputFile, String path, long size, int mode, Ta
                 throw new UncheckedIOException(e);
             }
         }
+
+        private void storeFileEntryInBlobStore(File inputFile, HashCode contentHash, String path, int mode, TarArchiveOutputStream tarOutput) {
+            try {
+                blobStore.store(contentHash, mode & UnixPermissions.PERM_MASK, inputFile);
+                TarArchiveEntry entry = new TarArchiveEntry(path, true);
+                entry.setSize(0);
+                entry.setMode(UnixPermissions.FILE_FLAG | mode);
+                entry.addPaxHeader(CONTENT_HASH_PAX_HEADER, contentHash.toString());
+                tarOutput.putArchiveEntry(entry);
+                tarOutput.closeArchiveEntry();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
     }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.packaging.impl
+
+import org.gradle.caching.internal.CacheableEntity
+import org.gradle.caching.internal.origin.OriginReader
+import org.gradle.caching.internal.origin.OriginWriter
+import org.gradle.caching.internal.packaging.BuildCacheBlobStore
+import org.gradle.caching.internal.packaging.BuildCacheEntryPacker
+import spock.lang.Specification
+
+import java.util.zip.GZIPInputStream
+import java.util.zip.GZIPOutputStream
+
+class CompressingBuildCacheEntryPackerTest extends Specification {
+    def content = ("some content " * 1000).bytes
+    def entity = Stub(CacheableEntity)
+    def delegate = new BuildCacheEntryPacker() {
+        @Override
+        BuildCacheEntryPacker.PackResult pack(CacheableEntity entity, Map snapshots, OutputStream output, OriginWriter writeOrigin) {
+            output.write(content)
+            return new BuildCacheEntryPacker.PackResult(1)
+        }
+
+        @Override
+        BuildCacheEntryPacker.UnpackResult unpack(CacheableEntity entity, InputStream input, OriginReader readOrigin) {
+            assert input.bytes == content
+            return new BuildCacheEntryPacker.UnpackResult(null, 1, [:])
+        }
+
+        @Override
+        BuildCacheEntryPacker withBlobStore(BuildCacheBlobStore blobStore) {
+            return this
+        }
+    }
+
+    def "can unpack entry compressed with #packedWith when configured with #configured"() {
+        def output = new ByteArrayOutputStream()
+
+        when:
+        new CompressingBuildCacheEntryPacker(delegate, packedWith).pack(entity, [:], output, Stub(OriginWriter))
+        def result = new CompressingBuildCacheEntryPacker(delegate, configured).unpack(entity, new ByteArrayInputStream(output.toByteArray()), Stub(OriginReader))
+
+        then:
+        result.entries == 1
+
+        where:
+        [packedWith, configured] << [BuildCacheEntryCompression.values(), BuildCacheEntryCompression.values()].combinations()
+    }
+
+    def "writes plain gzip entries readable by older versions"() {
+        def output = new ByteArrayOutputStream()
+
+        when:
+        new CompressingBuildCacheEntryPacker(delegate, BuildCacheEntryCompression.GZIP).pack(entity, [:], output, Stub(OriginWriter))
+
+        then:
+        new GZIPInputStream(new ByteArrayInputStream(output.toByteArray())).bytes == content
+    }
+
+    def "can unpack gzip entries written by older versions"() {
+        def output = new ByteArrayOutputStream()
+        new GZIPOutputStream(output).withCloseable { it.write(content) }
+
+        when:
+        def result = new CompressingBuildCacheEntryPacker(delegate, BuildCacheEntryCompression.LZ4).unpack(entity, new ByteArrayInputStream(output.toByteArray()), Stub(OriginReader))
+
+        then:
+        result.entries == 1
+    }
+
+    def "fails to unpack entry with unknown compression"() {
+        when:
+        new CompressingBuildCacheEntryPacker(delegate, BuildCacheEntryCompression.GZIP).unpack(entity, new ByteArrayInputStream(input as byte[]), Stub(OriginReader))
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message == "Cached entry format error, unknown compression of build cache entry"
+
+        where:
+        input << [[], [0x47, 0x42, 0x43, 0x7f], [0x01, 0x02, 0x03, 0x04, 0x05]]
+    }
+
+    def "fails for unknown compression name"() {
+        expect:
+        BuildCacheEntryCompression.forName("Lz4") == BuildCacheEntryCompression.LZ4
+
+        when:
+        BuildCacheEntryCompression.forName("zstd")
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message == "Unknown build cache entry compression 'zstd'. Supported values are: gzip, lz4, none."
+    }
+}
@@ -17,7 +17,10 @@
 package org.gradle.caching.internal.packaging.impl
 
 import org.gradle.api.internal.file.TestFiles
+import org.gradle.caching.internal.packaging.BuildCacheBlobStore
+import org.gradle.caching.internal.packaging.MissingBlobException
 import org.gradle.internal.file.Deleter
+import org.gradle.internal.hash.HashCode
 import org.gradle.internal.nativeintegration.filesystem.FileSystem
 import org.gradle.util.Requires
 import org.gradle.util.TestPrecondition
@@ -63,6 +66,69 @@ class TarBuildCacheEntryPackerTest extends AbstractTarBuildCacheEntryPackerSpec
         result.entries == 4
     }
 
+    def "can pack directory with file content stored in blob store"() {
+        def blobs = [:]
+        def blobStore = new BuildCacheBlobStore() {
+            @Override
+            void store(HashCode contentHash, int unixMode, File file) {
+                blobs[contentHash] = file.bytes
+            }
+
+            @Override
+            boolean restore(HashCode contentHash, int unixMode, File target) {
+                if (!blobs.containsKey(contentHash)) {
+                    return false
+                }
+                target.bytes = blobs[contentHash]
+                return true
+            }
+
+            @Override
+            void discard(HashCode contentHash, int unixMode) {
+                blobs.remove(contentHash)
+            }
+        }
+        packer = packer.withBlobStore(blobStore)
+        def sourceOutputDir = temporaryFolder.file("source").createDir()
+        sourceOutputDir.file("subdir/data.txt") << "output"
+        sourceOutputDir.file("subdir/same-data.txt") << "output"
+        def targetOutputDir = temporaryFolder.file("target").createDir()
+        def output = new ByteArrayOutputStream()
+
+        when:
+        def packResult = pack output, prop(DIRECTORY, sourceOutputDir)
+
+        then:
+        packResult.entries == 5
+        blobs.size() == 1
+        !new String(output.toByteArray(), "ISO-8859-1").contains("output")
+
+        when:
+        def result = unpack new ByteArrayInputStream(output.toByteArray()), prop(DIRECTORY, targetOutputDir)
+
+        then:
+        result.entries == 5
+        targetOutputDir.file("subdir/data.txt").text == "output"
+        targetOutputDir.file("subdir/same-data.txt").text == "output"
+
+        when:
+        def contentHash = blobs.keySet().first()
+        blobs[contentHash] = "corrupt".bytes
+        unpack new ByteArrayInputStream(output.toByteArray()), prop(DIRECTORY, targetOutputDir)
+
+        then:
+        def corrupt = thrown(MissingBlobException)
+        corrupt.message.contains("has hash")
+        blobs.isEmpty()
+
+        when:
+        unpack new ByteArrayInputStream(output.toByteArray()), prop(DIRECTORY, targetOutputDir)
+
+        then:
+        def missing = thrown(MissingBlobException)
+        missing.message.contains("is missing from the blob store")
+    }
+
     def "can pack tree with missing #type (pre-existing as: #preExistsAs)"() {
         def sourceOutput = temporaryFolder.file("source")
         def targetOutput = temporaryFolder.file("target")
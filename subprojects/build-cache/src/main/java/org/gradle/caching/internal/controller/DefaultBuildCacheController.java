@@ -17,8 +17,10 @@
 package org.gradle.caching.internal.controller;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.io.ByteStreams;
 import com.google.common.io.Closer;
 import org.gradle.api.GradleException;
 import org.gradle.api.internal.cache.StringInterner;
@@ -41,10 +43,16 @@
 import org.gradle.caching.internal.controller.service.OpFiringRemoteBuildCacheServiceHandle;
 import org.gradle.caching.internal.origin.OriginMetadata;
 import org.gradle.caching.internal.origin.OriginMetadataFactory;
+import org.gradle.caching.internal.origin.OriginReader;
+import org.gradle.caching.internal.origin.OriginWriter;
+import org.gradle.caching.internal.packaging.BuildCacheBlobStore;
 import org.gradle.caching.internal.packaging.BuildCacheEntryPacker;
+import org.gradle.caching.internal.packaging.MissingBlobException;
 import org.gradle.caching.local.internal.BuildCacheTempFileStore;
 import org.gradle.caching.local.internal.DefaultBuildCacheTempFileStore;
 import org.gradle.caching.local.internal.LocalBuildCacheService;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ManagedExecutor;
 import org.gradle.internal.file.FileMetadata;
 import org.gradle.internal.file.FileType;
 import org.gradle.internal.file.TreeType;
@@ -57,19 +65,26 @@
 import org.gradle.internal.snapshot.FileSystemSnapshot;
 import org.gradle.internal.snapshot.MissingFileSnapshot;
 import org.gradle.internal.vfs.FileSystemAccess;
+import org.gradle.util.internal.GFileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class DefaultBuildCacheController implements BuildCacheController {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultBuildCacheController.class);
 
     @VisibleForTesting
     final RemoteBuildCacheServiceHandle remote;
@@ -80,6 +95,9 @@ public class DefaultBuildCacheController implements BuildCacheController {
     private final BuildCacheTempFileStore tmp;
     private final boolean emitDebugLogging;
     private final PackOperationExecutor packExecutor;
+    private final PackOperationExecutor localPackExecutor;
+    @Nullable
+    private final StoreBehindRemoteUploader storeBehind;
 
     private boolean closed;
 
@@ -94,6 +112,25 @@ public DefaultBuildCacheController(
         BuildCacheEntryPacker packer,
         OriginMetadataFactory originMetadataFactory,
         StringInterner stringInterner
+    ) {
+        this(config, buildOperationExecutor, temporaryFileProvider, logStackTraces, emitDebugLogging, disableRemoteOnError, fileSystemAccess, packer, originMetadataFactory, stringInterner, null);
+    }
+
+    /**
+     * @param storeBehindExecutor when not null, entries are uploaded to the remote cache in the background using the given executor, which is stopped when the controller is closed.
+     */
+    public DefaultBuildCacheController(
+        BuildCacheServicesConfiguration config,
+        BuildOperationExecutor buildOperationExecutor,
+        TemporaryFileProvider temporaryFileProvider,
+        boolean logStackTraces,
+        boolean emitDebugLogging,
+        boolean disableRemoteOnError,
+        FileSystemAccess fileSystemAccess,
+        BuildCacheEntryPacker packer,
+        OriginMetadataFactory originMetadataFactory,
+        StringInterner stringInterner,
+        @Nullable ManagedExecutor storeBehindExecutor
     ) {
         this.emitDebugLogging = emitDebugLogging;
         this.local = toLocalHandle(config.getLocal(), config.isLocalPush());
@@ -106,6 +143,19 @@ public DefaultBuildCacheController(
             originMetadataFactory,
             stringInterner
         );
+        BuildCacheBlobStore blobStore = config.getLocal() == null ? null : config.getLocal().getBlobStore();
+        this.localPackExecutor = blobStore == null
+            ? packExecutor
+            : new PackOperationExecutor(
+                buildOperationExecutor,
+                fileSystemAccess,
+                packer.withBlobStore(blobStore),
+                originMetadataFactory,
+                stringInterner
+            );
+        this.storeBehind = storeBehindExecutor == null
+            ? null
+            : new StoreBehindRemoteUploader(remote, buildOperationExecutor, temporaryFileProvider, storeBehindExecutor, StoreBehindRemoteUploader.MAX_QUEUED_UPLOADS);
     }
 
     @Override
@@ -129,16 +179,36 @@ public Optional<BuildCacheLoadResult> load(BuildCacheKey key, CacheableEntity en
 
     private Optional<BuildCacheLoadResult> loadLocal(BuildCacheKey key, CacheableEntity entity) {
         try {
-            return local.maybeLoad(key, file -> packExecutor.unpack(key, entity, file));
+            return local.maybeLoad(key, file -> localPackExecutor.unpack(key, entity, file));
         } catch (Exception e) {
+            MissingBlobException missingBlob = findMissingBlob(e);
+            if (missingBlob != null) {
+                // The content of the entry has been removed by cleanup, so the entry is as good as missing
+                LOGGER.info("Local cache entry {} for {} cannot be used: {}", key.getHashCode(), entity.getDisplayName(), missingBlob.getMessage());
+                localPackExecutor.removeUnpackedOutputs(entity);
+                return Optional.empty();
+            }
             throw new GradleException("Could not load from local cache: " + e.getMessage(), e);
         }
     }
 
+    @Nullable
+    private static MissingBlobException findMissingBlob(Exception e) {
+        for (Throwable cause : Throwables.getCausalChain(e)) {
+            if (cause instanceof MissingBlobException) {
+                return (MissingBlobException) cause;
+            }
+        }
+        return null;
+    }
+
     private Optional<BuildCacheLoadResult> loadRemoteAndStoreResultLocally(BuildCacheKey key, CacheableEntity entity) {
         if (!remote.canLoad()) {
             return Optional.empty();
         }
+        if (localPackExecutor != packExecutor) {
+            return loadRemoteAndRepackResultLocally(key, entity);
+        }
         AtomicReference<Optional<BuildCacheLoadResult>> result = new AtomicReference<>(Optional.empty());
         tmp.withTempFile(key, file -> {
             Optional<BuildCacheLoadResult> remoteResult;
@@ -155,11 +225,56 @@ private Optional<BuildCacheLoadResult> loadRemoteAndStoreResultLocally(BuildCach
         return result.get();
     }
 
+    /**
+     * Entries in a content-addressed local cache have a different format than remote entries,
+     * so the unpacked result is packed again for the local cache, keeping the origin of the remote entry.
+     */
+    private Optional<BuildCacheLoadResult> loadRemoteAndRepackResultLocally(BuildCacheKey key, CacheableEntity entity) {
+        AtomicReference<Optional<BuildCacheLoadResult>> result = new AtomicReference<>(Optional.empty());
+        AtomicReference<byte[]> origin = new AtomicReference<>();
+        tmp.withTempFile(key, file -> {
+            Optional<BuildCacheLoadResult> remoteResult;
+            try {
+                remoteResult = remote.maybeLoad(key, file, f -> packExecutor.unpack(key, entity, f, capturingOrigin(entity, origin)));
+            } catch (Exception e) {
+                throw new GradleException("Could not load from remote cache: " + e.getMessage(), e);
+            }
+            result.set(remoteResult);
+        });
+        Optional<BuildCacheLoadResult> remoteResult = result.get();
+        if (remoteResult.isPresent() && local.canStore()) {
+            Map<String, FileSystemSnapshot> snapshots = remoteResult.get().getResultingSnapshots();
+            byte[] originBytes = origin.get();
+            tmp.withTempFile(key, file -> {
+                localPackExecutor.pack(file, key, entity, snapshots, outputStream -> outputStream.write(originBytes));
+                local.maybeStore(key, file);
+            });
+        }
+        return remoteResult;
+    }
+
+    private OriginReader capturingOrigin(CacheableEntity entity, AtomicReference<byte[]> origin) {
+        OriginReader delegate = localPackExecutor.originMetadataFactory.createReader(entity);
+        return inputStream -> {
+            byte[] bytes = ByteStreams.toByteArray(inputStream);
+            origin.set(bytes);
+            return delegate.execute(new ByteArrayInputStream(bytes));
+        };
+    }
+
     @Override
     public void store(BuildCacheKey key, CacheableEntity entity, Map<String, FileSystemSnapshot> snapshots, Duration executionTime) {
         if (!local.canStore() && !remote.canStore()) {
             return;
         }
+        if (storeBehind != null && remote.canStore()) {
+            storeBehind(key, entity, snapshots, executionTime);
+            return;
+        }
+        if (localPackExecutor != packExecutor) {
+            storeSeparately(key, entity, snapshots, executionTime);
+            return;
+        }
         tmp.withTempFile(key, file -> {
             packExecutor.pack(file, key, entity, snapshots, executionTime);
             remote.maybeStore(key, file);
@@ -167,10 +282,64 @@ public void store(BuildCacheKey key, CacheableEntity entity, Map<String, FileSys
         });
     }
 
+    private void storeBehind(BuildCacheKey key, CacheableEntity entity, Map<String, FileSystemSnapshot> snapshots, Duration executionTime) {
+        // Pack outside the local cache lock, so that waiting for the upload queue does not block other processes
+        File uploadFile = storeBehind.createUploadFile();
+        try {
+            packExecutor.pack(uploadFile, key, entity, snapshots, executionTime);
+            if (local.canStore()) {
+                tmp.withTempFile(key, file -> {
+                    if (localPackExecutor != packExecutor) {
+                        localPackExecutor.pack(file, key, entity, snapshots, executionTime);
+                    } else {
+                        linkOrCopy(uploadFile, file);
+                    }
+                    local.maybeStore(key, file);
+                });
+            }
+        } catch (RuntimeException e) {
+            uploadFile.delete();
+            throw e;
+        }
+        storeBehind.enqueue(key, uploadFile);
+    }
+
+    private static void linkOrCopy(File source, File target) {
+        try {
+            Files.deleteIfExists(target.toPath());
+            try {
+                Files.createLink(target.toPath(), source.toPath());
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.copy(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private void storeSeparately(BuildCacheKey key, CacheableEntity entity, Map<String, FileSystemSnapshot> snapshots, Duration executionTime) {
+        if (remote.canStore()) {
+            tmp.withTempFile(key, file -> {
+                packExecutor.pack(file, key, entity, snapshots, executionTime);
+                remote.maybeStore(key, file);
+            });
+        }
+        if (local.canStore()) {
+            tmp.withTempFile(key, file -> {
+                localPackExecutor.pack(file, key, entity, snapshots, executionTime);
+                local.maybeStore(key, file);
+            });
+        }
+    }
+
     @Override
     public void close() throws IOException {
         if (!closed) {
             closed = true;
+            if (storeBehind != null) {
+                // Finish uploading before closing the remote cache
+                storeBehind.close();
+            }
             Closer closer = Closer.create();
             closer.register(local);
             closer.register(remote);
@@ -196,11 +365,15 @@ static class PackOperationExecutor {
 
         @VisibleForTesting
         BuildCacheLoadResult unpack(BuildCacheKey key, CacheableEntity entity, File file) {
+            return unpack(key, entity, file, originMetadataFactory.createReader(entity));
+        }
+
+        BuildCacheLoadResult unpack(BuildCacheKey key, CacheableEntity entity, File file, OriginReader originReader) {
             return buildOperationExecutor.call(new CallableBuildOperation<BuildCacheLoadResult>() {
                 @Override
                 public BuildCacheLoadResult call(BuildOperationContext context) throws IOException {
                     try (InputStream input = new FileInputStream(file)) {
-                        BuildCacheLoadResult metadata = doUnpack(entity, input);
+                        BuildCacheLoadResult metadata = doUnpack(entity, input, originReader);
                         context.setResult(new UnpackOperationResult(metadata.getArtifactEntryCount()));
                         return metadata;
                     }
@@ -215,12 +388,12 @@ public BuildOperationDescriptor.Builder description() {
             });
         }
 
-        private BuildCacheLoadResult doUnpack(CacheableEntity entity, InputStream input) throws IOException {
+        private BuildCacheLoadResult doUnpack(CacheableEntity entity, InputStream input, OriginReader originReader) throws IOException {
             ImmutableList.Builder<String> roots = ImmutableList.builder();
             entity.visitOutputTrees((name, type, root) -> roots.add(root.getAbsolutePath()));
             // TODO: Actually unpack the roots inside of the action
             fileSystemAccess.write(roots.build(), () -> {});
-            BuildCacheEntryPacker.UnpackResult unpackResult = packer.unpack(entity, input, originMetadataFactory.createReader(entity));
+            BuildCacheEntryPacker.UnpackResult unpackResult = packer.unpack(entity, input, originReader);
             // TODO: Update the snapshots from the action
             ImmutableSortedMap<String, FileSystemSnapshot> resultingSnapshots = snapshotUnpackedData(entity, unpackResult.getSnapshots());
             return new BuildCacheLoadResult() {
@@ -239,6 +412,18 @@ public ImmutableSortedMap<String, FileSystemSnapshot> getResultingSnapshots() {
             };
         }
 
+        /**
+         * Removes the outputs of an entry that could only be partially unpacked, so the work starts from a clean state.
+         */
+        void removeUnpackedOutputs(CacheableEntity entity) {
+            ImmutableList.Builder<File> roots = ImmutableList.builder();
+            entity.visitOutputTrees((name, type, root) -> roots.add(root));
+            ImmutableList<File> rootFiles = roots.build();
+            ImmutableList.Builder<String> rootPaths = ImmutableList.builder();
+            rootFiles.forEach(root -> rootPaths.add(root.getAbsolutePath()));
+            fileSystemAccess.write(rootPaths.build(), () -> rootFiles.forEach(GFileUtils::deleteQuietly));
+        }
+
         private ImmutableSortedMap<String, FileSystemSnapshot> snapshotUnpackedData(CacheableEntity entity, Map<String, ? extends FileSystemLocationSnapshot> treeSnapshots) {
             ImmutableSortedMap.Builder<String, FileSystemSnapshot> builder = ImmutableSortedMap.naturalOrder();
             entity.visitOutputTrees((treeName, type, root) -> {
@@ -261,11 +446,15 @@ private ImmutableSortedMap<String, FileSystemSnapshot> snapshotUnpackedData(Cach
 
         @VisibleForTesting
         void pack(File file, BuildCacheKey key, CacheableEntity entity, Map<String, FileSystemSnapshot> snapshots, Duration executionTime) {
+            pack(file, key, entity, snapshots, originMetadataFactory.createWriter(entity, executionTime));
+        }
+
+        void pack(File file, BuildCacheKey key, CacheableEntity entity, Map<String, FileSystemSnapshot> snapshots, OriginWriter originWriter) {
             buildOperationExecutor.run(new RunnableBuildOperation() {
                 @Override
                 public void run(BuildOperationContext context) throws IOException {
                     try (FileOutputStream fileOutputStream = new FileOutputStream(file)) {
-                        BuildCacheEntryPacker.PackResult packResult = packer.pack(entity, snapshots, fileOutputStream, originMetadataFactory.createWriter(entity, executionTime));
+                        BuildCacheEntryPacker.PackResult packResult = packer.pack(entity, snapshots, fileOutputStream, originWriter);
                         long entryCount = packResult.getEntries();
                         context.setResult(new PackOperationResult(entryCount, file.length()));
                     }
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.controller;
+
+import org.gradle.api.internal.file.temp.TemporaryFileProvider;
+import org.gradle.caching.BuildCacheKey;
+import org.gradle.caching.internal.controller.operations.StoreBehindOperationDetails;
+import org.gradle.caching.internal.controller.operations.StoreBehindOperationResult;
+import org.gradle.caching.internal.controller.service.RemoteBuildCacheServiceHandle;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.OperationIdentifier;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.File;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Uploads packed entries to the remote build cache in the background, so that work does not wait for its outputs to be uploaded.
+ *
+ * At most {@link #MAX_QUEUED_UPLOADS} entries are queued. Queueing more entries blocks until an upload has finished.
+ * Closing the uploader waits for all queued entries to be uploaded.
+ */
+class StoreBehindRemoteUploader implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StoreBehindRemoteUploader.class);
+
+    static final int MAX_QUEUED_UPLOADS = 64;
+
+    private final RemoteBuildCacheServiceHandle remote;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final TemporaryFileProvider temporaryFileProvider;
+    private final ManagedExecutor executor;
+    private final Semaphore capacity;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    StoreBehindRemoteUploader(RemoteBuildCacheServiceHandle remote, BuildOperationExecutor buildOperationExecutor, TemporaryFileProvider temporaryFileProvider, ManagedExecutor executor, int maxQueuedUploads) {
+        this.remote = remote;
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.temporaryFileProvider = temporaryFileProvider;
+        this.executor = executor;
+        this.capacity = new Semaphore(maxQueuedUploads);
+    }
+
+    /**
+     * Creates a file to pack an entry into, to be passed to {@link #enqueue(BuildCacheKey, File)} afterwards.
+     */
+    File createUploadFile() {
+        return temporaryFileProvider.createTemporaryFile("build-cache-", ".upload");
+    }
+
+    /**
+     * Queues the upload of the given file, blocking while the queue is full. The file is deleted after the upload.
+     */
+    void enqueue(BuildCacheKey key, File file) {
+        try {
+            capacity.acquire();
+        } catch (InterruptedException e) {
+            deleteUploadFile(file);
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        int queueDepth = queued.incrementAndGet();
+        long queuedAt = System.nanoTime();
+        OperationIdentifier queuedBy = currentOperationId();
+        executor.execute(() -> {
+            try {
+                upload(key, file, queueDepth, queuedAt, queuedBy);
+            } finally {
+                deleteUploadFile(file);
+                queued.decrementAndGet();
+                capacity.release();
+            }
+        });
+    }
+
+    @Nullable
+    private OperationIdentifier currentOperationId() {
+        try {
+            return buildOperationExecutor.getCurrentOperation().getId();
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The upload is not a child of the operation that queued it, since a child operation must not outlive its parent, and the work that queued an upload usually finishes first.
+     * The id of the queueing operation is reported in the details instead.
+     */
+    private void upload(BuildCacheKey key, File file, int queueDepth, long queuedAt, @Nullable OperationIdentifier queuedBy) {
+        buildOperationExecutor.run(new RunnableBuildOperation() {
+            @Override
+            public void run(BuildOperationContext context) {
+                long queuedTimeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queuedAt);
+                remote.maybeStore(key, file);
+                context.setResult(new StoreBehindOperationResult(queuedTimeMillis));
+            }
+
+            @Override
+            public BuildOperationDescriptor.Builder description() {
+                return BuildOperationDescriptor.displayName("Upload entry " + key.getDisplayName() + " to remote build cache in the background")
+                    .details(new StoreBehindOperationDetails(key, queueDepth, queuedBy))
+                    .progressDisplayName("Uploading to remote build cache");
+            }
+        });
+    }
+
+    private static void deleteUploadFile(File file) {
+        if (!file.delete() && file.exists()) {
+            LOGGER.debug("Could not delete build cache upload file {}", file);
+        }
+    }
+
+    @Override
+    public void close() {
+        int remaining = queued.get();
+        if (remaining == 0) {
+            executor.stop();
+            return;
+        }
+        buildOperationExecutor.run(new RunnableBuildOperation() {
+            @Override
+            public void run(BuildOperationContext context) {
+                executor.stop();
+            }
+
+            @Override
+            public BuildOperationDescriptor.Builder description() {
+                return BuildOperationDescriptor.displayName("Wait for " + remaining + " remote build cache uploads")
+                    .progressDisplayName("Waiting for remote build cache uploads");
+            }
+        });
+    }
+}
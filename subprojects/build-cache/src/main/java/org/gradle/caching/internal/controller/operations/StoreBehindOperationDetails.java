@@ -0,0 +1,57 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.controller.operations;
+
+import org.gradle.caching.BuildCacheKey;
+import org.gradle.internal.operations.OperationIdentifier;
+
+import javax.annotation.Nullable;
+
+/**
+ * Details of uploading an entry to the remote build cache in the background.
+ */
+public class StoreBehindOperationDetails {
+
+    private final BuildCacheKey cacheKey;
+    private final int queueDepth;
+    private final OperationIdentifier queuedBy;
+
+    public StoreBehindOperationDetails(BuildCacheKey cacheKey, int queueDepth, @Nullable OperationIdentifier queuedBy) {
+        this.cacheKey = cacheKey;
+        this.queueDepth = queueDepth;
+        this.queuedBy = queuedBy;
+    }
+
+    public String getCacheKey() {
+        return cacheKey.getHashCode();
+    }
+
+    /**
+     * The number of uploads queued when the entry was queued, including the entry itself.
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * The id of the operation that queued the entry, or {@code null} if it was queued outside of a build operation.
+     */
+    @Nullable
+    public OperationIdentifier getQueuedBy() {
+        return queuedBy;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.controller.operations;
+
+/**
+ * Result of uploading an entry to the remote build cache in the background.
+ *
+ * The upload latency is the duration of the operation itself.
+ */
+public class StoreBehindOperationResult {
+
+    private final long queuedTimeMillis;
+
+    public StoreBehindOperationResult(long queuedTimeMillis) {
+        this.queuedTimeMillis = queuedTimeMillis;
+    }
+
+    /**
+     * The time the entry spent in the queue before its upload started.
+     */
+    public long getQueuedTimeMillis() {
+        return queuedTimeMillis;
+    }
+}
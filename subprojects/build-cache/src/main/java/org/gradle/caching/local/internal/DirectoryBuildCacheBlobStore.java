@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.local.internal;
+
+import org.gradle.caching.internal.packaging.BuildCacheBlobStore;
+import org.gradle.internal.file.FileAccessTracker;
+import org.gradle.internal.hash.HashCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Stores blobs as files named after their content hash and mode in a single directory.
+ *
+ * Blobs are restored by copying them, or optionally by hard-linking them into place. Hard links share the blob with the restored output,
+ * so they must only be used when nothing modifies restored outputs in place.
+ */
+public class DirectoryBuildCacheBlobStore implements BuildCacheBlobStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DirectoryBuildCacheBlobStore.class);
+
+    private final File blobDir;
+    private final FileAccessTracker fileAccessTracker;
+    private final boolean useHardLinks;
+    private volatile boolean hardLinksSupported = true;
+
+    public DirectoryBuildCacheBlobStore(File blobDir, FileAccessTracker fileAccessTracker, boolean useHardLinks) {
+        this.blobDir = blobDir;
+        this.fileAccessTracker = fileAccessTracker;
+        this.useHardLinks = useHardLinks;
+    }
+
+    public File getBlobDir() {
+        return blobDir;
+    }
+
+    @Override
+    public void store(HashCode contentHash, int unixMode, File file) throws IOException {
+        File blob = getBlobFile(contentHash, unixMode);
+        if (!blob.isFile()) {
+            Files.createDirectories(blobDir.toPath());
+            // Copy to a temporary file first, so that a partially written blob is never visible
+            Path tempFile = Files.createTempFile(blobDir.toPath(), blob.getName(), ".part");
+            try {
+                Files.copy(file.toPath(), tempFile, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(tempFile, blob.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Stored concurrently
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+        fileAccessTracker.markAccessed(blob);
+    }
+
+    @Override
+    public boolean restore(HashCode contentHash, int unixMode, File target) throws IOException {
+        File blob = getBlobFile(contentHash, unixMode);
+        if (!blob.isFile()) {
+            return false;
+        }
+        fileAccessTracker.markAccessed(blob);
+        Files.deleteIfExists(target.toPath());
+        if (useHardLinks && hardLinksSupported) {
+            try {
+                Files.createLink(target.toPath(), blob.toPath());
+                return true;
+            } catch (UnsupportedOperationException | IOException e) {
+                // For example when the build cache is on a different file system
+                LOGGER.info("Cannot create hard links to build cache blobs in {}, copying them instead: {}", blobDir, e.getMessage());
+                hardLinksSupported = false;
+                Files.deleteIfExists(target.toPath());
+            }
+        }
+        Files.copy(blob.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return true;
+    }
+
+    @Override
+    public void discard(HashCode contentHash, int unixMode) throws IOException {
+        Files.deleteIfExists(getBlobFile(contentHash, unixMode).toPath());
+    }
+
+    private File getBlobFile(HashCode contentHash, int unixMode) {
+        return new File(blobDir, contentHash + "-" + Integer.toOctalString(unixMode));
+    }
+}
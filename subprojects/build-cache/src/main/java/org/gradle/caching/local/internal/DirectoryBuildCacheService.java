@@ -25,6 +25,7 @@
 import org.gradle.caching.BuildCacheException;
 import org.gradle.caching.BuildCacheKey;
 import org.gradle.caching.BuildCacheService;
+import org.gradle.caching.internal.packaging.BuildCacheBlobStore;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.file.FileAccessTracker;
 import org.gradle.internal.resource.local.LocallyAvailableResource;
@@ -32,6 +33,7 @@
 import org.gradle.util.internal.GFileUtils;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -40,20 +42,40 @@
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class DirectoryBuildCacheService implements LocalBuildCacheService, BuildCacheService {
+    /**
+     * Entries which reference blobs are stored with this suffix, so that they are never mistaken for self-contained entries, for example by older Gradle versions sharing the cache directory.
+     */
+    public static final String BLOB_MANIFEST_SUFFIX = ".manifest";
 
     private final PathKeyFileStore fileStore;
     private final PersistentCache persistentCache;
     private final BuildCacheTempFileStore tempFileStore;
     private final FileAccessTracker fileAccessTracker;
     private final String failedFileSuffix;
+    private final BuildCacheBlobStore blobStore;
     private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
     public DirectoryBuildCacheService(PathKeyFileStore fileStore, PersistentCache persistentCache, BuildCacheTempFileStore tempFileStore, FileAccessTracker fileAccessTracker, String failedFileSuffix) {
+        this(fileStore, persistentCache, tempFileStore, fileAccessTracker, failedFileSuffix, null);
+    }
+
+    public DirectoryBuildCacheService(PathKeyFileStore fileStore, PersistentCache persistentCache, BuildCacheTempFileStore tempFileStore, FileAccessTracker fileAccessTracker, String failedFileSuffix, @Nullable BuildCacheBlobStore blobStore) {
         this.fileStore = fileStore;
         this.persistentCache = persistentCache;
         this.tempFileStore = tempFileStore;
         this.fileAccessTracker = fileAccessTracker;
         this.failedFileSuffix = failedFileSuffix;
+        this.blobStore = blobStore;
+    }
+
+    @Nullable
+    @Override
+    public BuildCacheBlobStore getBlobStore() {
+        return blobStore;
+    }
+
+    private String getEntryPath(BuildCacheKey key) {
+        return blobStore == null ? key.getHashCode() : key.getHashCode() + BLOB_MANIFEST_SUFFIX;
     }
 
     private static class LoadAction implements Action<File> {
@@ -102,7 +124,7 @@ public void loadLocally(final BuildCacheKey key, final Action<? super File> read
     }
 
     private void loadInsideLock(BuildCacheKey key, Action<? super File> reader) {
-        LocallyAvailableResource resource = fileStore.get(key.getHashCode());
+        LocallyAvailableResource resource = fileStore.get(getEntryPath(key));
         if (resource == null) {
             return;
         }
@@ -163,7 +185,7 @@ public void run() {
     }
 
     private void storeInsideLock(BuildCacheKey key, File file) {
-        LocallyAvailableResource resource = fileStore.move(key.getHashCode(), file);
+        LocallyAvailableResource resource = fileStore.move(getEntryPath(key), file);
         fileAccessTracker.markAccessed(resource.getFile());
     }
 
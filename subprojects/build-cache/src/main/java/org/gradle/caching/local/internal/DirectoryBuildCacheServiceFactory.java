@@ -21,7 +21,10 @@
 import org.gradle.cache.CacheBuilder;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.PersistentCache;
+import org.gradle.cache.CleanupAction;
 import org.gradle.cache.internal.CleanupActionFactory;
+import org.gradle.cache.internal.CompositeCleanupAction;
+import org.gradle.cache.internal.FilesFinder;
 import org.gradle.cache.internal.LeastRecentlyUsedCacheCleanup;
 import org.gradle.cache.internal.SingleDepthFilesFinder;
 import org.gradle.cache.scopes.GlobalScopedCache;
@@ -43,10 +46,21 @@
 public class DirectoryBuildCacheServiceFactory implements BuildCacheServiceFactory<DirectoryBuildCache> {
     public static final String FAILED_READ_SUFFIX = ".failed";
 
+    /**
+     * Stores the content of files in cache entries as content-addressed blobs shared between entries, instead of in each entry.
+     */
+    public static final String CONTENT_ADDRESSED_PROPERTY = "org.gradle.caching.local.content-addressed";
+
+    /**
+     * Restores content-addressed blobs by hard-linking them into place. Restored outputs must not be modified in place when this is enabled, as that would modify the cached blob.
+     */
+    public static final String HARD_LINK_RESTORE_PROPERTY = "org.gradle.caching.local.content-addressed.hard-links";
+
     private static final String BUILD_CACHE_VERSION = "1";
     private static final String BUILD_CACHE_KEY = "build-cache-" + BUILD_CACHE_VERSION;
     private static final String DIRECTORY_BUILD_CACHE_TYPE = "directory";
     private static final int FILE_TREE_DEPTH_TO_TRACK_AND_CLEANUP = 1;
+    private static final String BLOB_DIRECTORY = "blobs";
 
     private final CacheRepository cacheRepository;
     private final GlobalScopedCache globalScopedCache;
@@ -80,14 +94,22 @@ public BuildCacheService createBuildCacheService(DirectoryBuildCache configurati
         checkDirectory(target);
 
         int removeUnusedEntriesAfterDays = configuration.getRemoveUnusedEntriesAfterDays();
+        boolean contentAddressed = Boolean.getBoolean(CONTENT_ADDRESSED_PROPERTY);
         describer.type(DIRECTORY_BUILD_CACHE_TYPE).
             config("location", target.getAbsolutePath()).
             config("removeUnusedEntriesAfter", String.valueOf(removeUnusedEntriesAfterDays) + " days");
 
+        File blobDir = new File(target, BLOB_DIRECTORY);
+        CleanupAction cleanup = CompositeCleanupAction.builder()
+            .add(new LeastRecentlyUsedCacheCleanup(excluding(blobDir, new SingleDepthFilesFinder(FILE_TREE_DEPTH_TO_TRACK_AND_CLEANUP)), fileAccessTimeJournal, removeUnusedEntriesAfterDays))
+            // Blobs are marked as accessed whenever an entry referencing them is stored or loaded, so they are never older than those entries
+            .add(blobDir, new LeastRecentlyUsedCacheCleanup(new SingleDepthFilesFinder(FILE_TREE_DEPTH_TO_TRACK_AND_CLEANUP), fileAccessTimeJournal, removeUnusedEntriesAfterDays))
+            .build();
+
         PathKeyFileStore fileStore = fileStoreFactory.createFileStore(target);
         PersistentCache persistentCache = cacheRepository
             .cache(target)
-            .withCleanup(cleanupActionFactory.create(new LeastRecentlyUsedCacheCleanup(new SingleDepthFilesFinder(FILE_TREE_DEPTH_TO_TRACK_AND_CLEANUP), fileAccessTimeJournal, removeUnusedEntriesAfterDays)))
+            .withCleanup(cleanupActionFactory.create(cleanup))
             .withDisplayName("Build cache")
             .withLockOptions(mode(OnDemand))
             .withCrossVersionCache(CacheBuilder.LockTarget.DefaultTarget)
@@ -95,7 +117,24 @@ public BuildCacheService createBuildCacheService(DirectoryBuildCache configurati
         BuildCacheTempFileStore tempFileStore = new DefaultBuildCacheTempFileStore(temporaryFileProvider);
         FileAccessTracker fileAccessTracker = new SingleDepthFileAccessTracker(fileAccessTimeJournal, target, FILE_TREE_DEPTH_TO_TRACK_AND_CLEANUP);
 
-        return new DirectoryBuildCacheService(fileStore, persistentCache, tempFileStore, fileAccessTracker, FAILED_READ_SUFFIX);
+        DirectoryBuildCacheBlobStore blobStore = null;
+        if (contentAddressed) {
+            boolean useHardLinks = Boolean.getBoolean(HARD_LINK_RESTORE_PROPERTY);
+            describer.config("contentAddressed", "true");
+            describer.config("hardLinks", String.valueOf(useHardLinks));
+            FileAccessTracker blobAccessTracker = new SingleDepthFileAccessTracker(fileAccessTimeJournal, blobDir, FILE_TREE_DEPTH_TO_TRACK_AND_CLEANUP);
+            // Also mark the blob directory itself as accessed, so that the cleanup of older Gradle versions sharing the cache directory keeps it
+            blobStore = new DirectoryBuildCacheBlobStore(blobDir, file -> {
+                blobAccessTracker.markAccessed(file);
+                fileAccessTracker.markAccessed(file);
+            }, useHardLinks);
+        }
+
+        return new DirectoryBuildCacheService(fileStore, persistentCache, tempFileStore, fileAccessTracker, FAILED_READ_SUFFIX, blobStore);
+    }
+
+    private static FilesFinder excluding(File excluded, FilesFinder delegate) {
+        return (baseDir, filter) -> delegate.find(baseDir, file -> !file.equals(excluded) && filter.accept(file));
     }
 
     private static void checkDirectory(File directory) {
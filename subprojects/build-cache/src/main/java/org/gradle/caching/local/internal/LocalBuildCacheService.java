@@ -18,7 +18,9 @@
 
 import org.gradle.api.Action;
 import org.gradle.caching.BuildCacheKey;
+import org.gradle.caching.internal.packaging.BuildCacheBlobStore;
 
+import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.io.File;
 
@@ -39,6 +41,15 @@ public interface LocalBuildCacheService extends BuildCacheTempFileStore, Closeab
      */
     void storeLocally(BuildCacheKey key, File file);
 
+    /**
+     * Returns the store for the content of files in cache entries, when this cache stores entries as references to content-addressed blobs.
+     * Entries for such a cache need to be packed with a packer that uses this blob store, while holding the lock for a temp file of this cache.
+     */
+    @Nullable
+    default BuildCacheBlobStore getBlobStore() {
+        return null;
+    }
+
     @Override
     void close();
 }
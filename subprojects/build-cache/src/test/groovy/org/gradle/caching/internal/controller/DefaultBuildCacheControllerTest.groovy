@@ -24,10 +24,16 @@ import org.gradle.caching.BuildCacheEntryWriter
 import org.gradle.caching.BuildCacheKey
 import org.gradle.caching.BuildCacheService
 import org.gradle.caching.internal.CacheableEntity
+import org.gradle.caching.internal.controller.operations.StoreBehindOperationDetails
 import org.gradle.caching.internal.controller.service.BuildCacheServicesConfiguration
 import org.gradle.caching.internal.origin.OriginMetadataFactory
+import org.gradle.caching.internal.packaging.BuildCacheBlobStore
 import org.gradle.caching.internal.packaging.BuildCacheEntryPacker
+import org.gradle.caching.internal.packaging.MissingBlobException
 import org.gradle.caching.local.internal.LocalBuildCacheService
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.concurrent.ManagedExecutor
+import org.gradle.internal.file.TreeType
 import org.gradle.internal.operations.TestBuildOperationExecutor
 import org.gradle.internal.snapshot.FileSystemSnapshot
 import org.gradle.internal.vfs.FileSystemAccess
@@ -70,7 +76,13 @@ class DefaultBuildCacheControllerTest extends Specification {
 
     interface Local extends BuildCacheService, LocalBuildCacheService {}
 
-    BuildCacheController getController(boolean disableRemoteOnError = true) {
+    def executorFactory = new DefaultExecutorFactory()
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    BuildCacheController getController(boolean disableRemoteOnError = true, ManagedExecutor storeBehindExecutor = null) {
         new DefaultBuildCacheController(
             new BuildCacheServicesConfiguration(
                 local,
@@ -86,7 +98,8 @@ class DefaultBuildCacheControllerTest extends Specification {
             fileSystemAccess,
             packer,
             originMetadataFactory,
-            stringInterner
+            stringInterner,
+            storeBehindExecutor
         )
     }
 
@@ -155,6 +168,31 @@ class DefaultBuildCacheControllerTest extends Specification {
         0 * local.storeLocally(key, _)
     }
 
+    def "treats local entry with missing blob content as a miss"() {
+        given:
+        def outputDir = tmpDir.createDir("output")
+        outputDir.file("partial.txt").text = "partial"
+        cacheableEntity.visitOutputTrees(_) >> { CacheableEntity.CacheableTreeVisitor visitor ->
+            visitor.visitOutputTree("output", TreeType.DIRECTORY, outputDir)
+        }
+        fileSystemAccess.write(_, _) >> { Iterable<String> locations, Runnable action -> action.run() }
+        local.getBlobStore() >> Stub(BuildCacheBlobStore)
+        packer.withBlobStore(_) >> Stub(BuildCacheEntryPacker) {
+            unpack(_, _, _) >> { throw new MissingBlobException("missing") }
+        }
+
+        when:
+        def result = controller.load(key, cacheableEntity)
+
+        then:
+        1 * local.loadLocally(key, _) >> { BuildCacheKey key, Action<File> action ->
+            action.execute(tmpDir.createFile("entry"))
+        }
+        1 * remote.load(key, _) >> false
+        !result.present
+        !outputDir.exists()
+    }
+
     def "remote load also stores to local"() {
         given:
         1 * local.loadLocally(key, _) // miss
@@ -265,6 +303,26 @@ class DefaultBuildCacheControllerTest extends Specification {
         1 * remote.store(key, _)
     }
 
+    def "uploads to remote in the background with store-behind"() {
+        given:
+        def controller = getController(true, executorFactory.create("store-behind", 1))
+        def storeThread = null
+
+        when:
+        controller.store(key, cacheableEntity, snapshots, executionTime)
+        controller.close()
+
+        then:
+        1 * local.storeLocally(key, _)
+        1 * remote.store(key, _) >> { storeThread = Thread.currentThread() }
+        1 * remote.close()
+        storeThread != null && storeThread != Thread.currentThread()
+        def uploads = operations.log.descriptors.findAll { it.details instanceof StoreBehindOperationDetails }
+        uploads.size() == 1
+        uploads[0].parentId == null
+        (uploads[0].details as StoreBehindOperationDetails).queuedBy == operations.currentOperation.id
+    }
+
     def "close only closes once"() {
         when:
         def controller = getController()
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.local.internal
+
+import org.gradle.internal.file.FileAccessTracker
+import org.gradle.internal.hash.TestHashCodes
+import org.gradle.test.fixtures.file.CleanupTestDirectory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.nio.file.Files
+
+@CleanupTestDirectory
+class DirectoryBuildCacheBlobStoreTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider(getClass())
+    def blobDir = temporaryFolder.file("blobs")
+    def fileAccessTracker = Mock(FileAccessTracker)
+    def hash = TestHashCodes.hashCodeFrom(1234)
+
+    def "stores content once per hash and mode"() {
+        def blobStore = new DirectoryBuildCacheBlobStore(blobDir, fileAccessTracker, false)
+        def first = temporaryFolder.file("first.txt") << "content"
+        def second = temporaryFolder.file("second.txt") << "content"
+
+        when:
+        blobStore.store(hash, 0644, first)
+        blobStore.store(hash, 0644, second)
+        blobStore.store(hash, 0755, second)
+
+        then:
+        blobDir.list() as Set == ["${hash}-644", "${hash}-755"] as Set
+        3 * fileAccessTracker.markAccessed(_)
+    }
+
+    def "restores blob by #description"() {
+        def blobStore = new DirectoryBuildCacheBlobStore(blobDir, fileAccessTracker, useHardLinks)
+        def source = temporaryFolder.file("source.txt") << "content"
+        def target = temporaryFolder.file("target.txt") << "previous content"
+        blobStore.store(hash, 0644, source)
+
+        when:
+        def restored = blobStore.restore(hash, 0644, target)
+
+        then:
+        restored
+        target.text == "content"
+        Files.isSameFile(target.toPath(), new File(blobDir, "${hash}-644").toPath()) == useHardLinks
+        1 * fileAccessTracker.markAccessed(new File(blobDir, "${hash}-644"))
+
+        where:
+        description   | useHardLinks
+        "copying"     | false
+        "hard-linking"| true
+    }
+
+    def "does not restore missing blob"() {
+        def blobStore = new DirectoryBuildCacheBlobStore(blobDir, fileAccessTracker, false)
+        def target = temporaryFolder.file("target.txt") << "previous content"
+
+        expect:
+        !blobStore.restore(hash, 0644, target)
+        target.text == "previous content"
+    }
+
+    def "does not restore discarded blob"() {
+        def blobStore = new DirectoryBuildCacheBlobStore(blobDir, fileAccessTracker, false)
+        def source = temporaryFolder.file("source.txt") << "content"
+        def target = temporaryFolder.file("target.txt")
+        blobStore.store(hash, 0644, source)
+
+        when:
+        blobStore.discard(hash, 0644)
+
+        then:
+        !blobStore.restore(hash, 0644, target)
+        blobDir.list().length == 0
+    }
+}
@@ -1,6 +1,7 @@
 plugins {
     id("gradlebuild.distribution.implementation-kotlin")
     id("gradlebuild.kotlin-dsl-sam-with-receiver")
+    id("gradlebuild.jmh")
 }
 
 description = "Configuration cache implementation"
@@ -33,6 +34,11 @@ kotlin.sourceSets.all {
     languageSettings.progressiveMode = true
 }
 
+// The benchmarks use the internal serialization API
+kotlin.target.compilations.named("jmh") {
+    associateWith(kotlin.target.compilations.getByName("main"))
+}
+
 tasks.withType<org.jetbrains.kotlin.gradle.tasks.KotlinCompile>().configureEach {
     kotlinOptions.apply {
         apiVersion = "1.5"
@@ -85,6 +91,7 @@ dependencies {
     implementation(libs.groovyJson)
     implementation(libs.slf4jApi)
     implementation(libs.guava)
+    implementation(libs.commonsCompress)
 
     implementation(libs.futureKotlin("stdlib-jdk8"))
     implementation(libs.futureKotlin("reflect"))
@@ -93,6 +100,9 @@ dependencies {
     testImplementation(libs.mockitoKotlin2)
     testImplementation(libs.kotlinCoroutinesDebug)
 
+    jmhImplementation(testFixtures(project(":core")))
+    jmhImplementation(libs.mockitoKotlin2)
+
     integTestImplementation(project(":jvm-services"))
     integTestImplementation(project(":tooling-api"))
     integTestImplementation(project(":platform-jvm"))
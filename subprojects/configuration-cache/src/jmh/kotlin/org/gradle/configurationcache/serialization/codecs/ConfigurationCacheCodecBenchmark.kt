@@ -0,0 +1,240 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configurationcache.serialization.codecs
+
+import com.nhaarman.mockitokotlin2.mock
+import org.gradle.cache.internal.TestCrossBuildInMemoryCacheFactory
+import org.gradle.configurationcache.StateFileCompression
+import org.gradle.configurationcache.extensions.useToRun
+import org.gradle.configurationcache.serialization.Codec
+import org.gradle.configurationcache.serialization.DefaultReadContext
+import org.gradle.configurationcache.serialization.DefaultWriteContext
+import org.gradle.configurationcache.serialization.IsolateOwner
+import org.gradle.configurationcache.serialization.beans.BeanConstructors
+import org.gradle.configurationcache.serialization.beans.BeanSchemas
+import org.gradle.configurationcache.serialization.beans.BeanStateReaderLookup
+import org.gradle.configurationcache.serialization.beans.BeanStateWriterLookup
+import org.gradle.configurationcache.serialization.codecs.jos.JavaSerializationEncodingLookup
+import org.gradle.configurationcache.serialization.runReadOperation
+import org.gradle.configurationcache.serialization.runWriteOperation
+import org.gradle.configurationcache.serialization.withIsolate
+import org.gradle.internal.serialize.Decoder
+import org.gradle.internal.serialize.FlushableEncoder
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder
+import org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedDecoder
+import org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedEncoder
+import org.gradle.util.TestUtil
+import org.openjdk.jmh.annotations.AuxCounters
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.File
+import java.io.InputStream
+import java.io.OutputStream
+
+
+/**
+ * Measures the throughput and the size of configuration cache state, as encoded by the user types codec,
+ * for each encoding and compression of the state files.
+ *
+ * The graph is made of beans shaped like the state of compile tasks, which is what [BeanCodec] spends most of its time on
+ * when storing the work graph. Task nodes themselves need a configured project, so they are not part of the graph.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+open class ConfigurationCacheCodecBenchmark {
+
+    @Param("kryo", "deduplicating")
+    @JvmField
+    var encoding = ""
+
+    @Param("NONE", "LZ4")
+    @JvmField
+    var compression = ""
+
+    @Param("500")
+    @JvmField
+    var tasks = 0
+
+    private
+    lateinit var graph: List<CompileTaskState>
+
+    private
+    lateinit var encoded: ByteArray
+
+    private
+    val codec = codecs().userTypesCodec()
+
+    @Setup(Level.Trial)
+    fun setup() {
+        graph = (0 until tasks).map { compileTaskState(it) }
+        encoded = encode()
+    }
+
+    @Benchmark
+    fun encode(size: EntrySize): ByteArray =
+        encode().also {
+            size.bytes = it.size.toLong()
+        }
+
+    @Benchmark
+    fun decode(): Any? =
+        decode(encoded)
+
+    private
+    fun encode(): ByteArray {
+        val outputStream = ByteArrayOutputStream()
+        val compressed = StateFileCompression.valueOf(compression).outputStreamFor(outputStream)
+        writeContextFor(encoderFor(compressed)).useToRun {
+            withIsolate(IsolateOwner.OwnerGradle(mock()), codec) {
+                runWriteOperation {
+                    write(graph)
+                }
+            }
+        }
+        return outputStream.toByteArray()
+    }
+
+    private
+    fun decode(bytes: ByteArray): Any? {
+        val decompressed = StateFileCompression.inputStreamFor(ByteArrayInputStream(bytes))
+        return readContextFor(decoderFor(decompressed)).run {
+            initClassLoader(javaClass.classLoader)
+            withIsolate(IsolateOwner.OwnerGradle(mock()), codec) {
+                runReadOperation {
+                    read()
+                }
+            }
+        }
+    }
+
+    private
+    fun encoderFor(outputStream: OutputStream): FlushableEncoder =
+        if (encoding == "deduplicating") StringDeduplicatingKryoBackedEncoder(outputStream) else KryoBackedEncoder(outputStream)
+
+    private
+    fun decoderFor(inputStream: InputStream): Decoder =
+        if (encoding == "deduplicating") StringDeduplicatingKryoBackedDecoder(inputStream) else KryoBackedDecoder(inputStream)
+
+    private
+    fun writeContextFor(encoder: FlushableEncoder) =
+        DefaultWriteContext(
+            codec = codec,
+            encoder = encoder,
+            scopeLookup = mock(),
+            beanStateWriterLookup = BeanStateWriterLookup(BeanSchemas(TestCrossBuildInMemoryCacheFactory())),
+            logger = mock(),
+            tracer = null,
+            problemsListener = mock()
+        )
+
+    private
+    fun readContextFor(decoder: Decoder) =
+        DefaultReadContext(
+            codec = codec,
+            decoder = decoder,
+            beanStateReaderLookup = BeanStateReaderLookup(BeanConstructors(TestCrossBuildInMemoryCacheFactory()), BeanSchemas(TestCrossBuildInMemoryCacheFactory()), TestUtil.instantiatorFactory()),
+            logger = mock(),
+            problemsListener = mock()
+        )
+
+    private
+    fun compileTaskState(index: Int): CompileTaskState {
+        val projectDir = File("/work/monorepo/modules/group-${index % 20}/module-$index")
+        return CompileTaskState(
+            path = ":group-${index % 20}:module-$index:compileJava",
+            sources = (0 until 20).map { File(projectDir, "src/main/java/org/example/module$index/Source$it.java") },
+            classpath = (0 until 30).map { File("/home/user/.gradle/caches/modules-2/files-2.1/org.example/library-$it/1.0/library-$it-1.0.jar") },
+            destinationDirectory = File(projectDir, "build/classes/java/main"),
+            options = CompileOptions(
+                encoding = "UTF-8",
+                release = 11,
+                compilerArgs = listOf("-parameters", "-Xlint:deprecation", "-Xlint:unchecked"),
+                annotationProcessorPath = listOf(File("/home/user/.gradle/caches/modules-2/files-2.1/org.example/processor/1.0/processor-1.0.jar"))
+            ),
+            systemProperties = mapOf("org.example.module" to "module-$index", "file.encoding" to "UTF-8")
+        )
+    }
+
+    private
+    fun codecs() = Codecs(
+        directoryFileTreeFactory = mock(),
+        fileCollectionFactory = mock(),
+        artifactSetConverter = mock(),
+        fileLookup = mock(),
+        propertyFactory = mock(),
+        filePropertyFactory = mock(),
+        fileResolver = mock(),
+        instantiator = mock(),
+        listenerManager = mock(),
+        taskNodeFactory = mock(),
+        inputFingerprinter = mock(),
+        buildOperationExecutor = mock(),
+        classLoaderHierarchyHasher = mock(),
+        isolatableFactory = mock(),
+        managedFactoryRegistry = mock(),
+        parameterScheme = mock(),
+        actionScheme = mock(),
+        attributesFactory = mock(),
+        valueSourceProviderFactory = mock(),
+        calculatedValueContainerFactory = mock(),
+        patternSetFactory = mock(),
+        fileOperations = mock(),
+        fileFactory = mock(),
+        includedTaskGraph = mock(),
+        buildStateRegistry = mock(),
+        documentationRegistry = mock(),
+        javaSerializationEncodingLookup = JavaSerializationEncodingLookup()
+    )
+
+    /**
+     * Reports the size of the encoded graph next to the throughput.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    open class EntrySize {
+        @JvmField
+        var bytes = 0L
+    }
+
+    class CompileTaskState(
+        val path: String,
+        val sources: List<File>,
+        val classpath: List<File>,
+        val destinationDirectory: File,
+        val options: CompileOptions,
+        val systemProperties: Map<String, String>
+    )
+
+    class CompileOptions(
+        val encoding: String,
+        val release: Int,
+        val compilerArgs: List<String>,
+        val annotationProcessorPath: List<File>
+    )
+}
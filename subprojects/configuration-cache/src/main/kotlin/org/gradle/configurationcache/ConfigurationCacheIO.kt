@@ -44,8 +44,8 @@ import org.gradle.internal.build.BuildStateRegistry
 import org.gradle.internal.buildtree.BuildTreeWorkGraph
 import org.gradle.internal.serialize.Decoder
 import org.gradle.internal.serialize.Encoder
-import org.gradle.internal.serialize.kryo.KryoBackedDecoder
-import org.gradle.internal.serialize.kryo.KryoBackedEncoder
+import org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedDecoder
+import org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedEncoder
 import org.gradle.internal.service.scopes.Scopes
 import org.gradle.internal.service.scopes.ServiceScope
 import org.gradle.util.Path
@@ -165,7 +165,7 @@ class ConfigurationCacheIO internal constructor(
         stateFile: ConfigurationCacheStateFile,
         action: suspend DefaultReadContext.(ConfigurationCacheState) -> T
     ): T {
-        return withReadContextFor(stateFile.inputStream()) { codecs ->
+        return withReadContextFor(StateFileCompression.inputStreamFor(stateFile.inputStream())) { codecs ->
             ConfigurationCacheState(codecs, stateFile).run {
                 action(this)
             }
@@ -178,7 +178,7 @@ class ConfigurationCacheIO internal constructor(
         action: suspend DefaultWriteContext.(ConfigurationCacheState) -> T
     ): T {
         val build = host.currentBuild
-        val (context, codecs) = writerContextFor(stateFile.outputStream(), build.gradle.owner.displayName.displayName + " state")
+        val (context, codecs) = writerContextFor(stateFileCompression().outputStreamFor(stateFile.outputStream()), build.gradle.owner.displayName.displayName + " state")
         return context.useToRun {
             runWriteOperation {
                 action(ConfigurationCacheState(codecs, stateFile))
@@ -204,9 +204,13 @@ class ConfigurationCacheIO internal constructor(
         }
     }
 
+    private
+    fun stateFileCompression() =
+        if (startParameter.isCompressed) StateFileCompression.LZ4 else StateFileCompression.NONE
+
     internal
     fun writerContextFor(outputStream: OutputStream, profile: String): Pair<DefaultWriteContext, Codecs> =
-        KryoBackedEncoder(outputStream).let { encoder ->
+        StringDeduplicatingKryoBackedEncoder(outputStream).let { encoder ->
             writeContextFor(
                 encoder,
                 loggingTracerFor(profile, encoder),
@@ -215,7 +219,7 @@ class ConfigurationCacheIO internal constructor(
         }
 
     private
-    fun loggingTracerFor(profile: String, encoder: KryoBackedEncoder) =
+    fun loggingTracerFor(profile: String, encoder: StringDeduplicatingKryoBackedEncoder) =
         loggingTracerLogLevel()?.let { level ->
             LoggingTracer(profile, encoder::getWritePosition, logger, level)
         }
@@ -254,7 +258,7 @@ class ConfigurationCacheIO internal constructor(
     private
     fun readerContextFor(
         inputStream: InputStream,
-    ) = readerContextFor(KryoBackedDecoder(inputStream))
+    ) = readerContextFor(StringDeduplicatingKryoBackedDecoder(inputStream))
 
     internal
     fun readerContextFor(
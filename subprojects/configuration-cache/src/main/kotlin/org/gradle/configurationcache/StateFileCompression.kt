@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configurationcache
+
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
+
+
+/**
+ * The compression applied to configuration cache state files.
+ *
+ * The compression is recorded in the first byte of each file, so a file can be read regardless of the current setting.
+ */
+internal
+enum class StateFileCompression(private val id: Int) {
+
+    NONE(0) {
+        override fun compress(outputStream: OutputStream): OutputStream = outputStream
+        override fun decompress(inputStream: InputStream): InputStream = inputStream
+    },
+
+    /**
+     * Compresses the state in independent blocks, trading some size for speed.
+     */
+    LZ4(1) {
+        override fun compress(outputStream: OutputStream): OutputStream = FramedLZ4CompressorOutputStream(outputStream)
+        override fun decompress(inputStream: InputStream): InputStream = FramedLZ4CompressorInputStream(inputStream)
+    };
+
+    protected
+    abstract fun compress(outputStream: OutputStream): OutputStream
+
+    protected
+    abstract fun decompress(inputStream: InputStream): InputStream
+
+    fun outputStreamFor(outputStream: OutputStream): OutputStream {
+        outputStream.write(id)
+        return compress(outputStream)
+    }
+
+    companion object {
+
+        fun inputStreamFor(inputStream: InputStream): InputStream {
+            val id = inputStream.read()
+            val compression = values().find { it.id == id }
+                ?: throw IOException("Unknown configuration cache state compression '$id'.")
+            return compression.decompress(inputStream)
+        }
+    }
+}
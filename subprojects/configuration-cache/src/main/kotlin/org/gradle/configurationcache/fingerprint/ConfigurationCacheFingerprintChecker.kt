@@ -29,6 +29,12 @@ import org.gradle.internal.hash.HashCode
 import org.gradle.internal.util.NumberUtil.ordinal
 import org.gradle.util.Path
 import java.io.File
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executor
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.LongAdder
 import java.util.function.Consumer
 
 
@@ -45,50 +51,72 @@ class ConfigurationCacheFingerprintChecker(private val host: Host) {
         val startParameterProperties: Map<String, Any?>
         val buildStartTime: Long
         val invalidateCoupledProjects: Boolean
+
+        /**
+         * The executor used to check fingerprint entries concurrently, or `null` to check them one after another.
+         */
+        val fingerprintCheckExecutor: Executor?
         fun gradleProperty(propertyName: String): String?
         fun fingerprintOf(fileCollection: FileCollectionInternal): HashCode
         fun hashCodeOf(file: File): HashCode?
         fun displayNameOf(fileOrDirectory: File): String
         fun instantiateValueSourceOf(obtainedValue: ObtainedValue): ValueSource<Any, ValueSourceParameters>
+
+        /**
+         * Receives the time spent checking each kind of fingerprint entry, in nanoseconds.
+         */
+        fun reportCheckTimes(nanosByKind: Map<String, Long>)
     }
 
     suspend fun ReadContext.checkBuildScopedFingerprint(): CheckedFingerprint {
-        // TODO: log some debug info
-        while (true) {
+        // An input that is not specific to a project. If it is out-of-date, then invalidate the whole cache entry and skip any further checks
+        val checks = FingerprintChecks(host.fingerprintCheckExecutor, true)
+        while (!checks.hasInvalidation) {
             when (val input = read()) {
                 null -> break
-                is ConfigurationCacheFingerprint -> {
-                    // An input that is not specific to a project. If it is out-of-date, then invalidate the whole cache entry and skip any further checks
-                    val reason = check(input)
-                    if (reason != null) {
-                        return CheckedFingerprint.EntryInvalid(reason)
-                    }
-                }
+                is ConfigurationCacheFingerprint -> checks.submit(input)
                 else -> throw IllegalStateException("Unexpected configuration cache fingerprint: $input")
             }
         }
-        return CheckedFingerprint.Valid
+        val reason = checks.firstInvalidation()
+        host.reportCheckTimes(checks.nanosByKind)
+        return if (reason == null) {
+            CheckedFingerprint.Valid
+        } else {
+            CheckedFingerprint.EntryInvalid(reason)
+        }
     }
 
     suspend fun ReadContext.checkProjectScopedFingerprint(): CheckedFingerprint {
-        // TODO: log some debug info
         var firstReason: InvalidationReason? = null
         val projects = mutableMapOf<Path, ProjectInvalidationState>()
+        val checks = FingerprintChecks(host.fingerprintCheckExecutor, false)
+        val pending = ArrayDeque<Pair<ProjectInvalidationState, CompletableFuture<InvalidationReason?>>>()
+
+        // Applies the results in the order the inputs were recorded, so the reported reason does not depend on timing
+        fun invalidateChecked(waitForAll: Boolean) {
+            while (pending.isNotEmpty() && (waitForAll || pending.first().second.isDone)) {
+                val (state, result) = pending.removeFirst()
+                val reason = checks.reasonOf(result)
+                if (reason != null) {
+                    if (firstReason == null) {
+                        firstReason = reason
+                    }
+                    state.invalidate()
+                }
+            }
+        }
+
         while (true) {
             when (val input = read()) {
                 null -> break
                 is ProjectSpecificFingerprint.ProjectFingerprint -> input.run {
                     // An input that is specific to a project. If it is out-of-date, then invalidate that project's values and continue checking values
                     // Don't check a value for a project that is already out-of-date
+                    invalidateChecked(false)
                     val state = projects.entryFor(input.projectPath)
                     if (!state.isInvalid) {
-                        val reason = check(input.value)
-                        if (reason != null) {
-                            if (firstReason == null) {
-                                firstReason = reason
-                            }
-                            state.invalidate()
-                        }
+                        pending.addLast(state to checks.submit(input.value))
                     }
                 }
                 is ProjectSpecificFingerprint.ProjectDependency -> {
@@ -107,6 +135,8 @@ class ConfigurationCacheFingerprintChecker(private val host: Host) {
                 else -> throw IllegalStateException("Unexpected configuration cache fingerprint: $input")
             }
         }
+        invalidateChecked(true)
+        host.reportCheckTimes(checks.nanosByKind)
         return if (firstReason == null) {
             CheckedFingerprint.Valid
         } else {
@@ -267,6 +297,67 @@ class ConfigurationCacheFingerprintChecker(private val host: Host) {
             it.displayName + " has changed"
         } ?: "a build logic input of type '${unpackType(valueSource).simpleName}' has changed"
 
+    /**
+     * Checks fingerprint entries, either one after another on the calling thread or concurrently on the given executor.
+     *
+     * When [stopAtFirstInvalidation] is set, the entries recorded after the first out-of-date one are not checked, and
+     * the reported reason is the one of the earliest out-of-date entry, as when checking sequentially.
+     */
+    private
+    inner class FingerprintChecks(
+        private val executor: Executor?,
+        private val stopAtFirstInvalidation: Boolean
+    ) {
+        private
+        val results = mutableListOf<CompletableFuture<InvalidationReason?>>()
+
+        private
+        val firstInvalidIndex = AtomicInteger(Int.MAX_VALUE)
+
+        private
+        val times = ConcurrentHashMap<String, LongAdder>()
+
+        val hasInvalidation: Boolean
+            get() = firstInvalidIndex.get() != Int.MAX_VALUE
+
+        val nanosByKind: Map<String, Long>
+            get() = times.mapValues { it.value.sum() }
+
+        fun submit(input: ConfigurationCacheFingerprint): CompletableFuture<InvalidationReason?> {
+            val index = results.size
+            val result = when (executor) {
+                null -> CompletableFuture.completedFuture(timedCheck(index, input))
+                else -> CompletableFuture.supplyAsync({ timedCheck(index, input) }, executor)
+            }
+            results.add(result)
+            return result
+        }
+
+        fun firstInvalidation(): InvalidationReason? =
+            results.asSequence().mapNotNull { reasonOf(it) }.firstOrNull()
+
+        fun reasonOf(result: CompletableFuture<InvalidationReason?>): InvalidationReason? =
+            try {
+                result.join()
+            } catch (e: CompletionException) {
+                throw e.cause ?: e
+            }
+
+        private
+        fun timedCheck(index: Int, input: ConfigurationCacheFingerprint): InvalidationReason? {
+            if (stopAtFirstInvalidation && index > firstInvalidIndex.get()) {
+                return null
+            }
+            val start = System.nanoTime()
+            val reason = check(input)
+            times.computeIfAbsent(input.javaClass.simpleName) { LongAdder() }.add(System.nanoTime() - start)
+            if (reason != null) {
+                firstInvalidIndex.accumulateAndGet(index, ::minOf)
+            }
+            return reason
+        }
+    }
+
     private
     class ProjectInvalidationState {
         // When true, the project is definitely invalid
@@ -33,7 +33,9 @@ import org.gradle.configurationcache.problems.PropertyProblem
 import org.gradle.configurationcache.problems.location
 import org.gradle.configurationcache.serialization.DefaultWriteContext
 import org.gradle.configurationcache.serialization.ReadContext
+import org.gradle.configurationcache.logger
 import org.gradle.internal.buildtree.BuildModelParameters
+import org.gradle.internal.concurrent.ExecutorFactory
 import org.gradle.internal.concurrent.Stoppable
 import org.gradle.internal.event.ListenerManager
 import org.gradle.internal.execution.TaskExecutionTracker
@@ -54,6 +56,8 @@ import java.io.File
 import java.io.FileOutputStream
 import java.io.OutputStream
 import java.nio.file.Files
+import java.util.concurrent.Executor
+import java.util.concurrent.TimeUnit
 
 
 /**
@@ -74,6 +78,7 @@ class ConfigurationCacheFingerprintController internal constructor(
     private val report: ConfigurationCacheReport,
     private val userCodeApplicationContext: UserCodeApplicationContext,
     private val taskExecutionTracker: TaskExecutionTracker,
+    private val executorFactory: ExecutorFactory,
 ) : Stoppable {
 
     interface Host {
@@ -236,22 +241,39 @@ class ConfigurationCacheFingerprintController internal constructor(
     }
 
     suspend fun ReadContext.checkBuildScopedFingerprint(host: Host): CheckedFingerprint =
-        ConfigurationCacheFingerprintChecker(CacheFingerprintCheckerHost(host)).run {
-            checkBuildScopedFingerprint()
+        withFingerprintCheckExecutor { executor ->
+            ConfigurationCacheFingerprintChecker(CacheFingerprintCheckerHost(host, executor)).run {
+                checkBuildScopedFingerprint()
+            }
         }
 
     suspend fun ReadContext.checkProjectScopedFingerprint(host: Host): CheckedFingerprint =
-        ConfigurationCacheFingerprintChecker(CacheFingerprintCheckerHost(host)).run {
-            checkProjectScopedFingerprint()
+        withFingerprintCheckExecutor { executor ->
+            ConfigurationCacheFingerprintChecker(CacheFingerprintCheckerHost(host, executor)).run {
+                checkProjectScopedFingerprint()
+            }
         }
 
     suspend fun ReadContext.collectFingerprintForReusedProjects(host: Host, reusedProjects: Set<Path>): Unit =
-        ConfigurationCacheFingerprintChecker(CacheFingerprintCheckerHost(host)).run {
+        ConfigurationCacheFingerprintChecker(CacheFingerprintCheckerHost(host, null)).run {
             visitEntriesForProjects(reusedProjects) { fingerprint ->
                 writingState.append(fingerprint)
             }
         }
 
+    private
+    inline fun <T> withFingerprintCheckExecutor(action: (Executor?) -> T): T {
+        if (!startParameter.isParallelFingerprintCheck) {
+            return action(null)
+        }
+        val executor = executorFactory.create("Configuration cache fingerprint checker", startParameter.maxWorkerCount)
+        try {
+            return action(executor)
+        } finally {
+            executor.stop()
+        }
+    }
+
     private
     fun addListener(listener: ConfigurationCacheFingerprintWriter) {
         listenerManager.addListener(listener)
@@ -301,7 +323,8 @@ class ConfigurationCacheFingerprintController internal constructor(
 
     private
     inner class CacheFingerprintCheckerHost(
-        private val host: Host
+        private val host: Host,
+        override val fingerprintCheckExecutor: Executor?
     ) : ConfigurationCacheFingerprintChecker.Host {
 
         private
@@ -340,6 +363,17 @@ class ConfigurationCacheFingerprintController internal constructor(
                 obtainedValue.valueSourceParametersType,
                 obtainedValue.valueSourceParameters
             )
+
+        override fun reportCheckTimes(nanosByKind: Map<String, Long>) {
+            if (logger.isDebugEnabled && nanosByKind.isNotEmpty()) {
+                logger.debug(
+                    "Configuration cache fingerprint check times: {}",
+                    nanosByKind.entries
+                        .sortedByDescending { it.value }
+                        .joinToString { "${it.key} ${TimeUnit.NANOSECONDS.toMillis(it.value)}ms" }
+                )
+            }
+        }
     }
 
     private
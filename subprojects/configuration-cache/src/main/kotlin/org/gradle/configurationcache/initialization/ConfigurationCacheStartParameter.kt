@@ -53,6 +53,21 @@ class ConfigurationCacheStartParameter(
     val recreateCache: Boolean
         get() = startParameter.isConfigurationCacheRecreateCache
 
+    /**
+     * Whether the entries of the fingerprint are checked concurrently, including the evaluation of value sources.
+     */
+    val isParallelFingerprintCheck: Boolean
+        get() = "true".equals(startParameter.systemPropertiesArgs["org.gradle.internal.configuration-cache.parallel-fingerprint-check"], true)
+
+    /**
+     * Whether the state files are compressed, which makes them smaller at the cost of some CPU time.
+     */
+    val isCompressed: Boolean
+        get() = "true".equals(startParameter.systemPropertiesArgs["org.gradle.internal.configuration-cache.compress"], true)
+
+    val maxWorkerCount: Int
+        get() = startParameter.maxWorkerCount
+
     /**
      * See [StartParameter.getProjectDir].
      */
@@ -33,9 +33,10 @@ import java.io.IOException
 import java.lang.reflect.Field
 
 
-class BeanPropertyReader(
+class BeanPropertyReader internal constructor(
     private val beanType: Class<*>,
     private val constructors: BeanConstructors,
+    schemas: BeanSchemas,
     instantiatorFactory: InstantiatorFactory
 ) : BeanStateReader {
     // TODO should use the same scheme as the original bean
@@ -43,7 +44,7 @@ class BeanPropertyReader(
     val instantiationScheme: InstantiationScheme = instantiatorFactory.decorateScheme()
 
     private
-    val relevantFields = relevantStateOf(beanType)
+    val relevantFields = schemas.relevantFieldsOf(beanType)
 
     private
     val constructorForSerialization by unsafeLazy {
@@ -60,6 +61,11 @@ class BeanPropertyReader(
     override suspend fun ReadContext.readStateOf(bean: Any) {
         for (relevantField in relevantFields) {
             val field = relevantField.field
+            val primitive = relevantField.primitive
+            if (primitive != null) {
+                primitive.read(this, field, bean)
+                continue
+            }
             val fieldName = field.name
             relevantField.unsupportedFieldType?.let {
                 reportUnsupportedFieldType(it, "deserialize", fieldName)
@@ -33,12 +33,13 @@ import java.io.IOException
 import java.lang.reflect.Field
 
 
-class BeanPropertyWriter(
-    beanType: Class<*>
+class BeanPropertyWriter internal constructor(
+    beanType: Class<*>,
+    schemas: BeanSchemas
 ) : BeanStateWriter {
 
     private
-    val relevantFields = relevantStateOf(beanType)
+    val relevantFields = schemas.relevantFieldsOf(beanType)
 
     /**
      * Serializes a bean by serializing the value of each of its fields.
@@ -46,6 +47,13 @@ class BeanPropertyWriter(
     override suspend fun WriteContext.writeStateOf(bean: Any) {
         for (relevantField in relevantFields) {
             val field = relevantField.field
+            val primitive = relevantField.primitive
+            if (primitive != null) {
+                withDebugFrame({ field.debugFrameName() }) {
+                    primitive.write(this, field, bean)
+                }
+                continue
+            }
             val fieldName = field.name
             val fieldValue =
                 when (val isExplicitValue = relevantField.isExplicitValueField) {
@@ -30,6 +30,8 @@ import org.gradle.configurationcache.serialization.Workarounds
 import org.gradle.configurationcache.serialization.logUnsupported
 import org.gradle.internal.instantiation.generator.AsmBackedClassGenerator
 import org.gradle.internal.reflect.ClassInspector
+import org.gradle.internal.serialize.Decoder
+import org.gradle.internal.serialize.Encoder
 import java.lang.reflect.AccessibleObject
 import java.lang.reflect.Field
 import java.lang.reflect.Modifier.isStatic
@@ -57,7 +59,7 @@ fun relevantFieldsOf(beanType: Class<*>) =
     relevantTypeHierarchyOf(beanType)
         .flatMap(Class<*>::relevantFields)
         .onEach(Field::makeAccessible)
-        .map { RelevantField(it, unsupportedFieldTypeFor(it)) }
+        .map { RelevantField(it, unsupportedFieldTypeFor(it), primitive = PrimitiveField.of(it)) }
         .toList()
 
 
@@ -67,7 +69,8 @@ fun applyConventionMappingTo(taskType: Class<*>, relevantFields: List<RelevantFi
         relevantFields.map { relevantField ->
             relevantField.run {
                 flags[field]?.let { flagField ->
-                    copy(isExplicitValueField = flagField.apply(Field::makeAccessible))
+                    // The convention value may be absent, which a primitive encoding cannot represent
+                    copy(isExplicitValueField = flagField.apply(Field::makeAccessible), primitive = null)
                 }
             } ?: relevantField
         }
@@ -108,10 +111,64 @@ data class RelevantField(
      * Boolean flag field injected by [AsmBackedClassGenerator] to capture
      * whether a convention mapped property has been explicitly set or not.
      */
-    val isExplicitValueField: Field? = null
+    val isExplicitValueField: Field? = null,
+    /**
+     * The encoding of the field value when it is written without going through the codec.
+     */
+    val primitive: PrimitiveField? = null
 )
 
 
+/**
+ * Reads and writes the value of a primitive field directly from the encoder, without boxing it.
+ */
+internal
+enum class PrimitiveField(private val type: Class<*>) {
+
+    BOOLEAN(java.lang.Boolean.TYPE) {
+        override fun write(encoder: Encoder, field: Field, bean: Any) = encoder.writeBoolean(field.getBoolean(bean))
+        override fun read(decoder: Decoder, field: Field, bean: Any) = field.setBoolean(bean, decoder.readBoolean())
+    },
+    BYTE(java.lang.Byte.TYPE) {
+        override fun write(encoder: Encoder, field: Field, bean: Any) = encoder.writeByte(field.getByte(bean))
+        override fun read(decoder: Decoder, field: Field, bean: Any) = field.setByte(bean, decoder.readByte())
+    },
+    SHORT(java.lang.Short.TYPE) {
+        override fun write(encoder: Encoder, field: Field, bean: Any) = encoder.writeInt(field.getShort(bean).toInt())
+        override fun read(decoder: Decoder, field: Field, bean: Any) = field.setShort(bean, decoder.readInt().toShort())
+    },
+    CHAR(java.lang.Character.TYPE) {
+        override fun write(encoder: Encoder, field: Field, bean: Any) = encoder.writeInt(field.getChar(bean).code)
+        override fun read(decoder: Decoder, field: Field, bean: Any) = field.setChar(bean, decoder.readInt().toChar())
+    },
+    INT(java.lang.Integer.TYPE) {
+        override fun write(encoder: Encoder, field: Field, bean: Any) = encoder.writeInt(field.getInt(bean))
+        override fun read(decoder: Decoder, field: Field, bean: Any) = field.setInt(bean, decoder.readInt())
+    },
+    LONG(java.lang.Long.TYPE) {
+        override fun write(encoder: Encoder, field: Field, bean: Any) = encoder.writeLong(field.getLong(bean))
+        override fun read(decoder: Decoder, field: Field, bean: Any) = field.setLong(bean, decoder.readLong())
+    },
+    FLOAT(java.lang.Float.TYPE) {
+        override fun write(encoder: Encoder, field: Field, bean: Any) = encoder.writeInt(field.getFloat(bean).toRawBits())
+        override fun read(decoder: Decoder, field: Field, bean: Any) = field.setFloat(bean, Float.fromBits(decoder.readInt()))
+    },
+    DOUBLE(java.lang.Double.TYPE) {
+        override fun write(encoder: Encoder, field: Field, bean: Any) = encoder.writeLong(field.getDouble(bean).toRawBits())
+        override fun read(decoder: Decoder, field: Field, bean: Any) = field.setDouble(bean, Double.fromBits(decoder.readLong()))
+    };
+
+    abstract fun write(encoder: Encoder, field: Field, bean: Any)
+
+    abstract fun read(decoder: Decoder, field: Field, bean: Any)
+
+    companion object {
+        fun of(field: Field): PrimitiveField? =
+            values().firstOrNull { it.type == field.type }
+    }
+}
+
+
 internal
 fun MutableIsolateContext.reportUnsupportedFieldType(
     unsupportedType: KClass<*>,
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configurationcache.serialization.beans
+
+import org.gradle.cache.internal.CrossBuildInMemoryCache
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory
+
+
+/**
+ * A global service that caches the relevant fields of bean types, so they are not inspected again by every build.
+ */
+internal
+class BeanSchemas(
+    cacheFactory: CrossBuildInMemoryCacheFactory
+) {
+    private
+    val cache: CrossBuildInMemoryCache<Class<*>, List<RelevantField>> = cacheFactory.newClassCache()
+
+    fun relevantFieldsOf(beanType: Class<*>): List<RelevantField> =
+        cache.get(beanType) { -> relevantStateOf(beanType) }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configurationcache
+
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+
+
+class StateFileCompressionTest {
+
+    @Test
+    fun `reads state written with any compression`() {
+        val content = "configuration cache state ".repeat(1_000).toByteArray()
+
+        for (compression in StateFileCompression.values()) {
+            val outputStream = ByteArrayOutputStream()
+            compression.outputStreamFor(outputStream).use { it.write(content) }
+
+            val read = StateFileCompression.inputStreamFor(ByteArrayInputStream(outputStream.toByteArray())).use { it.readBytes() }
+
+            assertThat(read.toList(), equalTo(content.toList()))
+        }
+    }
+
+    @Test
+    fun `compressed state is smaller`() {
+        val content = "configuration cache state ".repeat(1_000).toByteArray()
+        val outputStream = ByteArrayOutputStream()
+
+        StateFileCompression.LZ4.outputStreamFor(outputStream).use { it.write(content) }
+
+        assertThat(outputStream.size() < content.size / 10, equalTo(true))
+    }
+}
@@ -51,6 +51,7 @@ import org.junit.Test
 import java.io.File
 import java.io.InputStream
 import java.io.OutputStream
+import java.util.concurrent.Executors
 
 
 class ConfigurationCacheFingerprintCheckerTest {
@@ -199,6 +200,33 @@ class ConfigurationCacheFingerprintCheckerTest {
         )
     }
 
+    @Test
+    fun `concurrent check reports the first out-of-date input`() {
+        val executor = Executors.newFixedThreadPool(4)
+        try {
+            assertThat(
+                checkFingerprintGiven(
+                    mock {
+                        on { fingerprintCheckExecutor } doReturn executor
+                        on { hashCodeOf(any()) } doReturn TestHashCodes.hashCodeFrom(1)
+                        on { displayNameOf(any()) }.then { invocation ->
+                            invocation.getArgument<File>(0).name
+                        }
+                    },
+                    *(1..20).map { index ->
+                        ConfigurationCacheFingerprint.InputFile(
+                            File("file$index"),
+                            TestHashCodes.hashCodeFrom(if (index == 6 || index == 13) 2 else 1)
+                        )
+                    }.toTypedArray()
+                ),
+                equalTo("file 'file6' has changed")
+            )
+        } finally {
+            executor.shutdown()
+        }
+    }
+
     private
     fun invalidationReasonForInitScriptsChange(
         from: Iterable<Pair<File, HashCode?>>,
@@ -223,11 +251,11 @@ class ConfigurationCacheFingerprintCheckerTest {
     private
     fun checkFingerprintGiven(
         host: ConfigurationCacheFingerprintChecker.Host,
-        fingerprint: ConfigurationCacheFingerprint
+        vararg fingerprints: ConfigurationCacheFingerprint
     ): InvalidationReason? {
 
         val readContext = recordWritingOf {
-            write(fingerprint)
+            fingerprints.forEach { write(it) }
             write(null)
         }
 
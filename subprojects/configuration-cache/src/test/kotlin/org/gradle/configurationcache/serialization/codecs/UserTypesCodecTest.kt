@@ -38,6 +38,42 @@ class UserTypesCodecTest : AbstractUserTypeCodecTest() {
         )
     }
 
+    @Test
+    fun `can handle primitive fields`() {
+
+        val bean = PrimitiveBean().apply {
+            boolean = true
+            byte = Byte.MIN_VALUE
+            short = Short.MAX_VALUE
+            char = 'g'
+            int = -42
+            long = Long.MAX_VALUE
+            float = Float.NaN
+            double = -0.0
+        }
+
+        val read = configurationCacheRoundtripOf(bean)
+
+        assertThat(
+            read.toString(),
+            equalTo(bean.toString())
+        )
+    }
+
+    class PrimitiveBean {
+        var boolean = false
+        var byte: Byte = 0
+        var short: Short = 0
+        var char = ' '
+        var int = 0
+        var long = 0L
+        var float = 0f
+        var double = 0.0
+
+        override fun toString() =
+            "PrimitiveBean($boolean, $byte, $short, $char, $int, $long, ${float.toRawBits()}, ${double.toRawBits()})"
+    }
+
     @Test
     fun `internal types codec leaves not implemented trace for unsupported types`() {
 
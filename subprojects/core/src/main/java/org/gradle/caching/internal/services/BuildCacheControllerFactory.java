@@ -36,6 +36,7 @@
 import org.gradle.caching.local.DirectoryBuildCache;
 import org.gradle.caching.local.internal.DirectoryBuildCacheService;
 import org.gradle.internal.Cast;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationDescriptor;
 import org.gradle.internal.operations.BuildOperationExecutor;
@@ -55,6 +56,7 @@
 public final class BuildCacheControllerFactory {
 
     public static final String REMOTE_CONTINUE_ON_ERROR_PROPERTY = "org.gradle.unsafe.build-cache.remote-continue-on-error";
+    public static final String REMOTE_STORE_BEHIND_PROPERTY = "org.gradle.unsafe.build-cache.remote-store-behind";
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BuildCacheControllerFactory.class);
 
@@ -79,7 +81,8 @@ public static BuildCacheController create(
         final FileSystemAccess fileSystemAccess,
         final BuildCacheEntryPacker packer,
         final OriginMetadataFactory originMetadataFactory,
-        final StringInterner stringInterner
+        final StringInterner stringInterner,
+        final ExecutorFactory executorFactory
     ) {
         return buildOperationExecutor.call(new CallableBuildOperation<BuildCacheController>() {
             @Override
@@ -135,7 +138,10 @@ public BuildCacheController call(BuildOperationContext context) {
                         fileSystemAccess,
                         packer,
                         originMetadataFactory,
-                        stringInterner
+                        stringInterner,
+                        remoteDescribedService != null && remote.isPush() && Boolean.getBoolean(REMOTE_STORE_BEHIND_PROPERTY)
+                            ? executorFactory.create("Build cache store-behind", 1)
+                            : null
                     );
                 }
             }
@@ -16,12 +16,14 @@
 
 package org.gradle.execution.plan;
 
+import com.google.common.annotations.VisibleForTesting;
 import org.gradle.api.Action;
 import org.gradle.api.NonNullApi;
 import org.gradle.concurrent.ParallelismConfiguration;
 import org.gradle.initialization.BuildCancellationToken;
 import org.gradle.internal.Cast;
 import org.gradle.internal.MutableReference;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.build.ExecutionResult;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.concurrent.ExecutorFactory;
@@ -29,6 +31,7 @@
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.logging.text.TreeFormatter;
 import org.gradle.internal.resources.ResourceLockCoordinationService;
+import org.gradle.internal.resources.ResourceLockState;
 import org.gradle.internal.time.Time;
 import org.gradle.internal.time.TimeFormatting;
 import org.gradle.internal.time.Timer;
@@ -46,6 +49,7 @@
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -54,6 +58,12 @@
 
 @NonNullApi
 public class DefaultPlanExecutor implements PlanExecutor, Stoppable {
+    /**
+     * Enables leader/follower scheduling, where at most one idle worker waits on the state lock for work to become ready, and a worker that finishes an item
+     * selects its next item while it still holds the state lock.
+     */
+    public static final String LEADER_FOLLOWER_SCHEDULING_PROPERTY = "org.gradle.internal.plan.executor.leader-follower";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultPlanExecutor.class);
     private final int executorCount;
     private final WorkerLeaseService workerLeaseService;
@@ -62,8 +72,14 @@ public class DefaultPlanExecutor implements PlanExecutor, Stoppable {
     private final ManagedExecutor executor;
     private final Queue queue;
     private final AtomicBoolean workersStarted = new AtomicBoolean();
+    private final boolean leaderFollower;
+    private final SchedulingStatistics statistics = new SchedulingStatistics();
 
     public DefaultPlanExecutor(ParallelismConfiguration parallelismConfiguration, ExecutorFactory executorFactory, WorkerLeaseService workerLeaseService, BuildCancellationToken cancellationToken, ResourceLockCoordinationService coordinationService) {
+        this(parallelismConfiguration, executorFactory, workerLeaseService, cancellationToken, coordinationService, Boolean.getBoolean(LEADER_FOLLOWER_SCHEDULING_PROPERTY));
+    }
+
+    DefaultPlanExecutor(ParallelismConfiguration parallelismConfiguration, ExecutorFactory executorFactory, WorkerLeaseService workerLeaseService, BuildCancellationToken cancellationToken, ResourceLockCoordinationService coordinationService, boolean leaderFollower) {
         this.cancellationToken = cancellationToken;
         this.coordinationService = coordinationService;
         int numberOfParallelExecutors = parallelismConfiguration.getMaxWorkerCount();
@@ -73,6 +89,7 @@ public DefaultPlanExecutor(ParallelismConfiguration parallelismConfiguration, Ex
 
         this.executorCount = numberOfParallelExecutors;
         this.workerLeaseService = workerLeaseService;
+        this.leaderFollower = leaderFollower;
         this.queue = new Queue(coordinationService, false);
         this.executor = executorFactory.create("Execution worker");
     }
@@ -80,6 +97,9 @@ public DefaultPlanExecutor(ParallelismConfiguration parallelismConfiguration, Ex
     @Override
     public void stop() {
         CompositeStoppable.stoppable(queue, executor).stop();
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Plan executor finished, {}", statistics);
+        }
     }
 
     @Override
@@ -93,7 +113,7 @@ public <T> ExecutionResult<Void> process(WorkSource<T> workSource, Action<T> wor
         WorkerLease currentWorkerLease = workerLeaseService.getCurrentWorkerLease();
         Queue thisPlanOnly = new Queue(coordinationService, true);
         thisPlanOnly.add(planDetails);
-        new ExecutorWorker(thisPlanOnly, currentWorkerLease, cancellationToken, coordinationService, workerLeaseService).run();
+        new ExecutorWorker(thisPlanOnly, currentWorkerLease, cancellationToken, coordinationService, workerLeaseService, leaderFollower, statistics).run();
 
         List<Throwable> failures = new ArrayList<>();
         awaitCompletion(workSource, currentWorkerLease, failures);
@@ -132,7 +152,7 @@ private void maybeStartWorkers(Queue queue, Executor executor) {
         if (workersStarted.compareAndSet(false, true)) {
             LOGGER.debug("Using {} parallel executor threads", executorCount);
             for (int i = 1; i < executorCount; i++) {
-                executor.execute(new ExecutorWorker(queue, null, cancellationToken, coordinationService, workerLeaseService));
+                executor.execute(new ExecutorWorker(queue, null, cancellationToken, coordinationService, workerLeaseService, leaderFollower, statistics));
             }
         }
     }
@@ -159,11 +179,49 @@ public WorkItem(WorkSource.Selection<Object> selection, WorkSource<Object> plan,
         }
     }
 
-    private static class Queue implements Closeable {
+    /**
+     * Collects the time that workers spend waiting to be given work, and how much of that was spent acquiring the state lock.
+     */
+    private static class SchedulingStatistics {
+        private final AtomicLong selectedItems = new AtomicLong();
+        private final AtomicLong itemsSelectedOnCompletion = new AtomicLong();
+        private final AtomicLong schedulingWaitNanos = new AtomicLong();
+        private final AtomicLong stateLockWaitNanos = new AtomicLong();
+
+        void itemSelected(boolean onCompletion) {
+            selectedItems.incrementAndGet();
+            if (onCompletion) {
+                itemsSelectedOnCompletion.incrementAndGet();
+            }
+        }
+
+        void waitedForScheduling(long startNanos) {
+            schedulingWaitNanos.addAndGet(System.nanoTime() - startNanos);
+        }
+
+        void waitedForStateLock(long startNanos) {
+            stateLockWaitNanos.addAndGet(System.nanoTime() - startNanos);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("selected %d items (%d when completing another item), waited %s for scheduling, %s of which to acquire the state lock",
+                selectedItems.get(),
+                itemsSelectedOnCompletion.get(),
+                TimeFormatting.formatDurationVerbose(TimeUnit.NANOSECONDS.toMillis(schedulingWaitNanos.get())),
+                TimeFormatting.formatDurationVerbose(TimeUnit.NANOSECONDS.toMillis(stateLockWaitNanos.get()))
+            );
+        }
+    }
+
+    @VisibleForTesting
+    static class Queue implements Closeable {
         private final ResourceLockCoordinationService coordinationService;
         private final boolean autoFinish;
         private boolean finished;
         private final LinkedList<PlanDetails> queues = new LinkedList<>();
+        private final Object leadershipLock = new Object();
+        private Thread leader;
 
         public Queue(ResourceLockCoordinationService coordinationService, boolean autoFinish) {
             this.coordinationService = coordinationService;
@@ -224,6 +282,43 @@ public void add(PlanDetails planDetails) {
             });
         }
 
+        /**
+         * Attempts to make the current thread the worker that waits on the state lock for work from this queue.
+         */
+        public boolean tryAcquireLeadership() {
+            synchronized (leadershipLock) {
+                if (leader == null) {
+                    leader = Thread.currentThread();
+                    return true;
+                }
+                return false;
+            }
+        }
+
+        /**
+         * Blocks until the current thread is the worker that waits on the state lock for work from this queue.
+         */
+        public void acquireLeadership() {
+            synchronized (leadershipLock) {
+                while (leader != null) {
+                    try {
+                        leadershipLock.wait();
+                    } catch (InterruptedException e) {
+                        throw UncheckedException.throwAsUncheckedException(e);
+                    }
+                }
+                leader = Thread.currentThread();
+            }
+        }
+
+        public void releaseLeadership() {
+            synchronized (leadershipLock) {
+                leader = null;
+                // Only a single follower needs to take over
+                leadershipLock.notify();
+            }
+        }
+
         public void removeFinishedPlans() {
             coordinationService.assertHasStateLock();
             queues.removeIf(details -> details.source.allExecutionComplete());
@@ -297,19 +392,25 @@ private static class ExecutorWorker implements Runnable {
         private final BuildCancellationToken cancellationToken;
         private final ResourceLockCoordinationService coordinationService;
         private final WorkerLeaseService workerLeaseService;
+        private final boolean leaderFollower;
+        private final SchedulingStatistics statistics;
 
         private ExecutorWorker(
             Queue queue,
             @Nullable WorkerLease workerLease,
             BuildCancellationToken cancellationToken,
             ResourceLockCoordinationService coordinationService,
-            WorkerLeaseService workerLeaseService
+            WorkerLeaseService workerLeaseService,
+            boolean leaderFollower,
+            SchedulingStatistics statistics
         ) {
             this.queue = queue;
             this.workerLease = workerLease;
             this.cancellationToken = cancellationToken;
             this.coordinationService = coordinationService;
             this.workerLeaseService = workerLeaseService;
+            this.leaderFollower = leaderFollower;
+            this.statistics = statistics;
         }
 
         @Override
@@ -326,20 +427,24 @@ public void run() {
                 releaseLeaseOnCompletion = false;
             }
 
+            WorkItem workItem = null;
             while (true) {
-                WorkItem workItem = getNextItem(workerLease);
                 if (workItem == null) {
-                    break;
+                    workItem = getNextItem(workerLease);
+                    if (workItem == null) {
+                        break;
+                    }
                 }
                 Object selected = workItem.selection.getItem();
                 LOGGER.info("{} ({}) started.", selected, Thread.currentThread());
                 executionTimer.reset();
-                execute(selected, workItem.plan, workItem.executor);
+                WorkItem nextItem = execute(selected, workItem.plan, workItem.executor);
                 long duration = executionTimer.getElapsedMillis();
                 busy.addAndGet(duration);
                 if (LOGGER.isInfoEnabled()) {
                     LOGGER.info("{} ({}) completed. Took {}.", selected, Thread.currentThread(), TimeFormatting.formatDurationVerbose(duration));
                 }
+                workItem = nextItem;
             }
 
             if (releaseLeaseOnCompletion) {
@@ -361,8 +466,35 @@ public void run() {
          */
         @Nullable
         private WorkItem getNextItem(final WorkerLease workerLease) {
+            long startWait = System.nanoTime();
+            if (!leaderFollower) {
+                return waitForNextItem(workerLease, startWait);
+            }
+            if (!queue.tryAcquireLeadership()) {
+                // Another worker is already waiting for work. Release the worker lease so that it can be used elsewhere and wait to take over
+                coordinationService.withStateLock(() -> {
+                    if (workerLease.isLockedByCurrentThread()) {
+                        workerLease.unlock();
+                    }
+                });
+                queue.acquireLeadership();
+            }
+            try {
+                return waitForNextItem(workerLease, startWait);
+            } finally {
+                queue.releaseLeadership();
+            }
+        }
+
+        @Nullable
+        private WorkItem waitForNextItem(final WorkerLease workerLease, long startWait) {
             final MutableReference<WorkItem> selected = MutableReference.empty();
+            final long startLockWait = System.nanoTime();
+            final AtomicBoolean acquiredStateLock = new AtomicBoolean();
             coordinationService.withStateLock(resourceLockState -> {
+                if (acquiredStateLock.compareAndSet(false, true)) {
+                    statistics.waitedForStateLock(startLockWait);
+                }
                 if (cancellationToken.isCancellationRequested()) {
                     queue.cancelExecution();
                 }
@@ -405,33 +537,79 @@ private WorkItem getNextItem(final WorkerLease workerLease) {
                 return FINISHED;
             });
 
+            statistics.waitedForScheduling(startWait);
+            if (selected.get() != null) {
+                statistics.itemSelected(false);
+            }
             return selected.get();
         }
 
-        private void execute(Object selected, WorkSource<Object> executionPlan, Action<Object> worker) {
+        /**
+         * Executes the given item.
+         *
+         * @return The next item to execute, when one could be selected while marking the given item as finished, or {@code null} otherwise.
+         */
+        @Nullable
+        private WorkItem execute(Object selected, WorkSource<Object> executionPlan, Action<Object> worker) {
             Throwable failure = null;
             try {
-                try {
-                    worker.execute(selected);
-                } catch (Throwable t) {
-                    failure = t;
-                }
-            } finally {
-                markFinished(selected, executionPlan, failure);
+                worker.execute(selected);
+            } catch (Throwable t) {
+                failure = t;
             }
+            return markFinished(selected, executionPlan, failure);
         }
 
-        private void markFinished(Object selected, WorkSource<Object> executionPlan, @Nullable Throwable failure) {
-            coordinationService.withStateLock(() -> {
+        @Nullable
+        private WorkItem markFinished(Object selected, WorkSource<Object> executionPlan, @Nullable Throwable failure) {
+            final MutableReference<WorkItem> nextItem = MutableReference.empty();
+            final long startLockWait = System.nanoTime();
+            coordinationService.withStateLock(resourceLockState -> {
+                statistics.waitedForStateLock(startLockWait);
                 try {
                     executionPlan.finishedExecuting(selected, failure);
                 } catch (Throwable t) {
                     queue.abortAllAndFail(t);
                 }
+                if (leaderFollower) {
+                    nextItem.set(selectNextWhileFinishing(resourceLockState));
+                }
                 // Notify other threads that the item is finished as this may unblock further work
                 // or this might be the last item in the queue
                 coordinationService.notifyStateChange();
+                return FINISHED;
             });
+            if (nextItem.get() != null) {
+                statistics.itemSelected(true);
+            }
+            return nextItem.get();
+        }
+
+        /**
+         * Attempts to select the next item while holding the state lock to mark the previous item as finished, so that the worker does not need
+         * to acquire the state lock again nor wait to be woken up.
+         */
+        @Nullable
+        private WorkItem selectNextWhileFinishing(ResourceLockState resourceLockState) {
+            if (cancellationToken.isCancellationRequested() || !workerLease.isLockedByCurrentThread()) {
+                // Leave it to the regular selection to deal with cancellation and with acquiring a worker lease
+                return null;
+            }
+            if (queue.executionState() != WorkSource.State.MaybeWorkReadyToStart) {
+                return null;
+            }
+            WorkSource.Selection<WorkItem> workItem;
+            try {
+                workItem = queue.selectNext();
+            } catch (Throwable t) {
+                resourceLockState.releaseLocks();
+                queue.abortAllAndFail(t);
+                return null;
+            }
+            if (workItem.isNoMoreWorkToStart() || workItem.isNoWorkReadyToStart()) {
+                return null;
+            }
+            return workItem.getItem();
         }
     }
 }
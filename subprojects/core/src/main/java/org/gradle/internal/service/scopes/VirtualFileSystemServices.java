@@ -37,6 +37,7 @@
 import org.gradle.api.internal.changedetection.state.ResourceSnapshotterCacheService;
 import org.gradle.api.internal.changedetection.state.SplitFileHasher;
 import org.gradle.api.internal.changedetection.state.SplitResourceSnapshotterCacheService;
+import org.gradle.api.internal.changedetection.state.ZipEntryHashingService;
 import org.gradle.api.internal.file.FileCollectionFactory;
 import org.gradle.api.internal.initialization.loadercache.DefaultClasspathHasher;
 import org.gradle.api.tasks.util.internal.PatternSpecFactory;
@@ -49,6 +50,7 @@
 import org.gradle.initialization.RootBuildLifecycleListener;
 import org.gradle.internal.build.BuildAddedListener;
 import org.gradle.internal.classloader.ClasspathHasher;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.execution.OutputChangeListener;
 import org.gradle.internal.execution.OutputSnapshotter;
@@ -66,6 +68,7 @@
 import org.gradle.internal.fingerprint.impl.DefaultFileCollectionSnapshotter;
 import org.gradle.internal.fingerprint.impl.DefaultGenericFileTreeSnapshotter;
 import org.gradle.internal.fingerprint.impl.FileCollectionFingerprinterRegistrations;
+import org.gradle.internal.hash.ChannelFileHasher;
 import org.gradle.internal.hash.DefaultFileHasher;
 import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.hash.HashCode;
@@ -78,6 +81,7 @@
 import org.gradle.internal.snapshot.CaseSensitivity;
 import org.gradle.internal.snapshot.ValueSnapshotter;
 import org.gradle.internal.snapshot.impl.DirectorySnapshotterStatistics;
+import org.gradle.internal.snapshot.impl.DirectoryWalkerPool;
 import org.gradle.internal.vfs.FileSystemAccess;
 import org.gradle.internal.vfs.VirtualFileSystem;
 import org.gradle.internal.vfs.impl.DefaultFileSystemAccess;
@@ -119,6 +123,30 @@ public class VirtualFileSystemServices extends AbstractPluginServiceRegistry {
 
     public static final String MAX_HIERARCHIES_TO_WATCH_PROPERTY = "org.gradle.vfs.watch.hierarchies.max";
 
+    /**
+     * The number of threads used to walk and hash directory trees when snapshotting.
+     * When not set, or set to a value less than two, directory trees are walked on the calling thread.
+     */
+    public static final String DIRECTORY_SNAPSHOT_PARALLELISM_PROPERTY = "org.gradle.vfs.snapshot.parallelism";
+
+    /**
+     * The number of threads used to hash the entries of a jar when fingerprinting classpaths.
+     * When not set, or set to a value less than two, the entries are hashed on the calling thread.
+     */
+    public static final String ZIP_HASHING_PARALLELISM_PROPERTY = "org.gradle.vfs.zip-hashing.parallelism";
+
+    /**
+     * The maximum number of jar entry hashes to keep in memory, so a rebuilt jar only has its changed entries hashed again.
+     * When not set, or set to 0, the hashes of jar entries are not cached.
+     */
+    public static final String ZIP_ENTRY_HASH_CACHE_SIZE_PROPERTY = "org.gradle.vfs.zip-hashing.entry-cache-size";
+
+    /**
+     * Whether to hash files through file channels, mapping very large files into memory.
+     * When not set, files are hashed as streams. Memory mapping is never used on Windows.
+     */
+    public static final String FILE_HASHING_MEMORY_MAPPING_PROPERTY = "org.gradle.vfs.hashing.memory-mapping";
+
     private static final int DEFAULT_MAX_HIERARCHIES_TO_WATCH = 50;
     private static final int FILE_HASHER_MEMORY_CACHE_SIZE = 400000;
 
@@ -139,6 +167,14 @@ private static String getSystemProperty(String systemProperty, Map<String, Strin
         return systemPropertiesArgs.getOrDefault(systemProperty, System.getProperty(systemProperty));
     }
 
+    private static FileHasher createContentHasher(StreamHasher streamHasher) {
+        if (!Boolean.getBoolean(FILE_HASHING_MEMORY_MAPPING_PROPERTY)) {
+            return new DefaultFileHasher(streamHasher);
+        }
+        // Mapped files cannot be deleted on Windows until the mapping has been garbage collected
+        return new ChannelFileHasher(!OperatingSystem.current().isWindows());
+    }
+
     @Override
     public void registerGlobalServices(ServiceRegistration registration) {
         registration.addProvider(new GlobalScopeServices());
@@ -162,6 +198,37 @@ FileHasherStatistics.Collector createCachingFileHasherStatisticsCollector() {
         DirectorySnapshotterStatistics.Collector createDirectorySnapshotterStatisticsCollector() {
             return new DirectorySnapshotterStatistics.Collector();
         }
+
+        DirectoryWalkerPool createDirectoryWalkerPool() {
+            String parallelism = System.getProperty(DIRECTORY_SNAPSHOT_PARALLELISM_PROPERTY);
+            if (parallelism == null || parallelism.isEmpty()) {
+                return DirectoryWalkerPool.sequential();
+            }
+            int threads = parseParallelism(parallelism);
+            if (threads < 1) {
+                LOGGER.warn("Ignoring invalid value '{}' for system property '{}', expected a positive number. Walking directory trees sequentially.",
+                    parallelism, DIRECTORY_SNAPSHOT_PARALLELISM_PROPERTY);
+                return DirectoryWalkerPool.sequential();
+            }
+            return DirectoryWalkerPool.withParallelism(threads);
+        }
+
+        private static int parseParallelism(String parallelism) {
+            try {
+                return Integer.parseInt(parallelism.trim(), 10);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        ZipEntryHashingService createZipEntryHashingService(ExecutorFactory executorFactory) {
+            int parallelism = Integer.getInteger(ZIP_HASHING_PARALLELISM_PROPERTY, 0);
+            int entryCacheSize = Integer.getInteger(ZIP_ENTRY_HASH_CACHE_SIZE_PROPERTY, 0);
+            return ZipEntryHashingService.create(
+                parallelism >= 2 ? executorFactory.create("Zip entry hashing", parallelism) : null,
+                entryCacheSize
+            );
+        }
     }
 
     @VisibleForTesting
@@ -179,7 +246,7 @@ FileHasher createCachingFileHasher(
             StreamHasher streamHasher,
             StringInterner stringInterner
         ) {
-            CachingFileHasher fileHasher = new CachingFileHasher(new DefaultFileHasher(streamHasher), fileStore, stringInterner, fileTimeStampInspector, "fileHashes", fileSystem, FILE_HASHER_MEMORY_CACHE_SIZE, statisticsCollector);
+            CachingFileHasher fileHasher = new CachingFileHasher(createContentHasher(streamHasher), fileStore, stringInterner, fileTimeStampInspector, "fileHashes", fileSystem, FILE_HASHER_MEMORY_CACHE_SIZE, statisticsCollector);
             fileTimeStampInspector.attach(fileHasher);
             return fileHasher;
         }
@@ -249,7 +316,8 @@ FileSystemAccess createFileSystemAccess(
             ListenerManager listenerManager,
             PatternSpecFactory patternSpecFactory,
             FileSystemAccess.WriteListener writeListener,
-            DirectorySnapshotterStatistics.Collector statisticsCollector
+            DirectorySnapshotterStatistics.Collector statisticsCollector,
+            DirectoryWalkerPool walkerPool
         ) {
             DefaultFileSystemAccess fileSystemAccess = new DefaultFileSystemAccess(
                 hasher,
@@ -258,6 +326,7 @@ FileSystemAccess createFileSystemAccess(
                 virtualFileSystem,
                 writeListener,
                 statisticsCollector,
+                walkerPool,
                 DirectoryScanner.getDefaultExcludes()
             );
             listenerManager.addListener(new DefaultExcludesBuildListener(fileSystemAccess) {
@@ -323,8 +392,8 @@ ResourceSnapshotterCacheService createResourceSnapshotterCacheService(CrossBuild
             return new DefaultResourceSnapshotterCacheService(resourceHashesCache);
         }
 
-        ClasspathFingerprinter createClasspathFingerprinter(ResourceSnapshotterCacheService resourceSnapshotterCacheService, FileCollectionSnapshotter fileCollectionSnapshotter, StringInterner stringInterner) {
-            return new DefaultClasspathFingerprinter(resourceSnapshotterCacheService, fileCollectionSnapshotter, ResourceFilter.FILTER_NOTHING, ResourceEntryFilter.FILTER_NOTHING, PropertiesFileFilter.FILTER_NOTHING, stringInterner, LineEndingSensitivity.DEFAULT);
+        ClasspathFingerprinter createClasspathFingerprinter(ResourceSnapshotterCacheService resourceSnapshotterCacheService, FileCollectionSnapshotter fileCollectionSnapshotter, StringInterner stringInterner, ZipEntryHashingService zipEntryHashingService) {
+            return new DefaultClasspathFingerprinter(resourceSnapshotterCacheService, fileCollectionSnapshotter, ResourceFilter.FILTER_NOTHING, ResourceEntryFilter.FILTER_NOTHING, PropertiesFileFilter.FILTER_NOTHING, stringInterner, LineEndingSensitivity.DEFAULT, zipEntryHashingService);
         }
 
         ClasspathHasher createClasspathHasher(ClasspathFingerprinter fingerprinter, FileCollectionFactory fileCollectionFactory) {
@@ -353,7 +422,7 @@ FileHasher createFileHasher(
             StringInterner stringInterner,
             FileHasherStatistics.Collector statisticsCollector
         ) {
-            CachingFileHasher localHasher = new CachingFileHasher(new DefaultFileHasher(streamHasher), cacheAccess, stringInterner, fileTimeStampInspector, "fileHashes", fileSystem, FILE_HASHER_MEMORY_CACHE_SIZE, statisticsCollector);
+            CachingFileHasher localHasher = new CachingFileHasher(createContentHasher(streamHasher), cacheAccess, stringInterner, fileTimeStampInspector, "fileHashes", fileSystem, FILE_HASHER_MEMORY_CACHE_SIZE, statisticsCollector);
             return new SplitFileHasher(globalHasher, localHasher, globalCacheLocations);
         }
 
@@ -364,7 +433,8 @@ FileSystemAccess createFileSystemAccess(
             StringInterner stringInterner,
             VirtualFileSystem root,
             FileSystemAccess.WriteListener writeListener,
-            DirectorySnapshotterStatistics.Collector statisticsCollector
+            DirectorySnapshotterStatistics.Collector statisticsCollector,
+            DirectoryWalkerPool walkerPool
         ) {
             DefaultFileSystemAccess buildSessionsScopedVirtualFileSystem = new DefaultFileSystemAccess(
                 hasher,
@@ -373,6 +443,7 @@ FileSystemAccess createFileSystemAccess(
                 root,
                 writeListener,
                 statisticsCollector,
+                walkerPool,
                 DirectoryScanner.getDefaultExcludes()
             );
 
@@ -398,7 +469,8 @@ OutputSnapshotter createOutputSnapshotter(FileCollectionSnapshotter fileCollecti
         FileCollectionFingerprinterRegistrations createFileCollectionFingerprinterRegistrations(
             StringInterner stringInterner,
             FileCollectionSnapshotter fileCollectionSnapshotter,
-            ResourceSnapshotterCacheService resourceSnapshotterCacheService
+            ResourceSnapshotterCacheService resourceSnapshotterCacheService,
+            ZipEntryHashingService zipEntryHashingService
         ) {
             return new FileCollectionFingerprinterRegistrations(
                 stringInterner,
@@ -406,7 +478,8 @@ FileCollectionFingerprinterRegistrations createFileCollectionFingerprinterRegist
                 resourceSnapshotterCacheService,
                 ResourceFilter.FILTER_NOTHING,
                 ResourceEntryFilter.FILTER_NOTHING,
-                PropertiesFileFilter.FILTER_NOTHING
+                PropertiesFileFilter.FILTER_NOTHING,
+                zipEntryHashingService
             );
         }
 
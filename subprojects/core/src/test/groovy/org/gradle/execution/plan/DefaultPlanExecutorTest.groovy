@@ -22,22 +22,26 @@ import org.gradle.api.internal.TaskInternal
 import org.gradle.api.internal.tasks.TaskStateInternal
 import org.gradle.api.invocation.Gradle
 import org.gradle.initialization.BuildCancellationToken
+import org.gradle.internal.Factory
 import org.gradle.internal.concurrent.DefaultParallelismConfiguration
-import org.gradle.internal.concurrent.ExecutorFactory
 import org.gradle.internal.resources.DefaultResourceLockCoordinationService
+import org.gradle.internal.work.DefaultWorkerLeaseService
 import org.gradle.internal.work.WorkerLeaseRegistry
 import org.gradle.internal.work.WorkerLeaseService
-import spock.lang.Specification
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
 
-class DefaultPlanExecutorTest extends Specification {
+import javax.annotation.Nullable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class DefaultPlanExecutorTest extends ConcurrentSpec {
     def workSource = Mock(WorkSource)
     def worker = Mock(Action)
-    def executorFactory = Mock(ExecutorFactory)
     def cancellationHandler = Mock(BuildCancellationToken)
     def coordinationService = new DefaultResourceLockCoordinationService()
     def workerLeaseService = Mock(WorkerLeaseService)
     def workerLease = Mock(WorkerLeaseRegistry.WorkerLease)
-    def executor = new DefaultPlanExecutor(new DefaultParallelismConfiguration(false, 1), executorFactory, workerLeaseService, cancellationHandler, coordinationService)
+    def planExecutor = new DefaultPlanExecutor(new DefaultParallelismConfiguration(false, 1), executorFactory, workerLeaseService, cancellationHandler, coordinationService)
 
     def "executes tasks until no further tasks remain"() {
         def gradle = Mock(Gradle)
@@ -50,7 +54,7 @@ class DefaultPlanExecutorTest extends Specification {
         task.state >> state
 
         when:
-        def result = executor.process(workSource, worker)
+        def result = planExecutor.process(workSource, worker)
 
         then:
         result.failures.empty
@@ -87,7 +91,7 @@ class DefaultPlanExecutorTest extends Specification {
         task.state >> state
 
         when:
-        def result = executor.process(workSource, worker)
+        def result = planExecutor.process(workSource, worker)
 
         then:
         result.failures.empty
@@ -112,4 +116,221 @@ class DefaultPlanExecutorTest extends Specification {
         1 * workSource.collectFailures([])
         0 * workSource._
     }
+
+    def "selects next item while marking the previous item as finished when using leader/follower scheduling"() {
+        def leaderFollowerExecutor = new DefaultPlanExecutor(new DefaultParallelismConfiguration(false, 1), executorFactory, workerLeaseService, cancellationHandler, coordinationService, true)
+        def node1 = Mock(LocalTaskNode)
+        def node2 = Mock(LocalTaskNode)
+        workerLease.isLockedByCurrentThread() >> true
+
+        when:
+        def result = leaderFollowerExecutor.process(workSource, worker)
+
+        then:
+        result.failures.empty
+        1 * workerLeaseService.currentWorkerLease >> workerLease
+
+        then:
+        1 * cancellationHandler.isCancellationRequested() >> false
+        1 * workSource.executionState() >> WorkSource.State.MaybeWorkReadyToStart
+        1 * workSource.selectNext() >> WorkSource.Selection.of(node1)
+        1 * worker.execute(node1)
+
+        then:
+        1 * workSource.finishedExecuting(node1, null)
+        1 * cancellationHandler.isCancellationRequested() >> false
+        1 * workSource.executionState() >> WorkSource.State.MaybeWorkReadyToStart
+        1 * workSource.selectNext() >> WorkSource.Selection.of(node2)
+
+        then:
+        1 * worker.execute(node2)
+
+        then:
+        1 * workSource.finishedExecuting(node2, null)
+        1 * cancellationHandler.isCancellationRequested() >> false
+        1 * workSource.executionState() >> WorkSource.State.NoMoreWorkToStart
+
+        then:
+        1 * cancellationHandler.isCancellationRequested() >> false
+        1 * workSource.executionState() >> WorkSource.State.NoMoreWorkToStart
+
+        then:
+        2 * workSource.allExecutionComplete() >> true
+        1 * workSource.collectFailures([])
+        0 * workSource._
+    }
+
+    def "does not select next item while marking the previous item as finished when cancellation requested"() {
+        def leaderFollowerExecutor = new DefaultPlanExecutor(new DefaultParallelismConfiguration(false, 1), executorFactory, workerLeaseService, cancellationHandler, coordinationService, true)
+        def node = Mock(LocalTaskNode)
+        workerLease.isLockedByCurrentThread() >> true
+
+        when:
+        def result = leaderFollowerExecutor.process(workSource, worker)
+
+        then:
+        result.failures.empty
+        1 * workerLeaseService.currentWorkerLease >> workerLease
+
+        then:
+        1 * cancellationHandler.isCancellationRequested() >> false
+        1 * workSource.executionState() >> WorkSource.State.MaybeWorkReadyToStart
+        1 * workSource.selectNext() >> WorkSource.Selection.of(node)
+        1 * worker.execute(node)
+
+        then:
+        1 * workSource.finishedExecuting(node, null)
+        1 * cancellationHandler.isCancellationRequested() >> true
+
+        then:
+        1 * cancellationHandler.isCancellationRequested() >> true
+        1 * workSource.cancelExecution()
+        1 * workSource.executionState() >> WorkSource.State.NoMoreWorkToStart
+
+        then:
+        2 * workSource.allExecutionComplete() >> true
+        1 * workSource.collectFailures([])
+        0 * workSource._
+    }
+
+    def "idle workers wait for the leader to release leadership, which is handed to one follower at a time"() {
+        def queue = new DefaultPlanExecutor.Queue(coordinationService, false)
+
+        when:
+        async {
+            start {
+                assert queue.tryAcquireLeadership()
+                instant.leading
+                thread.blockUntil.follower1Waiting
+                thread.blockUntil.follower2Waiting
+                thread.block()
+                instant.releasing
+                queue.releaseLeadership()
+            }
+            start {
+                thread.blockUntil.leading
+                assert !queue.tryAcquireLeadership()
+                instant.follower1Waiting
+                queue.acquireLeadership()
+                instant.follower1Leading
+                thread.block()
+                instant.follower1Releasing
+                queue.releaseLeadership()
+            }
+            start {
+                thread.blockUntil.leading
+                assert !queue.tryAcquireLeadership()
+                instant.follower2Waiting
+                queue.acquireLeadership()
+                instant.follower2Leading
+                thread.block()
+                instant.follower2Releasing
+                queue.releaseLeadership()
+            }
+        }
+
+        then:
+        instant.follower1Leading > instant.releasing
+        instant.follower2Leading > instant.releasing
+        instant.follower2Leading > instant.follower1Releasing || instant.follower1Leading > instant.follower2Releasing
+    }
+
+    def "hands leadership over to other workers when using leader/follower scheduling with multiple workers"() {
+        def parallelism = new DefaultParallelismConfiguration(true, 4)
+        def workerLeaseService = new DefaultWorkerLeaseService(coordinationService, parallelism)
+        def leaderFollowerExecutor = new DefaultPlanExecutor(parallelism, executorFactory, workerLeaseService, cancellationHandler, coordinationService, true)
+        def workSource = new DependentItemsWorkSource("a", ["b", "c", "d", "e"])
+        def runningConcurrently = new CountDownLatch(4)
+        def threads = [].asSynchronized()
+
+        when:
+        def result = workerLeaseService.runAsWorkerThread({
+            leaderFollowerExecutor.process(workSource) { String item ->
+                if (item == "a") {
+                    // Give the other workers time to become idle, so that one of them leads and the others follow
+                    thread.block()
+                } else {
+                    threads << Thread.currentThread()
+                    runningConcurrently.countDown()
+                    // Only succeeds when the items are selected by all four workers, which requires the idle workers to take over leadership from each other
+                    assert runningConcurrently.await(20, TimeUnit.SECONDS)
+                }
+            }
+        } as Factory)
+        leaderFollowerExecutor.stop()
+
+        then:
+        result.failures.empty
+        workSource.allExecutionComplete()
+        threads.toSet().size() == 4
+    }
+
+    /**
+     * Starts with a single item, and makes the other items ready to start once that item has finished.
+     */
+    private static class DependentItemsWorkSource implements WorkSource<String> {
+        private final List<String> ready
+        private final List<String> waiting
+        private final List<Throwable> failures = []
+        private final int itemCount
+        private int finished
+
+        DependentItemsWorkSource(String first, List<String> dependents) {
+            this.ready = [first]
+            this.waiting = new ArrayList<>(dependents)
+            this.itemCount = dependents.size() + 1
+        }
+
+        @Override
+        WorkSource.State executionState() {
+            if (!ready.empty) {
+                return WorkSource.State.MaybeWorkReadyToStart
+            }
+            return waiting.empty ? WorkSource.State.NoMoreWorkToStart : WorkSource.State.NoWorkReadyToStart
+        }
+
+        @Override
+        WorkSource.Selection<String> selectNext() {
+            if (!ready.empty) {
+                return WorkSource.Selection.of(ready.remove(0))
+            }
+            return waiting.empty ? WorkSource.Selection.noMoreWorkToStart() : WorkSource.Selection.noWorkReadyToStart()
+        }
+
+        @Override
+        void finishedExecuting(String item, @Nullable Throwable failure) {
+            finished++
+            if (failure != null) {
+                failures << failure
+            }
+            ready.addAll(waiting)
+            waiting.clear()
+        }
+
+        @Override
+        void abortAllAndFail(Throwable t) {
+            failures << t
+            ready.clear()
+            waiting.clear()
+        }
+
+        @Override
+        void cancelExecution() {
+        }
+
+        @Override
+        boolean allExecutionComplete() {
+            return finished == itemCount || (ready.empty && waiting.empty && !failures.empty)
+        }
+
+        @Override
+        void collectFailures(Collection<? super Throwable> failures) {
+            failures.addAll(this.failures)
+        }
+
+        @Override
+        WorkSource.Diagnostics healthDiagnostics() {
+            return new WorkSource.Diagnostics(true, [])
+        }
+    }
 }
@@ -21,6 +21,7 @@ import org.gradle.api.internal.changedetection.state.DefaultResourceSnapshotterC
 import org.gradle.api.internal.changedetection.state.PropertiesFileFilter
 import org.gradle.api.internal.changedetection.state.ResourceEntryFilter
 import org.gradle.api.internal.changedetection.state.ResourceFilter
+import org.gradle.api.internal.changedetection.state.ZipEntryHashingService
 import org.gradle.api.internal.file.TestFiles
 import org.gradle.internal.fingerprint.FileSystemLocationFingerprint
 import org.gradle.internal.fingerprint.LineEndingSensitivity
@@ -55,7 +56,8 @@ class DefaultClasspathFingerprinterTest extends Specification {
         ResourceEntryFilter.FILTER_NOTHING,
         PropertiesFileFilter.FILTER_NOTHING,
         stringInterner,
-        LineEndingSensitivity.DEFAULT
+        LineEndingSensitivity.DEFAULT,
+        ZipEntryHashingService.sequential()
     )
 
     def "directories and missing files are ignored"() {
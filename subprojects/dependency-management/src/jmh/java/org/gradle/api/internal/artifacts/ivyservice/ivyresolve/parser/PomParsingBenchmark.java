@@ -0,0 +1,188 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compares the streaming POM parser with the DOM parser.
+ *
+ * By default, parses generated POMs shaped like a large BOM, a parent POM with profiles and a library POM.
+ * To parse real-world POMs, point {@code corpusDir} to a directory containing POM files, for example a local Maven repository:
+ * {@code -p corpusDir=$HOME/.m2/repository/org/springframework}. Run with {@code -prof gc} to compare allocations.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class PomParsingBenchmark {
+
+    @Param({"stax", "dom"})
+    String parser;
+
+    @Param({""})
+    String corpusDir;
+
+    private List<byte[]> poms;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        if (corpusDir.isEmpty()) {
+            poms = generatedCorpus();
+        } else {
+            try (Stream<Path> files = Files.walk(Paths.get(corpusDir))) {
+                List<Path> pomFiles = files.filter(file -> file.toString().endsWith(".pom")).collect(Collectors.toList());
+                poms = new ArrayList<>(pomFiles.size());
+                for (Path pomFile : pomFiles) {
+                    poms.add(Files.readAllBytes(pomFile));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseCorpus(Blackhole blackhole) throws Exception {
+        boolean stax = parser.equals("stax");
+        for (byte[] pom : poms) {
+            PomDocument document;
+            if (stax) {
+                document = PomStaxParser.parse(new ByteArrayInputStream(pom), "pom.xml");
+            } else {
+                document = PomDomParser.toPomDocument(PomReader.parseToDom(new ByteArrayInputStream(pom), "pom.xml").getDocumentElement(), "pom.xml");
+            }
+            blackhole.consume(document);
+        }
+    }
+
+    private static List<byte[]> generatedCorpus() {
+        List<byte[]> corpus = new ArrayList<>();
+        corpus.add(bom(500));
+        corpus.add(parentPom());
+        for (int i = 0; i < 20; i++) {
+            corpus.add(libraryPom(i));
+        }
+        return corpus;
+    }
+
+    private static byte[] bom(int managedDependencies) {
+        StringBuilder pom = new StringBuilder();
+        pom.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        pom.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\">\n");
+        pom.append("  <!-- This module was also published with a richer model, Gradle metadata,  -->\n");
+        pom.append("  <modelVersion>4.0.0</modelVersion>\n");
+        pom.append("  <groupId>org.example</groupId>\n  <artifactId>example-bom</artifactId>\n  <version>5.3.20</version>\n  <packaging>pom</packaging>\n");
+        pom.append("  <name>Example BOM</name>\n  <description>Bill of materials &amp; more</description>\n");
+        pom.append("  <licenses><license><name>Apache License, Version 2.0</name><url>https://www.apache.org/licenses/LICENSE-2.0</url></license></licenses>\n");
+        pom.append("  <properties>\n");
+        for (int i = 0; i < managedDependencies / 10; i++) {
+            pom.append("    <module").append(i).append(".version>1.").append(i).append(".0</module").append(i).append(".version>\n");
+        }
+        pom.append("  </properties>\n");
+        pom.append("  <dependencyManagement>\n    <dependencies>\n");
+        for (int i = 0; i < managedDependencies; i++) {
+            pom.append("      <dependency>\n");
+            pom.append("        <groupId>org.example.group").append(i % 10).append("</groupId>\n");
+            pom.append("        <artifactId>module-").append(i).append("</artifactId>\n");
+            pom.append("        <version>${module").append(i / 10).append(".version}</version>\n");
+            if (i % 50 == 0) {
+                pom.append("        <type>pom</type>\n        <scope>import</scope>\n");
+            }
+            pom.append("      </dependency>\n");
+        }
+        pom.append("    </dependencies>\n  </dependencyManagement>\n");
+        pom.append("</project>\n");
+        return pom.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] parentPom() {
+        StringBuilder pom = new StringBuilder();
+        pom.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        pom.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+        pom.append("  <modelVersion>4.0.0</modelVersion>\n");
+        pom.append("  <groupId>org.example</groupId>\n  <artifactId>example-parent</artifactId>\n  <version>2.13.3</version>\n  <packaging>pom</packaging>\n");
+        pom.append("  <developers>\n");
+        for (int i = 0; i < 20; i++) {
+            pom.append("    <developer><id>dev").append(i).append("</id><name>Developer ").append(i).append("</name><email>dev").append(i).append("@example.org</email></developer>\n");
+        }
+        pom.append("  </developers>\n");
+        pom.append("  <properties>\n");
+        for (int i = 0; i < 50; i++) {
+            pom.append("    <property.").append(i).append(">value ").append(i).append("</property.").append(i).append(">\n");
+        }
+        pom.append("  </properties>\n");
+        pom.append("  <build><plugins>\n");
+        for (int i = 0; i < 20; i++) {
+            pom.append("    <plugin><groupId>org.apache.maven.plugins</groupId><artifactId>plugin-").append(i).append("</artifactId><version>3.0.").append(i).append("</version>");
+            pom.append("<configuration><source>1.8</source><target>1.8</target><compilerArgs><arg>-Xlint</arg></compilerArgs></configuration></plugin>\n");
+        }
+        pom.append("  </plugins></build>\n");
+        pom.append("  <profiles>\n");
+        for (int i = 0; i < 5; i++) {
+            pom.append("    <profile><id>profile-").append(i).append("</id><activation><property><name>").append(i % 2 == 0 ? "!" : "").append("skip").append(i).append("</name></property></activation>");
+            pom.append("<properties><profile.property>").append(i).append("</profile.property></properties></profile>\n");
+        }
+        pom.append("  </profiles>\n");
+        pom.append("</project>\n");
+        return pom.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] libraryPom(int index) {
+        StringBuilder pom = new StringBuilder();
+        pom.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        pom.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+        pom.append("  <modelVersion>4.0.0</modelVersion>\n");
+        pom.append("  <parent><groupId>org.example</groupId><artifactId>example-parent</artifactId><version>2.13.3</version></parent>\n");
+        pom.append("  <artifactId>library-").append(index).append("</artifactId>\n");
+        pom.append("  <name>Library ").append(index).append("</name>\n");
+        pom.append("  <description><![CDATA[A library with <markup> in its description]]></description>\n");
+        pom.append("  <dependencies>\n");
+        for (int i = 0; i < 15; i++) {
+            pom.append("    <dependency>\n      <groupId>org.example.group").append(i % 3).append("</groupId>\n      <artifactId>module-").append(i).append("</artifactId>\n");
+            if (i % 3 == 0) {
+                pom.append("      <scope>test</scope>\n");
+            }
+            if (i % 5 == 0) {
+                pom.append("      <optional>true</optional>\n");
+                pom.append("      <exclusions><exclusion><groupId>commons-logging</groupId><artifactId>commons-logging</artifactId></exclusion></exclusions>\n");
+            }
+            pom.append("    </dependency>\n");
+        }
+        pom.append("  </dependencies>\n");
+        pom.append("</project>\n");
+        return pom.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
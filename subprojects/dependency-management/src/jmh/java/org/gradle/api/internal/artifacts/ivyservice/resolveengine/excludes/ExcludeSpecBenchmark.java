@@ -0,0 +1,125 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes;
+
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.ExcludeSpec;
+import org.gradle.internal.component.external.descriptor.DefaultExclude;
+import org.gradle.internal.component.model.ExcludeMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Computes the excludes of a synthetic dependency graph the way the resolver does:
+ * excludes are combined with a union along each edge, and with an intersection where paths to a module join.
+ *
+ * Modules only depend on modules with a higher index, so the graph is visited in a single pass.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ExcludeSpecBenchmark {
+    private static final String[] NO_CONFIGURATIONS = new String[0];
+
+    @Param({"500", "5000"})
+    int modules;
+
+    @Param({"5"})
+    int dependenciesPerModule;
+
+    @Param({"0", "4", "16"})
+    int excludesPerModule;
+
+    private ModuleIdentifier[] ids;
+    private List<List<ExcludeMetadata>> excludes;
+    private int[][] dependencies;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        ids = new ModuleIdentifier[modules];
+        for (int i = 0; i < modules; i++) {
+            ids[i] = DefaultModuleIdentifier.newId("org.group" + (i % 50), "module-" + i);
+        }
+        dependencies = new int[modules][];
+        excludes = new ArrayList<>(modules);
+        for (int i = 0; i < modules; i++) {
+            int remaining = modules - i - 1;
+            int[] targets = new int[Math.min(dependenciesPerModule, remaining)];
+            for (int j = 0; j < targets.length; j++) {
+                targets[j] = i + 1 + random.nextInt(remaining);
+            }
+            dependencies[i] = targets;
+            List<ExcludeMetadata> moduleExcludes = new ArrayList<>(excludesPerModule);
+            for (int j = 0; j < excludesPerModule; j++) {
+                moduleExcludes.add(randomExclude(random));
+            }
+            excludes.add(moduleExcludes);
+        }
+    }
+
+    private ExcludeMetadata randomExclude(Random random) {
+        ModuleIdentifier id = ids[random.nextInt(modules)];
+        int kind = random.nextInt(100);
+        if (kind < 70) {
+            return new DefaultExclude(id);
+        } else if (kind < 85) {
+            return new DefaultExclude(DefaultModuleIdentifier.newId(id.getGroup(), PatternMatchers.ANY_EXPRESSION));
+        } else if (kind < 95) {
+            return new DefaultExclude(DefaultModuleIdentifier.newId(PatternMatchers.ANY_EXPRESSION, id.getName()));
+        }
+        // pattern matcher excludes cannot be merged, and are evaluated as is
+        return new DefaultExclude(DefaultModuleIdentifier.newId(id.getGroup(), id.getName().substring(0, 8) + ".*"), NO_CONFIGURATIONS, "regexp");
+    }
+
+    @Benchmark
+    public void computeGraphExcludes(Blackhole blackhole) {
+        // Merge caches live as long as the build, so start from empty caches for each graph
+        ModuleExclusions moduleExclusions = new ModuleExclusions();
+        ExcludeSpec[] specs = new ExcludeSpec[modules];
+        specs[0] = moduleExclusions.nothing();
+        for (int i = 0; i < modules; i++) {
+            ExcludeSpec incoming = specs[i];
+            if (incoming == null) {
+                continue;
+            }
+            ExcludeSpec outgoing = moduleExclusions.excludeAny(incoming, moduleExclusions.excludeAny(excludes.get(i)));
+            for (int target : dependencies[i]) {
+                if (outgoing.excludes(ids[target])) {
+                    continue;
+                }
+                ExcludeSpec current = specs[target];
+                specs[target] = current == null ? outgoing : moduleExclusions.excludeAll(current, outgoing);
+            }
+        }
+        blackhole.consume(specs);
+    }
+}
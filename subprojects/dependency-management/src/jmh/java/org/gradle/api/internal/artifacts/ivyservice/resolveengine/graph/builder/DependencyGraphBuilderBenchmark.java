@@ -0,0 +1,283 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.attributes.AttributeContainer;
+import org.gradle.api.internal.artifacts.ComponentSelectorConverter;
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier;
+import org.gradle.api.internal.artifacts.ResolveContext;
+import org.gradle.api.internal.artifacts.configurations.ConflictResolution;
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.internal.artifacts.dsl.ModuleReplacementsData;
+import org.gradle.api.internal.artifacts.ivyservice.dependencysubstitution.DependencySubstitutionApplicator;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelector;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.ConflictResolverFactory;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.ModuleExclusions;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphEdge;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphNode;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphSelector;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphVisitor;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.RootGraphNode;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.conflicts.DefaultCapabilitiesConflictHandler;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.conflicts.DefaultConflictHandler;
+import org.gradle.api.internal.attributes.DefaultImmutableAttributesFactory;
+import org.gradle.api.internal.attributes.EmptySchema;
+import org.gradle.api.internal.attributes.ImmutableAttributes;
+import org.gradle.api.specs.Specs;
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
+import org.gradle.internal.component.external.model.DefaultModuleComponentSelector;
+import org.gradle.internal.component.external.model.ImmutableCapabilities;
+import org.gradle.internal.component.local.model.BuildableLocalConfigurationMetadata;
+import org.gradle.internal.component.local.model.DefaultLocalComponentMetadata;
+import org.gradle.internal.component.model.ComponentOverrideMetadata;
+import org.gradle.internal.component.model.ComponentResolveMetadata;
+import org.gradle.internal.component.model.DependencyMetadata;
+import org.gradle.internal.component.model.LocalComponentDependencyMetadata;
+import org.gradle.internal.resolve.resolver.ComponentMetaDataResolver;
+import org.gradle.internal.resolve.resolver.DependencyToComponentIdResolver;
+import org.gradle.internal.resolve.resolver.ResolveContextToComponentResolver;
+import org.gradle.internal.resolve.result.BuildableComponentIdResolveResult;
+import org.gradle.internal.resolve.result.BuildableComponentResolveResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resolves a synthetic graph of local components, to measure the cost of the graph state per resolved edge.
+ *
+ * Each operation is one resolved edge, so run with {@code -prof gc} and read {@code gc.alloc.rate.norm} as the bytes allocated per edge.
+ * With {@code conflicts}, half of the root dependencies select an older version that is later evicted, which restarts the edges of the evicted nodes.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class DependencyGraphBuilderBenchmark {
+    private static final int MODULES = 2000;
+    private static final int DEPENDENCIES_PER_MODULE = 8;
+    private static final int EDGES = MODULES * (DEPENDENCIES_PER_MODULE + 1);
+
+    @Param({"false", "true"})
+    boolean conflicts;
+
+    private final Map<ComponentIdentifier, ComponentResolveMetadata> components = new HashMap<>();
+    private DefaultLocalComponentMetadata root;
+    private DependencyGraphBuilder builder;
+    private ResolveContext resolveContext;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        root = component(DefaultModuleIdentifier.newId("org.example", "root"), "1.0");
+        BuildableLocalConfigurationMetadata rootConfiguration = root.getConfiguration("default");
+        for (int i = 0; i < MODULES; i++) {
+            ModuleIdentifier module = module(i);
+            for (String version : ImmutableList.of("1.0", "2.0")) {
+                DefaultLocalComponentMetadata component = component(module, version);
+                BuildableLocalConfigurationMetadata configuration = component.getConfiguration("default");
+                for (int j = 0; j < DEPENDENCIES_PER_MODULE; j++) {
+                    configuration.addDependency(dependency(component, module((i + 1 + j * 7) % MODULES), "2.0"));
+                }
+                components.put(component.getId(), component);
+            }
+            rootConfiguration.addDependency(dependency(root, module, conflicts && i % 2 == 0 ? "1.0" : "2.0"));
+        }
+
+        VersionParser versionParser = new VersionParser();
+        DefaultVersionComparator versionComparator = new DefaultVersionComparator();
+        builder = new DependencyGraphBuilder(
+            new ComponentIdResolver(),
+            new ComponentResolver(),
+            new RootComponentResolver(),
+            new DefaultConflictHandler(new ConflictResolverFactory(versionComparator, versionParser).createConflictResolver(ConflictResolution.latest), ModuleReplacementsData.NO_OP),
+            new DefaultCapabilitiesConflictHandler(),
+            Specs.satisfyAll(),
+            EmptySchema.INSTANCE,
+            new ModuleExclusions(),
+            null, // metadata is cheap to fetch, so it is never downloaded in parallel
+            DependencySubstitutionApplicator.NO_OP,
+            new ModuleSelectorConverter(),
+            new DefaultImmutableAttributesFactory(null, null),
+            new DefaultVersionSelectorScheme(versionComparator, versionParser),
+            versionComparator.asVersionComparator(),
+            versionParser
+        );
+        resolveContext = new BenchmarkResolveContext();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EDGES)
+    public int resolveGraph() {
+        EdgeCountingVisitor visitor = new EdgeCountingVisitor();
+        builder.resolve(resolveContext, visitor, false);
+        if (visitor.edges != EDGES) {
+            throw new IllegalStateException("Expected " + EDGES + " edges but visited " + visitor.edges);
+        }
+        return visitor.edges;
+    }
+
+    private static ModuleIdentifier module(int index) {
+        return DefaultModuleIdentifier.newId("org.example", "module" + index);
+    }
+
+    private static DefaultLocalComponentMetadata component(ModuleIdentifier module, String version) {
+        ModuleVersionIdentifier id = DefaultModuleVersionIdentifier.newId(module, version);
+        DefaultLocalComponentMetadata component = new DefaultLocalComponentMetadata(id, DefaultModuleComponentIdentifier.newId(id), "release", EmptySchema.INSTANCE);
+        component.addConfiguration("default", "default", Collections.emptySet(), ImmutableSet.of("default"), true, true, ImmutableAttributes.EMPTY, true, null, true, ImmutableCapabilities.EMPTY, Collections::emptyList);
+        return component;
+    }
+
+    private static LocalComponentDependencyMetadata dependency(DefaultLocalComponentMetadata from, ModuleIdentifier to, String version) {
+        return new LocalComponentDependencyMetadata(from.getId(), DefaultModuleComponentSelector.newSelector(to, version), "default", null, ImmutableAttributes.EMPTY, "default",
+            Collections.emptyList(), Collections.emptyList(), false, false, true, false, false, false, null);
+    }
+
+    private static class ComponentIdResolver implements DependencyToComponentIdResolver {
+        @Override
+        public void resolve(DependencyMetadata dependency, VersionSelector acceptor, @Nullable VersionSelector rejector, BuildableComponentIdResolveResult result) {
+            ModuleComponentSelector selector = (ModuleComponentSelector) dependency.getSelector();
+            ModuleVersionIdentifier id = DefaultModuleVersionIdentifier.newId(selector.getModuleIdentifier(), selector.getVersion());
+            result.resolved(DefaultModuleComponentIdentifier.newId(id), id);
+        }
+    }
+
+    private class ComponentResolver implements ComponentMetaDataResolver {
+        @Override
+        public void resolve(ComponentIdentifier identifier, ComponentOverrideMetadata componentOverrideMetadata, BuildableComponentResolveResult result) {
+            result.resolved(components.get(identifier));
+        }
+
+        @Override
+        public boolean isFetchingMetadataCheap(ComponentIdentifier identifier) {
+            return true;
+        }
+    }
+
+    private class RootComponentResolver implements ResolveContextToComponentResolver {
+        @Override
+        public void resolve(ResolveContext resolveContext, BuildableComponentResolveResult result) {
+            result.resolved(root);
+        }
+    }
+
+    private static class ModuleSelectorConverter implements ComponentSelectorConverter {
+        @Override
+        public ModuleIdentifier getModule(ComponentSelector selector) {
+            return ((ModuleComponentSelector) selector).getModuleIdentifier();
+        }
+
+        @Override
+        public ModuleVersionSelector getSelector(ComponentSelector selector) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class BenchmarkResolveContext implements ResolveContext {
+        private final ResolutionStrategyInternal resolutionStrategy = (ResolutionStrategyInternal) Proxy.newProxyInstance(
+            ResolutionStrategyInternal.class.getClassLoader(),
+            new Class<?>[]{ResolutionStrategyInternal.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getConflictResolution":
+                        return ConflictResolution.latest;
+                    case "isFailingOnDynamicVersions":
+                    case "isFailingOnChangingVersions":
+                        return false;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+
+        @Override
+        public String getName() {
+            return "default";
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "benchmark";
+        }
+
+        @Override
+        public ResolutionStrategyInternal getResolutionStrategy() {
+            return resolutionStrategy;
+        }
+
+        @Override
+        public ComponentResolveMetadata toRootComponentMetaData() {
+            return root;
+        }
+
+        @Override
+        public AttributeContainer getAttributes() {
+            return ImmutableAttributes.EMPTY;
+        }
+    }
+
+    private static class EdgeCountingVisitor implements DependencyGraphVisitor {
+        int edges;
+
+        @Override
+        public void start(RootGraphNode root) {
+        }
+
+        @Override
+        public void visitNode(DependencyGraphNode node) {
+        }
+
+        @Override
+        public void visitSelector(DependencyGraphSelector selector) {
+        }
+
+        @Override
+        public void visitEdges(DependencyGraphNode node) {
+            for (DependencyGraphEdge edge : node.getOutgoingEdges()) {
+                if (edge.getFailure() == null) {
+                    edges++;
+                }
+            }
+        }
+
+        @Override
+        public void finish(DependencyGraphNode root) {
+        }
+    }
+}
@@ -131,7 +131,6 @@
 import org.gradle.cache.internal.GeneratedGradleJarCache;
 import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
 import org.gradle.cache.internal.ProducerGuard;
-import org.gradle.cache.scopes.BuildScopedCache;
 import org.gradle.cache.scopes.GlobalScopedCache;
 import org.gradle.caching.internal.origin.OriginMetadata;
 import org.gradle.configuration.internal.UserCodeApplicationContext;
@@ -145,6 +144,7 @@
 import org.gradle.internal.component.external.model.ModuleComponentArtifactMetadata;
 import org.gradle.internal.component.external.model.PreferJavaRuntimeVariant;
 import org.gradle.internal.component.model.PersistentModuleSource;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.execution.ExecutionEngine;
 import org.gradle.internal.execution.ExecutionResult;
@@ -560,7 +560,8 @@ ResolveIvyFactory createResolveIvyFactory(StartParameterResolutionOverride start
                                               RepositoryDisabler repositoryBlacklister,
                                               VersionParser versionParser,
                                               ListenerManager listenerManager,
-                                              CalculatedValueContainerFactory calculatedValueContainerFactory) {
+                                              CalculatedValueContainerFactory calculatedValueContainerFactory,
+                                              BuildOperationExecutor buildOperationExecutor) {
         return new ResolveIvyFactory(
             moduleRepositoryCacheProvider,
             startParameterResolutionOverride,
@@ -571,7 +572,8 @@ ResolveIvyFactory createResolveIvyFactory(StartParameterResolutionOverride start
             repositoryBlacklister,
             versionParser,
             listenerManager.getBroadcaster(ChangingValueDependencyResolutionListener.class),
-            calculatedValueContainerFactory);
+            calculatedValueContainerFactory,
+            buildOperationExecutor);
     }
 
     ArtifactDependencyResolver createArtifactDependencyResolver(ResolveIvyFactory resolveIvyFactory,
@@ -588,7 +590,8 @@ ArtifactDependencyResolver createArtifactDependencyResolver(ResolveIvyFactory re
                                                                 ComponentMetadataSupplierRuleExecutor componentMetadataSupplierRuleExecutor,
                                                                 InstantiatorFactory instantiatorFactory,
                                                                 ComponentSelectionDescriptorFactory componentSelectionDescriptorFactory,
-                                                                CalculatedValueContainerFactory calculatedValueContainerFactory) {
+                                                                CalculatedValueContainerFactory calculatedValueContainerFactory,
+                                                                ExecutorFactory executorFactory) {
         return new DefaultArtifactDependencyResolver(
             buildOperationExecutor,
             resolverFactories,
@@ -604,7 +607,8 @@ ArtifactDependencyResolver createArtifactDependencyResolver(ResolveIvyFactory re
             componentMetadataSupplierRuleExecutor,
             instantiatorFactory,
             componentSelectionDescriptorFactory,
-            calculatedValueContainerFactory);
+            calculatedValueContainerFactory,
+            executorFactory);
     }
 
     ProjectPublicationRegistry createProjectPublicationRegistry() {
@@ -676,10 +680,9 @@ SignatureVerificationServiceFactory createSignatureVerificationServiceFactory(Gl
                                                                                   RepositoryTransportFactory transportFactory,
                                                                                   BuildOperationExecutor buildOperationExecutor,
                                                                                   BuildCommencedTimeProvider timeProvider,
-                                                                                  BuildScopedCache buildScopedCache,
                                                                                   FileHasher fileHasher,
                                                                                   StartParameter startParameter) {
-        return new DefaultSignatureVerificationServiceFactory(transportFactory, globalScopedCache, decoratorFactory, buildOperationExecutor, fileHasher, buildScopedCache, timeProvider, startParameter.isRefreshKeys());
+        return new DefaultSignatureVerificationServiceFactory(transportFactory, globalScopedCache, decoratorFactory, buildOperationExecutor, fileHasher, timeProvider, startParameter.isRefreshKeys());
     }
 
     private void registerBuildFinishedHooks(ListenerManager listenerManager, DependencyVerificationOverride dependencyVerificationOverride) {
@@ -95,7 +95,9 @@ ExecutionHistoryStore createExecutionHistoryStore(
     ImmutableTransformationWorkspaceServices createTransformerWorkspaceServices(
         ArtifactCachesProvider artifactCaches,
         CacheRepository cacheRepository,
+        GlobalScopedCache globalScopedCache,
         CrossBuildInMemoryCacheFactory crossBuildInMemoryCacheFactory,
+        InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory,
         FileAccessTimeJournal fileAccessTimeJournal,
         ExecutionHistoryStore executionHistoryStore
     ) {
@@ -104,8 +106,13 @@ ImmutableTransformationWorkspaceServices createTransformerWorkspaceServices(
                 .cache(artifactCaches.getWritableCacheMetadata().getTransformsStoreDirectory())
                 .withCrossVersionCache(CacheBuilder.LockTarget.DefaultTarget)
                 .withDisplayName("Artifact transforms cache"),
+            // The index is specific to this version, like the execution history of the workspaces
+            globalScopedCache
+                .cache("transformsIndex")
+                .withDisplayName("Artifact transforms index"),
             fileAccessTimeJournal,
             executionHistoryStore,
+            inMemoryCacheDecoratorFactory,
             crossBuildInMemoryCacheFactory.newCacheRetainingDataFromPreviousBuild(Try::isSuccessful)
         );
     }
@@ -42,6 +42,10 @@
 import org.gradle.internal.component.model.DefaultComponentOverrideMetadata;
 import org.gradle.internal.component.model.DependencyMetadata;
 import org.gradle.internal.component.model.IvyArtifactName;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.resolve.ModuleVersionNotFoundException;
 import org.gradle.internal.resolve.ModuleVersionResolveException;
 import org.gradle.internal.resolve.RejectedByAttributesVersion;
@@ -84,10 +88,11 @@ public class DynamicVersionResolver {
     private final ComponentMetadataProcessorFactory componentMetadataProcessor;
     private final ComponentMetadataSupplierRuleExecutor componentMetadataSupplierRuleExecutor;
     private final CachePolicy cachePolicy;
+    private final BuildOperationExecutor buildOperationExecutor;
 
     public DynamicVersionResolver(VersionedComponentChooser versionedComponentChooser, VersionParser versionParser, Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory,
                                   ImmutableAttributesFactory attributesFactory, ComponentMetadataProcessorFactory componentMetadataProcessor,
-                                  ComponentMetadataSupplierRuleExecutor componentMetadataSupplierRuleExecutor, CachePolicy cachePolicy) {
+                                  ComponentMetadataSupplierRuleExecutor componentMetadataSupplierRuleExecutor, CachePolicy cachePolicy, BuildOperationExecutor buildOperationExecutor) {
         this.versionedComponentChooser = versionedComponentChooser;
         this.versionParser = versionParser;
         this.metaDataFactory = metaDataFactory;
@@ -95,6 +100,7 @@ public DynamicVersionResolver(VersionedComponentChooser versionedComponentChoose
         this.componentMetadataProcessor = componentMetadataProcessor;
         this.componentMetadataSupplierRuleExecutor = componentMetadataSupplierRuleExecutor;
         this.cachePolicy = cachePolicy;
+        this.buildOperationExecutor = buildOperationExecutor;
     }
 
     public void add(ModuleComponentRepository repository) {
@@ -129,6 +135,23 @@ public void resolve(ModuleDependencyMetadata dependency, VersionSelector version
         }
     }
 
+    /**
+     * Lists the versions of the module in the repositories where the cached listing is missing or expired, without selecting a version.
+     * Failures are ignored, as they are reported when a version is selected.
+     */
+    public void listVersions(ModuleDependencyMetadata dependency) {
+        for (ModuleComponentRepository repository : repositories) {
+            VersionListResult versionListResult = new VersionListResult(dependency, repository);
+            try {
+                if (versionListResult.requiresRemoteListing()) {
+                    versionListResult.resolveRemotely();
+                }
+            } catch (RuntimeException e) {
+                LOGGER.debug("Could not list versions of {} in {}", dependency.getSelector(), repository.getName(), e);
+            }
+        }
+    }
+
     private void found(BuildableComponentIdResolveResult result, List<RepositoryResolveState> resolveStates, RepositoryChainModuleResolution latestResolved) {
         for (RepositoryResolveState resolveState : resolveStates) {
             resolveState.registerAttempts(result);
@@ -155,6 +178,7 @@ private RepositoryChainModuleResolution findLatestModule(List<RepositoryResolveS
         LinkedList<RepositoryResolveState> missing = new LinkedList<>();
 
         // A first pass to do local resolves only
+        listVersionsRemotely(queue);
         RepositoryChainModuleResolution best = findLatestModule(queue, failures, missing);
         if (hasCriticalFailure(failures)) {
             return null;
@@ -166,9 +190,46 @@ private RepositoryChainModuleResolution findLatestModule(List<RepositoryResolveS
         // Nothing found - do a second pass
         queue.addAll(missing);
         missing.clear();
+        listVersionsRemotely(queue);
         return findLatestModule(queue, failures, missing);
     }
 
+    /**
+     * Lists the versions of the module concurrently in the repositories that will be searched remotely by the next pass, as listing the versions remotely
+     * usually requires a network request to each repository. Selecting a version from each listing still happens in repository order, as it may run component selection rules.
+     */
+    private void listVersionsRemotely(List<RepositoryResolveState> resolveStates) {
+        List<RepositoryResolveState> remoteListings = new ArrayList<>(resolveStates.size());
+        for (RepositoryResolveState resolveState : resolveStates) {
+            try {
+                if (resolveState.versionListingResult.requiresRemoteListing()) {
+                    remoteListings.add(resolveState);
+                }
+            } catch (RuntimeException e) {
+                // The failure is recorded and handled when the repository is visited
+            }
+        }
+        buildOperationExecutor.runAll(queue -> {
+            for (RepositoryResolveState resolveState : remoteListings) {
+                queue.add(new RunnableBuildOperation() {
+                    @Override
+                    public void run(BuildOperationContext context) {
+                        try {
+                            resolveState.versionListingResult.resolveRemotely();
+                        } catch (RuntimeException e) {
+                            // The failure is recorded and handled when the repository is visited
+                        }
+                    }
+
+                    @Override
+                    public BuildOperationDescriptor.Builder description() {
+                        return BuildOperationDescriptor.displayName("List versions of " + resolveState.dependency.getSelector().getModuleIdentifier() + " in " + resolveState.repository.getName());
+                    }
+                });
+            }
+        });
+    }
+
     @Nullable
     private RepositoryChainModuleResolution findLatestModule(LinkedList<RepositoryResolveState> queue, Collection<Throwable> failures, Collection<RepositoryResolveState> missing) {
         RepositoryChainModuleResolution best = null;
@@ -520,8 +581,10 @@ private static class VersionListResult {
         private final ModuleComponentRepository repository;
         private final ModuleDependencyMetadata dependency;
 
+        private boolean attempted;
         private boolean searchedLocally;
         private boolean searchedRemotely;
+        private RuntimeException failure;
 
         public VersionListResult(ModuleDependencyMetadata dependency, ModuleComponentRepository repository) {
             this.dependency = dependency;
@@ -529,24 +592,63 @@ public VersionListResult(ModuleDependencyMetadata dependency, ModuleComponentRep
         }
 
         void resolve() {
-            if (!searchedLocally) {
-                searchedLocally = true;
-                process(dependency, repository.getLocalAccess());
+            if (!attempted) {
+                attempted = true;
+                resolveLocally();
                 if (result.hasResult()) {
-                    if (result.isAuthoritative()) {
-                        // Authoritative result - don't need to try remote
-                        searchedRemotely = true;
-                    }
                     return;
                 }
                 // Otherwise, try remotely
             }
+            resolveRemotely();
+
+            // Otherwise, just reuse previous result
+        }
+
+        /**
+         * Returns true when the next call to {@link #resolve()} will list the versions remotely.
+         */
+        boolean requiresRemoteListing() {
+            resolveLocally();
+            return !searchedRemotely && (attempted || !result.hasResult());
+        }
+
+        private void resolveLocally() {
+            if (failure != null) {
+                throw failure;
+            }
+            if (!searchedLocally) {
+                searchedLocally = true;
+                try {
+                    process(dependency, repository.getLocalAccess());
+                } catch (RuntimeException e) {
+                    failure = e;
+                    throw e;
+                }
+                if (result.hasResult() && result.isAuthoritative()) {
+                    // Authoritative result - don't need to try remote
+                    searchedRemotely = true;
+                }
+            }
+        }
+
+        /**
+         * Lists the versions remotely, if not already done. Can be called from any thread before the result is used.
+         * A failure is kept, to be thrown again when the result is used.
+         */
+        synchronized void resolveRemotely() {
+            if (failure != null) {
+                throw failure;
+            }
             if (!searchedRemotely) {
                 searchedRemotely = true;
-                process(dependency, repository.getRemoteAccess());
+                try {
+                    process(dependency, repository.getRemoteAccess());
+                } catch (RuntimeException e) {
+                    failure = e;
+                    throw e;
+                }
             }
-
-            // Otherwise, just reuse previous result
         }
 
         public boolean canMakeFurtherAttempts() {
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve;
+
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+
+/**
+ * Lists the versions of a module ahead of the selection of a version for a dynamic selector, so that the selection finds the listings in the cache.
+ */
+public interface ModuleVersionLister {
+    /**
+     * Refreshes the listings of the versions of the selected module that are missing or expired in the cache.
+     * Failures are ignored, they are reported when a version is selected.
+     */
+    void listVersions(ModuleComponentSelector selector);
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The parts of a POM file that are used by {@link PomReader}, as they appear in the file.
+ *
+ * <p>Values are neither trimmed nor interpolated, as this depends on the properties inherited from parent POMs.
+ * When an element is repeated, only its first occurrence is kept, except for elements that form a list.</p>
+ */
+class PomDocument {
+    final String systemId;
+    String rootElementName;
+    boolean gradleMetadataMarker;
+
+    String groupId;
+    String artifactId;
+    String version;
+    String packaging;
+
+    boolean hasParent;
+    String parentGroupId;
+    String parentArtifactId;
+    String parentVersion;
+
+    boolean hasRelocation;
+    String relocationGroupId;
+    String relocationArtifactId;
+    String relocationVersion;
+
+    final Map<String, String> properties = new HashMap<>();
+    final List<Dependency> dependencies = new ArrayList<>();
+    final List<Dependency> dependencyManagement = new ArrayList<>();
+    final List<Profile> profiles = new ArrayList<>();
+
+    PomDocument(String systemId) {
+        this.systemId = systemId;
+    }
+
+    static class Dependency {
+        String groupId;
+        String artifactId;
+        String version;
+        String scope;
+        String type;
+        String classifier;
+        String optional;
+        @Nullable
+        List<Exclusion> exclusions;
+    }
+
+    static class Exclusion {
+        String groupId;
+        String artifactId;
+    }
+
+    static class Profile {
+        String id;
+        boolean hasActivation;
+        String activeByDefault;
+        boolean hasActivationProperty;
+        String activationPropertyName;
+        final Map<String, String> properties = new HashMap<>();
+        final List<Dependency> dependencies = new ArrayList<>();
+        final List<Dependency> dependencyManagement = new ArrayList<>();
+    }
+}
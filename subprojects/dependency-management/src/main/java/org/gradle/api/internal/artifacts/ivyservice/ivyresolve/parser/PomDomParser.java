@@ -16,13 +16,16 @@
 
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
 
+import org.w3c.dom.Comment;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 import java.io.*;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 public final class PomDomParser {
     private PomDomParser() {}
@@ -84,6 +87,110 @@ public static List<Element> getAllChilds(Element parent) {
         return r;
     }
 
+    /**
+     * Extracts the parts of a POM that are used by {@link PomReader} from its DOM.
+     */
+    static PomDocument toPomDocument(Element projectElement, String systemId) {
+        PomDocument document = new PomDocument(systemId);
+        document.rootElementName = projectElement.getNodeName();
+
+        NodeList childNodes = projectElement.getChildNodes();
+        for (int i = 0; i < childNodes.getLength(); i++) {
+            Node node = childNodes.item(i);
+            if (node instanceof Comment) {
+                String comment = node.getNodeValue();
+                if (comment.contains(MetaDataParser.GRADLE_6_METADATA_MARKER) || comment.contains(MetaDataParser.GRADLE_METADATA_MARKER)) {
+                    document.gradleMetadataMarker = true;
+                }
+            }
+        }
+
+        document.groupId = getFirstChildText(projectElement, "groupId");
+        document.artifactId = getFirstChildText(projectElement, "artifactId");
+        document.version = getFirstChildText(projectElement, "version");
+        document.packaging = getFirstChildText(projectElement, "packaging");
+
+        Element parentElement = getFirstChildElement(projectElement, "parent");
+        if (parentElement != null) {
+            document.hasParent = true;
+            document.parentGroupId = getFirstChildText(parentElement, "groupId");
+            document.parentArtifactId = getFirstChildText(parentElement, "artifactId");
+            document.parentVersion = getFirstChildText(parentElement, "version");
+        }
+
+        Element relocation = getFirstChildElement(getFirstChildElement(projectElement, "distributionManagement"), "relocation");
+        if (relocation != null) {
+            document.hasRelocation = true;
+            document.relocationGroupId = getFirstChildText(relocation, "groupId");
+            document.relocationArtifactId = getFirstChildText(relocation, "artifactId");
+            document.relocationVersion = getFirstChildText(relocation, "version");
+        }
+
+        addProperties(projectElement, document.properties);
+        addDependencies(getFirstChildElement(projectElement, "dependencies"), document.dependencies);
+        addDependencies(getFirstChildElement(getFirstChildElement(projectElement, "dependencyManagement"), "dependencies"), document.dependencyManagement);
+
+        for (Element profileElement : getAllChilds(getFirstChildElement(projectElement, "profiles"))) {
+            if ("profile".equals(profileElement.getNodeName())) {
+                document.profiles.add(toProfile(profileElement));
+            }
+        }
+        return document;
+    }
+
+    private static PomDocument.Profile toProfile(Element profileElement) {
+        PomDocument.Profile profile = new PomDocument.Profile();
+        profile.id = getFirstChildText(profileElement, "id");
+        Element activationElement = getFirstChildElement(profileElement, "activation");
+        if (activationElement != null) {
+            profile.hasActivation = true;
+            profile.activeByDefault = getFirstChildText(activationElement, "activeByDefault");
+            Element propertyElement = getFirstChildElement(activationElement, "property");
+            if (propertyElement != null) {
+                profile.hasActivationProperty = true;
+                profile.activationPropertyName = getFirstChildText(propertyElement, "name");
+            }
+        }
+        addProperties(profileElement, profile.properties);
+        addDependencies(getFirstChildElement(profileElement, "dependencies"), profile.dependencies);
+        addDependencies(getFirstChildElement(getFirstChildElement(profileElement, "dependencyManagement"), "dependencies"), profile.dependencyManagement);
+        return profile;
+    }
+
+    private static void addProperties(Element parentElement, Map<String, String> properties) {
+        for (Element prop : getAllChilds(getFirstChildElement(parentElement, "properties"))) {
+            properties.put(prop.getNodeName(), getTextContent(prop));
+        }
+    }
+
+    private static void addDependencies(Element dependenciesElement, List<PomDocument.Dependency> dependencies) {
+        for (Element depElement : getAllChilds(dependenciesElement)) {
+            if ("dependency".equals(depElement.getNodeName())) {
+                PomDocument.Dependency dependency = new PomDocument.Dependency();
+                dependency.groupId = getFirstChildText(depElement, "groupId");
+                dependency.artifactId = getFirstChildText(depElement, "artifactId");
+                dependency.version = getFirstChildText(depElement, "version");
+                dependency.scope = getFirstChildText(depElement, "scope");
+                dependency.type = getFirstChildText(depElement, "type");
+                dependency.classifier = getFirstChildText(depElement, "classifier");
+                dependency.optional = getFirstChildText(depElement, "optional");
+                Element exclusionsElement = getFirstChildElement(depElement, "exclusions");
+                if (exclusionsElement != null) {
+                    dependency.exclusions = new ArrayList<>();
+                    for (Element exclusionElement : getAllChilds(exclusionsElement)) {
+                        if ("exclusion".equals(exclusionElement.getNodeName())) {
+                            PomDocument.Exclusion exclusion = new PomDocument.Exclusion();
+                            exclusion.groupId = getFirstChildText(exclusionElement, "groupId");
+                            exclusion.artifactId = getFirstChildText(exclusionElement, "artifactId");
+                            dependency.exclusions.add(exclusion);
+                        }
+                    }
+                }
+                dependencies.add(dependency);
+            }
+        }
+    }
+
     public static final class AddDTDFilterInputStream extends FilterInputStream {
         private static final int MARK = 10000;
         private static final String DOCTYPE = "<!DOCTYPE project SYSTEM \"m2-entities.ent\">\n";
@@ -0,0 +1,478 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import org.gradle.internal.classloader.ClassLoaderUtils;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLResolver;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static javax.xml.stream.XMLStreamConstants.CDATA;
+import static javax.xml.stream.XMLStreamConstants.CHARACTERS;
+import static javax.xml.stream.XMLStreamConstants.COMMENT;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.SPACE;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+import static org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.PomDomParser.AddDTDFilterInputStream;
+
+/**
+ * Reads a {@link PomDocument} from a POM file using a streaming parser, without building a DOM.
+ *
+ * <p>Produces the same document as {@link PomDomParser#toPomDocument(org.w3c.dom.Element, String)}: only the first occurrence of
+ * an element is used, text content is the concatenation of the text directly inside an element, and the Maven entities are
+ * declared for the POM.</p>
+ */
+final class PomStaxParser {
+    private static final XMLInputFactory XML_INPUT_FACTORY;
+    private static final XMLResolver M2_ENTITY_RESOLVER = (publicId, systemId, baseUri, namespace) -> {
+        if (systemId != null && systemId.endsWith("m2-entities.ent")) {
+            return new ByteArrayInputStream(PomReader.M2_ENTITIES_RESOURCE);
+        }
+        return null;
+    };
+
+    static {
+        // Set the context classloader the bootstrap classloader, to work around the way that JAXP locates implementation classes
+        // This should ensure that the StAX classes provided by the JVM are used, rather than some other implementation
+        ClassLoader original = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(ClassLoaderUtils.getPlatformClassLoader());
+        try {
+            XML_INPUT_FACTORY = XMLInputFactory.newFactory();
+            XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_VALIDATING, false);
+            XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, true);
+            XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, true);
+            XML_INPUT_FACTORY.setXMLResolver(M2_ENTITY_RESOLVER);
+        } finally {
+            Thread.currentThread().setContextClassLoader(original);
+        }
+    }
+
+    private final XMLStreamReader reader;
+    private final PomDocument document;
+
+    private PomStaxParser(XMLStreamReader reader, PomDocument document) {
+        this.reader = reader;
+        this.document = document;
+    }
+
+    static PomDocument parse(InputStream stream, String systemId) throws IOException, XMLStreamException {
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(systemId, new AddDTDFilterInputStream(stream));
+        try {
+            PomDocument document = new PomDocument(systemId);
+            new PomStaxParser(reader, document).parseDocument();
+            return document;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void parseDocument() throws XMLStreamException {
+        while (reader.hasNext()) {
+            if (reader.next() == START_ELEMENT) {
+                document.rootElementName = elementName();
+                parseProject();
+                return;
+            }
+        }
+        throw new XMLStreamException("POM does not have a root element");
+    }
+
+    private void parseProject() throws XMLStreamException {
+        boolean seenProperties = false;
+        boolean seenDependencies = false;
+        boolean seenDependencyManagement = false;
+        boolean seenDistributionManagement = false;
+        boolean seenProfiles = false;
+        int event;
+        while ((event = reader.next()) != END_ELEMENT) {
+            if (event == COMMENT) {
+                String comment = reader.getText();
+                if (comment.contains(MetaDataParser.GRADLE_6_METADATA_MARKER) || comment.contains(MetaDataParser.GRADLE_METADATA_MARKER)) {
+                    document.gradleMetadataMarker = true;
+                }
+                continue;
+            }
+            if (event != START_ELEMENT) {
+                continue;
+            }
+            switch (elementName()) {
+                case "groupId":
+                    document.groupId = firstText(document.groupId);
+                    break;
+                case "artifactId":
+                    document.artifactId = firstText(document.artifactId);
+                    break;
+                case "version":
+                    document.version = firstText(document.version);
+                    break;
+                case "packaging":
+                    document.packaging = firstText(document.packaging);
+                    break;
+                case "parent":
+                    if (document.hasParent) {
+                        skipElement();
+                    } else {
+                        document.hasParent = true;
+                        parseParent();
+                    }
+                    break;
+                case "properties":
+                    if (seenProperties) {
+                        skipElement();
+                    } else {
+                        seenProperties = true;
+                        parseProperties(document.properties);
+                    }
+                    break;
+                case "dependencies":
+                    if (seenDependencies) {
+                        skipElement();
+                    } else {
+                        seenDependencies = true;
+                        parseDependencies(document.dependencies);
+                    }
+                    break;
+                case "dependencyManagement":
+                    if (seenDependencyManagement) {
+                        skipElement();
+                    } else {
+                        seenDependencyManagement = true;
+                        parseDependencyManagement(document.dependencyManagement);
+                    }
+                    break;
+                case "distributionManagement":
+                    if (seenDistributionManagement) {
+                        skipElement();
+                    } else {
+                        seenDistributionManagement = true;
+                        parseDistributionManagement();
+                    }
+                    break;
+                case "profiles":
+                    if (seenProfiles) {
+                        skipElement();
+                    } else {
+                        seenProfiles = true;
+                        parseProfiles();
+                    }
+                    break;
+                default:
+                    skipElement();
+            }
+        }
+    }
+
+    private void parseParent() throws XMLStreamException {
+        while (nextChildElement()) {
+            switch (elementName()) {
+                case "groupId":
+                    document.parentGroupId = firstText(document.parentGroupId);
+                    break;
+                case "artifactId":
+                    document.parentArtifactId = firstText(document.parentArtifactId);
+                    break;
+                case "version":
+                    document.parentVersion = firstText(document.parentVersion);
+                    break;
+                default:
+                    skipElement();
+            }
+        }
+    }
+
+    private void parseDistributionManagement() throws XMLStreamException {
+        while (nextChildElement()) {
+            if (!document.hasRelocation && elementName().equals("relocation")) {
+                document.hasRelocation = true;
+                parseRelocation();
+            } else {
+                skipElement();
+            }
+        }
+    }
+
+    private void parseRelocation() throws XMLStreamException {
+        while (nextChildElement()) {
+            switch (elementName()) {
+                case "groupId":
+                    document.relocationGroupId = firstText(document.relocationGroupId);
+                    break;
+                case "artifactId":
+                    document.relocationArtifactId = firstText(document.relocationArtifactId);
+                    break;
+                case "version":
+                    document.relocationVersion = firstText(document.relocationVersion);
+                    break;
+                default:
+                    skipElement();
+            }
+        }
+    }
+
+    private void parseProperties(Map<String, String> properties) throws XMLStreamException {
+        while (nextChildElement()) {
+            String name = elementName();
+            properties.put(name, readText());
+        }
+    }
+
+    private void parseDependencyManagement(List<PomDocument.Dependency> dependencies) throws XMLStreamException {
+        boolean seenDependencies = false;
+        while (nextChildElement()) {
+            if (!seenDependencies && elementName().equals("dependencies")) {
+                seenDependencies = true;
+                parseDependencies(dependencies);
+            } else {
+                skipElement();
+            }
+        }
+    }
+
+    private void parseDependencies(List<PomDocument.Dependency> dependencies) throws XMLStreamException {
+        while (nextChildElement()) {
+            if (elementName().equals("dependency")) {
+                dependencies.add(parseDependency());
+            } else {
+                skipElement();
+            }
+        }
+    }
+
+    private PomDocument.Dependency parseDependency() throws XMLStreamException {
+        PomDocument.Dependency dependency = new PomDocument.Dependency();
+        while (nextChildElement()) {
+            switch (elementName()) {
+                case "groupId":
+                    dependency.groupId = firstText(dependency.groupId);
+                    break;
+                case "artifactId":
+                    dependency.artifactId = firstText(dependency.artifactId);
+                    break;
+                case "version":
+                    dependency.version = firstText(dependency.version);
+                    break;
+                case "scope":
+                    dependency.scope = firstText(dependency.scope);
+                    break;
+                case "type":
+                    dependency.type = firstText(dependency.type);
+                    break;
+                case "classifier":
+                    dependency.classifier = firstText(dependency.classifier);
+                    break;
+                case "optional":
+                    dependency.optional = firstText(dependency.optional);
+                    break;
+                case "exclusions":
+                    if (dependency.exclusions == null) {
+                        dependency.exclusions = parseExclusions();
+                    } else {
+                        skipElement();
+                    }
+                    break;
+                default:
+                    skipElement();
+            }
+        }
+        return dependency;
+    }
+
+    private List<PomDocument.Exclusion> parseExclusions() throws XMLStreamException {
+        List<PomDocument.Exclusion> exclusions = new ArrayList<>();
+        while (nextChildElement()) {
+            if (!elementName().equals("exclusion")) {
+                skipElement();
+                continue;
+            }
+            PomDocument.Exclusion exclusion = new PomDocument.Exclusion();
+            while (nextChildElement()) {
+                switch (elementName()) {
+                    case "groupId":
+                        exclusion.groupId = firstText(exclusion.groupId);
+                        break;
+                    case "artifactId":
+                        exclusion.artifactId = firstText(exclusion.artifactId);
+                        break;
+                    default:
+                        skipElement();
+                }
+            }
+            exclusions.add(exclusion);
+        }
+        return exclusions;
+    }
+
+    private void parseProfiles() throws XMLStreamException {
+        while (nextChildElement()) {
+            if (elementName().equals("profile")) {
+                document.profiles.add(parseProfile());
+            } else {
+                skipElement();
+            }
+        }
+    }
+
+    private PomDocument.Profile parseProfile() throws XMLStreamException {
+        PomDocument.Profile profile = new PomDocument.Profile();
+        boolean seenProperties = false;
+        boolean seenDependencies = false;
+        boolean seenDependencyManagement = false;
+        while (nextChildElement()) {
+            switch (elementName()) {
+                case "id":
+                    profile.id = firstText(profile.id);
+                    break;
+                case "activation":
+                    if (profile.hasActivation) {
+                        skipElement();
+                    } else {
+                        profile.hasActivation = true;
+                        parseActivation(profile);
+                    }
+                    break;
+                case "properties":
+                    if (seenProperties) {
+                        skipElement();
+                    } else {
+                        seenProperties = true;
+                        parseProperties(profile.properties);
+                    }
+                    break;
+                case "dependencies":
+                    if (seenDependencies) {
+                        skipElement();
+                    } else {
+                        seenDependencies = true;
+                        parseDependencies(profile.dependencies);
+                    }
+                    break;
+                case "dependencyManagement":
+                    if (seenDependencyManagement) {
+                        skipElement();
+                    } else {
+                        seenDependencyManagement = true;
+                        parseDependencyManagement(profile.dependencyManagement);
+                    }
+                    break;
+                default:
+                    skipElement();
+            }
+        }
+        return profile;
+    }
+
+    private void parseActivation(PomDocument.Profile profile) throws XMLStreamException {
+        while (nextChildElement()) {
+            String name = elementName();
+            if (name.equals("activeByDefault")) {
+                profile.activeByDefault = firstText(profile.activeByDefault);
+            } else if (name.equals("property") && !profile.hasActivationProperty) {
+                profile.hasActivationProperty = true;
+                while (nextChildElement()) {
+                    if (elementName().equals("name")) {
+                        profile.activationPropertyName = firstText(profile.activationPropertyName);
+                    } else {
+                        skipElement();
+                    }
+                }
+            } else {
+                skipElement();
+            }
+        }
+    }
+
+    /**
+     * Moves to the start of the next child element of the current element, or to the end of the current element when it has no more children.
+     *
+     * @return true when positioned at the start of a child element.
+     */
+    private boolean nextChildElement() throws XMLStreamException {
+        while (true) {
+            int event = reader.next();
+            if (event == START_ELEMENT) {
+                return true;
+            }
+            if (event == END_ELEMENT) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Returns the text of the current element if the given value has not been set yet, to keep the first occurrence of an element.
+     */
+    private String firstText(String current) throws XMLStreamException {
+        if (current != null) {
+            skipElement();
+            return current;
+        }
+        return readText();
+    }
+
+    /**
+     * Returns the text directly inside the current element, ignoring the content of child elements, and moves to the end of the element.
+     */
+    private String readText() throws XMLStreamException {
+        String text = null;
+        StringBuilder builder = null;
+        int event;
+        while ((event = reader.next()) != END_ELEMENT) {
+            if (event == CHARACTERS || event == CDATA || event == SPACE) {
+                if (text == null) {
+                    text = reader.getText();
+                } else {
+                    if (builder == null) {
+                        builder = new StringBuilder(text);
+                    }
+                    builder.append(reader.getText());
+                }
+            } else if (event == START_ELEMENT) {
+                skipElement();
+            }
+        }
+        if (builder != null) {
+            return builder.toString();
+        }
+        return text == null ? "" : text;
+    }
+
+    private void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == START_ELEMENT) {
+                depth++;
+            } else if (event == END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private String elementName() {
+        String prefix = reader.getPrefix();
+        String localName = reader.getLocalName();
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache;
+
+import com.google.common.collect.Maps;
+import org.gradle.api.attributes.AttributeContainer;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.AttributeContainerSerializer;
+import org.gradle.api.internal.attributes.ImmutableAttributes;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes each distinct attribute container once, and refers to it by index afterwards.
+ *
+ * A module typically uses the same few attribute containers for its variants, dependencies and constraints, so this avoids
+ * decoding and interning them again for each occurrence. An instance must be used for a single metadata entry only.
+ */
+class DeduplicatingAttributeContainerSerializer implements AttributeContainerSerializer {
+    // Attributes are created by a factory which guarantees same instances, so an identity map is enough
+    private final Map<AttributeContainer, Integer> writeIndex = Maps.newIdentityHashMap();
+    private final List<ImmutableAttributes> readIndex = new ArrayList<>();
+    private final AttributeContainerSerializer delegate;
+
+    DeduplicatingAttributeContainerSerializer(AttributeContainerSerializer delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ImmutableAttributes read(Decoder decoder) throws IOException {
+        int idx = decoder.readSmallInt();
+        if (idx == 0) {
+            return ImmutableAttributes.EMPTY;
+        }
+        if (idx > readIndex.size()) {
+            ImmutableAttributes attributes = delegate.read(decoder);
+            readIndex.add(attributes);
+            return attributes;
+        }
+        return readIndex.get(idx - 1);
+    }
+
+    @Override
+    public void write(Encoder encoder, AttributeContainer container) throws IOException {
+        if (container.isEmpty()) {
+            encoder.writeSmallInt(0);
+            return;
+        }
+        Integer idx = writeIndex.get(container);
+        if (idx == null) {
+            idx = writeIndex.size() + 1;
+            writeIndex.put(container, idx);
+            encoder.writeSmallInt(idx);
+            delegate.write(encoder, container);
+        } else {
+            encoder.writeSmallInt(idx);
+        }
+    }
+}
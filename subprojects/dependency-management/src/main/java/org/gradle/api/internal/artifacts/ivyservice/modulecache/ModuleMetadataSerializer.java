@@ -76,7 +76,6 @@ public class ModuleMetadataSerializer {
     private static final byte TYPE_IVY = 1;
     private static final byte TYPE_MAVEN = 2;
 
-    private final ModuleComponentSelectorSerializer componentSelectorSerializer;
     private final MavenMutableModuleMetadataFactory mavenMetadataFactory;
     private final IvyMutableModuleMetadataFactory ivyMetadataFactory;
     private final AttributeContainerSerializer attributeContainerSerializer;
@@ -86,16 +85,17 @@ public ModuleMetadataSerializer(AttributeContainerSerializer attributeContainerS
         this.mavenMetadataFactory = mavenMetadataFactory;
         this.ivyMetadataFactory = ivyMetadataFactory;
         this.attributeContainerSerializer = attributeContainerSerializer;
-        this.componentSelectorSerializer = new ModuleComponentSelectorSerializer(attributeContainerSerializer);
         this.moduleSourcesSerializer = moduleSourcesSerializer;
     }
 
     public MutableModuleComponentResolveMetadata read(Decoder decoder, ImmutableModuleIdentifierFactory moduleIdentifierFactory, Map<Integer, MavenDependencyDescriptor> deduplicationDependencyCache) throws IOException {
-        return new Reader(decoder, moduleIdentifierFactory, attributeContainerSerializer, componentSelectorSerializer, mavenMetadataFactory, ivyMetadataFactory, moduleSourcesSerializer).read(deduplicationDependencyCache);
+        AttributeContainerSerializer attributeContainerSerializer = new DeduplicatingAttributeContainerSerializer(this.attributeContainerSerializer);
+        return new Reader(decoder, moduleIdentifierFactory, attributeContainerSerializer, new ModuleComponentSelectorSerializer(attributeContainerSerializer), mavenMetadataFactory, ivyMetadataFactory, moduleSourcesSerializer).read(deduplicationDependencyCache);
     }
 
     public void write(Encoder encoder, ModuleComponentResolveMetadata metadata, Map<ExternalDependencyDescriptor, Integer> deduplicationDependencyCache) throws IOException {
-        new Writer(encoder, attributeContainerSerializer, componentSelectorSerializer, moduleSourcesSerializer).write(metadata, deduplicationDependencyCache);
+        AttributeContainerSerializer attributeContainerSerializer = new DeduplicatingAttributeContainerSerializer(this.attributeContainerSerializer);
+        new Writer(encoder, attributeContainerSerializer, new ModuleComponentSelectorSerializer(attributeContainerSerializer), moduleSourcesSerializer).write(metadata, deduplicationDependencyCache);
     }
 
     private static class Writer {
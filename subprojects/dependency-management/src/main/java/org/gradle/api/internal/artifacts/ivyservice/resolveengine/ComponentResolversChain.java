@@ -16,8 +16,10 @@
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine;
 
 import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ComponentResolvers;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ErrorHandlingArtifactResolver;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleVersionLister;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelector;
 import org.gradle.api.internal.artifacts.type.ArtifactTypeRegistry;
 import org.gradle.api.internal.component.ArtifactType;
@@ -50,6 +52,7 @@ public class ComponentResolversChain {
     private final ComponentMetaDataResolverChain componentMetaDataResolver;
     private final ArtifactResolver artifactResolverChain;
     private final DefaultArtifactSelector artifactSelector;
+    private final ModuleVersionListerChain moduleVersionLister;
 
     public ComponentResolversChain(List<ComponentResolvers> providers, ArtifactTypeRegistry artifactTypeRegistry, CalculatedValueContainerFactory calculatedValueContainerFactory) {
         List<DependencyToComponentIdResolver> depToComponentIdResolvers = new ArrayList<>(providers.size());
@@ -57,8 +60,12 @@ public ComponentResolversChain(List<ComponentResolvers> providers, ArtifactTypeR
         componentMetaDataResolvers.add(VirtualComponentMetadataResolver.INSTANCE);
         List<ArtifactResolver> artifactResolvers = new ArrayList<>(providers.size());
         List<OriginArtifactSelector> artifactSelectors = new ArrayList<>(providers.size());
+        List<ModuleVersionLister> moduleVersionListers = new ArrayList<>(providers.size());
         for (ComponentResolvers provider : providers) {
             depToComponentIdResolvers.add(provider.getComponentIdResolver());
+            if (provider.getComponentIdResolver() instanceof ModuleVersionLister) {
+                moduleVersionListers.add((ModuleVersionLister) provider.getComponentIdResolver());
+            }
             componentMetaDataResolvers.add(provider.getComponentResolver());
             artifactSelectors.add(provider.getArtifactSelector());
             artifactResolvers.add(provider.getArtifactResolver());
@@ -67,6 +74,7 @@ public ComponentResolversChain(List<ComponentResolvers> providers, ArtifactTypeR
         componentMetaDataResolver = new ComponentMetaDataResolverChain(componentMetaDataResolvers);
         artifactResolverChain = new ErrorHandlingArtifactResolver(new ArtifactResolverChain(artifactResolvers));
         artifactSelector = new DefaultArtifactSelector(artifactSelectors, artifactResolverChain, artifactTypeRegistry, calculatedValueContainerFactory);
+        moduleVersionLister = new ModuleVersionListerChain(moduleVersionListers);
     }
 
     public ArtifactSelector getArtifactSelector() {
@@ -85,6 +93,10 @@ public ArtifactResolver getArtifactResolver() {
         return artifactResolverChain;
     }
 
+    public ModuleVersionLister getModuleVersionLister() {
+        return moduleVersionLister;
+    }
+
     private static class ComponentMetaDataResolverChain implements ComponentMetaDataResolver {
         private final List<ComponentMetaDataResolver> resolvers;
 
@@ -161,4 +173,19 @@ public void resolve(DependencyMetadata dependency, VersionSelector acceptor, @Nu
         }
     }
 
+    private static class ModuleVersionListerChain implements ModuleVersionLister {
+        private final List<ModuleVersionLister> listers;
+
+        public ModuleVersionListerChain(List<ModuleVersionLister> listers) {
+            this.listers = listers;
+        }
+
+        @Override
+        public void listVersions(ModuleComponentSelector selector) {
+            for (ModuleVersionLister lister : listers) {
+                lister.listVersions(selector);
+            }
+        }
+    }
+
 }
@@ -60,6 +60,7 @@
 import org.gradle.api.specs.Spec;
 import org.gradle.internal.Actions;
 import org.gradle.internal.component.model.DependencyMetadata;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.instantiation.InstantiatorFactory;
 import org.gradle.internal.model.CalculatedValueContainerFactory;
 import org.gradle.internal.operations.BuildOperationExecutor;
@@ -93,6 +94,9 @@ public class DefaultArtifactDependencyResolver implements ArtifactDependencyReso
     private final Instantiator instantiator;
     private final ComponentSelectionDescriptorFactory componentSelectionDescriptorFactory;
     private final CalculatedValueContainerFactory calculatedValueContainerFactory;
+    private final ExecutorFactory executorFactory;
+    private final int metadataPrefetchParallelism;
+    private final int maxMetadataPrefetches;
 
     public DefaultArtifactDependencyResolver(BuildOperationExecutor buildOperationExecutor,
                                              List<ResolverProviderFactory> resolverFactories,
@@ -108,7 +112,8 @@ public DefaultArtifactDependencyResolver(BuildOperationExecutor buildOperationEx
                                              ComponentMetadataSupplierRuleExecutor componentMetadataSupplierRuleExecutor,
                                              InstantiatorFactory instantiatorFactory,
                                              ComponentSelectionDescriptorFactory componentSelectionDescriptorFactory,
-                                             CalculatedValueContainerFactory calculatedValueContainerFactory) {
+                                             CalculatedValueContainerFactory calculatedValueContainerFactory,
+                                             ExecutorFactory executorFactory) {
         this.resolverFactories = resolverFactories;
         this.projectDependencyResolver = projectDependencyResolver;
         this.ivyFactory = ivyFactory;
@@ -124,6 +129,9 @@ public DefaultArtifactDependencyResolver(BuildOperationExecutor buildOperationEx
         this.instantiator = instantiatorFactory.decorateScheme().instantiator();
         this.componentSelectionDescriptorFactory = componentSelectionDescriptorFactory;
         this.calculatedValueContainerFactory = calculatedValueContainerFactory;
+        this.executorFactory = executorFactory;
+        this.metadataPrefetchParallelism = Integer.getInteger(PrefetchingComponentMetaDataResolver.PARALLELISM_PROPERTY, 0);
+        this.maxMetadataPrefetches = Integer.getInteger(PrefetchingComponentMetaDataResolver.MAX_PREFETCHES_PROPERTY, PrefetchingComponentMetaDataResolver.DEFAULT_MAX_PREFETCHES);
     }
 
     @Override
@@ -133,12 +141,26 @@ public void resolve(ResolveContext resolveContext, List<? extends ResolutionAwar
         validateResolutionStrategy(resolveContext.getResolutionStrategy());
 
         ComponentResolversChain resolvers = createResolvers(resolveContext, repositories, metadataHandler, artifactTypeRegistry, consumerSchema);
-        DependencyGraphBuilder builder = createDependencyGraphBuilder(resolvers, resolveContext.getResolutionStrategy(), metadataHandler, edgeFilter, consumerSchema, moduleExclusions, buildOperationExecutor);
+        DependencyToComponentIdResolver componentIdResolver = resolvers.getComponentIdResolver();
+        ComponentMetaDataResolver componentMetaDataResolver = new ClientModuleResolver(resolvers.getComponentResolver(), dependencyDescriptorFactory);
+        PrefetchingComponentMetaDataResolver prefetchingResolver = null;
+        if (metadataPrefetchParallelism > 0) {
+            prefetchingResolver = new PrefetchingComponentMetaDataResolver(componentMetaDataResolver, resolvers.getModuleVersionLister(), versionSelectorScheme, buildOperationExecutor, executorFactory.create("Metadata prefetch", metadataPrefetchParallelism), maxMetadataPrefetches);
+            componentIdResolver = prefetchingResolver.awaitingVersionListings(componentIdResolver);
+            componentMetaDataResolver = prefetchingResolver;
+        }
+        try {
+            DependencyGraphBuilder builder = createDependencyGraphBuilder(componentIdResolver, componentMetaDataResolver, resolveContext.getResolutionStrategy(), metadataHandler, edgeFilter, consumerSchema, moduleExclusions, buildOperationExecutor);
 
-        DependencyGraphVisitor artifactsGraphVisitor = new ResolvedArtifactsGraphVisitor(artifactsVisitor, resolvers.getArtifactSelector());
+            DependencyGraphVisitor artifactsGraphVisitor = new ResolvedArtifactsGraphVisitor(artifactsVisitor, resolvers.getArtifactSelector());
 
-        // Resolve the dependency graph
-        builder.resolve(resolveContext, new CompositeDependencyGraphVisitor(graphVisitor, artifactsGraphVisitor), includeSyntheticDependencies);
+            // Resolve the dependency graph
+            builder.resolve(resolveContext, new CompositeDependencyGraphVisitor(graphVisitor, artifactsGraphVisitor), includeSyntheticDependencies);
+        } finally {
+            if (prefetchingResolver != null) {
+                prefetchingResolver.stop();
+            }
+        }
     }
 
     private static void validateResolutionStrategy(ResolutionStrategyInternal resolutionStrategy) {
@@ -156,7 +178,8 @@ private static void failOnDependencyLockingConflictingWith(String conflicting) {
 
     }
 
-    private DependencyGraphBuilder createDependencyGraphBuilder(ComponentResolversChain componentSource,
+    private DependencyGraphBuilder createDependencyGraphBuilder(DependencyToComponentIdResolver componentIdResolver,
+                                                                ComponentMetaDataResolver componentMetaDataResolver,
                                                                 ResolutionStrategyInternal resolutionStrategy,
                                                                 GlobalDependencyResolutionRules globalRules,
                                                                 Spec<? super DependencyMetadata> edgeFilter,
@@ -164,9 +187,6 @@ private DependencyGraphBuilder createDependencyGraphBuilder(ComponentResolversCh
                                                                 ModuleExclusions moduleExclusions,
                                                                 BuildOperationExecutor buildOperationExecutor) {
 
-        DependencyToComponentIdResolver componentIdResolver = componentSource.getComponentIdResolver();
-        ComponentMetaDataResolver componentMetaDataResolver = new ClientModuleResolver(componentSource.getComponentResolver(), dependencyDescriptorFactory);
-
         ResolveContextToComponentResolver requestResolver = createResolveContextConverter();
         ModuleConflictHandler conflictHandler = createModuleConflictHandler(resolutionStrategy, globalRules);
         DefaultCapabilitiesConflictHandler capabilitiesConflictHandler = createCapabilitiesConflictHandler(resolutionStrategy.getCapabilitiesResolutionRules());
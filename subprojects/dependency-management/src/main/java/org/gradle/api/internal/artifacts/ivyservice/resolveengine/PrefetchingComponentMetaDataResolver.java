@@ -0,0 +1,315 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine;
+
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.artifacts.VersionConstraint;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleVersionLister;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.internal.component.external.descriptor.MavenScope;
+import org.gradle.internal.component.external.model.ComponentVariant;
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
+import org.gradle.internal.component.external.model.DefaultModuleComponentSelector;
+import org.gradle.internal.component.external.model.ExternalDependencyDescriptor;
+import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata;
+import org.gradle.internal.component.external.model.ivy.IvyModuleResolveMetadata;
+import org.gradle.internal.component.external.model.maven.MavenDependencyDescriptor;
+import org.gradle.internal.component.external.model.maven.MavenModuleResolveMetadata;
+import org.gradle.internal.component.model.ComponentOverrideMetadata;
+import org.gradle.internal.component.model.ComponentResolveMetadata;
+import org.gradle.internal.component.model.DefaultComponentOverrideMetadata;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationRef;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.resolve.resolver.ComponentMetaDataResolver;
+import org.gradle.internal.resolve.resolver.DependencyToComponentIdResolver;
+import org.gradle.internal.resolve.result.BuildableComponentResolveResult;
+import org.gradle.internal.resolve.result.DefaultBuildableComponentResolveResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link ComponentMetaDataResolver} that speculatively fetches the metadata of the dependencies of each component it resolves,
+ * so that the metadata of a deep graph is downloaded while the graph is still being traversed rather than level by level.
+ *
+ * <p>The metadata of dependencies on a fixed version of an external module is prefetched. Prefetching resolves the metadata through the same
+ * resolver as the graph traversal, which stores it in the metadata caches. Parent POMs and imported BOMs are fetched while parsing
+ * the POM that references them, so they are prefetched along with it.</p>
+ *
+ * <p>For dependencies on a dynamic version, the version listings of the module that are missing or expired in the cache are refreshed instead,
+ * so that the listings of all the dynamic dependencies found so far are fetched concurrently. The version is still selected by the graph traversal.</p>
+ *
+ * <p>Prefetches run in a fixed size pool and at most a fixed number of components and modules are prefetched per resolution. Resolving a component,
+ * or selecting a version of a module, whose prefetch is running waits for the prefetch instead of fetching it again. Doing so when the prefetch
+ * has not started yet cancels the prefetch.</p>
+ */
+public class PrefetchingComponentMetaDataResolver implements ComponentMetaDataResolver, Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrefetchingComponentMetaDataResolver.class);
+
+    /**
+     * The number of threads used to prefetch metadata. Prefetching is disabled when not set.
+     */
+    public static final String PARALLELISM_PROPERTY = "org.gradle.internal.resolution.metadata-prefetch.parallelism";
+    /**
+     * The maximum number of components to prefetch during a single resolution.
+     */
+    public static final String MAX_PREFETCHES_PROPERTY = "org.gradle.internal.resolution.metadata-prefetch.max-components";
+    public static final int DEFAULT_MAX_PREFETCHES = 2000;
+
+    private static final Future<?> RESOLVED = CompletableFuture.completedFuture(null);
+
+    private final ComponentMetaDataResolver delegate;
+    private final ModuleVersionLister moduleVersionLister;
+    private final VersionSelectorScheme versionSelectorScheme;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final ManagedExecutor executor;
+    private final int maxPrefetches;
+    @Nullable
+    private final BuildOperationRef parentOperation;
+    private final ConcurrentMap<ComponentIdentifier, Future<?>> components = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ModuleIdentifier, Future<?>> versionListings = new ConcurrentHashMap<>();
+    private final AtomicInteger prefetches = new AtomicInteger();
+    private volatile boolean stopped;
+
+    public PrefetchingComponentMetaDataResolver(ComponentMetaDataResolver delegate, ModuleVersionLister moduleVersionLister, VersionSelectorScheme versionSelectorScheme, BuildOperationExecutor buildOperationExecutor, ManagedExecutor executor, int maxPrefetches) {
+        this.delegate = delegate;
+        this.moduleVersionLister = moduleVersionLister;
+        this.versionSelectorScheme = versionSelectorScheme;
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.executor = executor;
+        this.maxPrefetches = maxPrefetches;
+        this.parentOperation = currentOperation(buildOperationExecutor);
+    }
+
+    @Nullable
+    private static BuildOperationRef currentOperation(BuildOperationExecutor buildOperationExecutor) {
+        try {
+            return buildOperationExecutor.getCurrentOperation();
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void resolve(ComponentIdentifier identifier, ComponentOverrideMetadata componentOverrideMetadata, BuildableComponentResolveResult result) {
+        Future<?> prefetch = components.putIfAbsent(identifier, RESOLVED);
+        if (prefetch != null && !prefetch.cancel(false)) {
+            awaitPrefetch(prefetch);
+        }
+        delegate.resolve(identifier, componentOverrideMetadata, result);
+        if (result.hasResult() && result.getFailure() == null) {
+            prefetchDependenciesOf(result.getMetadata());
+        }
+    }
+
+    @Override
+    public boolean isFetchingMetadataCheap(ComponentIdentifier identifier) {
+        return delegate.isFetchingMetadataCheap(identifier);
+    }
+
+    /**
+     * Decorates the given resolver to wait for the prefetch of the version listings of a module before selecting a version for a dynamic selector of the module.
+     */
+    public DependencyToComponentIdResolver awaitingVersionListings(DependencyToComponentIdResolver componentIdResolver) {
+        return (dependency, acceptor, rejector, result) -> {
+            ComponentSelector selector = dependency.getSelector();
+            if (acceptor.isDynamic() && selector instanceof ModuleComponentSelector) {
+                Future<?> prefetch = versionListings.putIfAbsent(((ModuleComponentSelector) selector).getModuleIdentifier(), RESOLVED);
+                if (prefetch != null && !prefetch.cancel(false)) {
+                    awaitPrefetch(prefetch);
+                }
+            }
+            componentIdResolver.resolve(dependency, acceptor, rejector, result);
+        };
+    }
+
+    /**
+     * Cancels the prefetches that have not started yet and waits for the running ones to complete.
+     */
+    @Override
+    public void stop() {
+        stopped = true;
+        for (Future<?> prefetch : components.values()) {
+            prefetch.cancel(false);
+        }
+        for (Future<?> prefetch : versionListings.values()) {
+            prefetch.cancel(false);
+        }
+        executor.stop();
+    }
+
+    int getPrefetchCount() {
+        return prefetches.get();
+    }
+
+    private static void awaitPrefetch(Future<?> prefetch) {
+        try {
+            prefetch.get();
+        } catch (CancellationException | ExecutionException e) {
+            // Failures are reported when the component is resolved
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void prefetchDependenciesOf(ComponentResolveMetadata metadata) {
+        if (stopped || !(metadata instanceof ModuleComponentResolveMetadata)) {
+            return;
+        }
+        ModuleComponentResolveMetadata moduleMetadata = (ModuleComponentResolveMetadata) metadata;
+        if (moduleMetadata instanceof MavenModuleResolveMetadata) {
+            for (MavenDependencyDescriptor dependency : ((MavenModuleResolveMetadata) moduleMetadata).getDependencies()) {
+                if (dependency.getScope() == MavenScope.Compile || dependency.getScope() == MavenScope.Runtime) {
+                    maybePrefetch(dependency);
+                }
+            }
+        } else if (moduleMetadata instanceof IvyModuleResolveMetadata) {
+            for (ExternalDependencyDescriptor dependency : ((IvyModuleResolveMetadata) moduleMetadata).getDependencies()) {
+                maybePrefetch(dependency);
+            }
+        }
+        for (ComponentVariant variant : moduleMetadata.getVariants()) {
+            for (ComponentVariant.Dependency dependency : variant.getDependencies()) {
+                maybePrefetch(dependency.getGroup(), dependency.getModule(), dependency.getVersionConstraint());
+            }
+        }
+    }
+
+    private void maybePrefetch(ExternalDependencyDescriptor dependency) {
+        if (dependency.isOptional() || dependency.isConstraint()) {
+            return;
+        }
+        ModuleComponentSelector selector = dependency.getSelector();
+        maybePrefetch(selector.getGroup(), selector.getModule(), selector.getVersionConstraint());
+    }
+
+    private void maybePrefetch(String group, String module, VersionConstraint versionConstraint) {
+        String version = versionOf(versionConstraint);
+        if (version == null || stopped || prefetches.get() >= maxPrefetches) {
+            return;
+        }
+        ModuleIdentifier moduleId = DefaultModuleIdentifier.newId(group, module);
+        if (versionSelectorScheme.parseSelector(version).isDynamic()) {
+            ModuleComponentSelector selector = DefaultModuleComponentSelector.newSelector(moduleId, versionConstraint);
+            schedule(versionListings, moduleId, () -> listVersions(selector));
+        } else {
+            ComponentIdentifier id = DefaultModuleComponentIdentifier.newId(moduleId, version);
+            schedule(components, id, () -> prefetch(id));
+        }
+    }
+
+    private <K> void schedule(ConcurrentMap<K, Future<?>> prefetchesByKey, K key, Runnable action) {
+        if (prefetchesByKey.containsKey(key)) {
+            return;
+        }
+        FutureTask<Void> prefetch = new FutureTask<>(action, null);
+        if (prefetchesByKey.putIfAbsent(key, prefetch) != null) {
+            return;
+        }
+        if (prefetches.incrementAndGet() > maxPrefetches) {
+            prefetch.cancel(false);
+            return;
+        }
+        try {
+            executor.execute(prefetch);
+        } catch (RejectedExecutionException e) {
+            prefetch.cancel(false);
+        }
+    }
+
+    @Nullable
+    private static String versionOf(VersionConstraint versionConstraint) {
+        String version = versionConstraint.getStrictVersion();
+        if (version.isEmpty()) {
+            version = versionConstraint.getRequiredVersion();
+        }
+        if (version.isEmpty()) {
+            version = versionConstraint.getPreferredVersion();
+        }
+        return version.isEmpty() ? null : version;
+    }
+
+    private void listVersions(ModuleComponentSelector selector) {
+        if (stopped) {
+            return;
+        }
+        buildOperationExecutor.run(new RunnableBuildOperation() {
+            @Override
+            public void run(BuildOperationContext context) {
+                try {
+                    moduleVersionLister.listVersions(selector);
+                } catch (Exception e) {
+                    // The failure is reported when a version of the module is selected, if it is part of the graph
+                    LOGGER.debug("Could not prefetch versions of {}", selector.getModuleIdentifier(), e);
+                }
+            }
+
+            @Override
+            public BuildOperationDescriptor.Builder description() {
+                return BuildOperationDescriptor.displayName("Prefetch versions of " + selector.getModuleIdentifier())
+                    .parent(parentOperation);
+            }
+        });
+    }
+
+    private void prefetch(ComponentIdentifier id) {
+        if (stopped) {
+            return;
+        }
+        buildOperationExecutor.run(new RunnableBuildOperation() {
+            @Override
+            public void run(BuildOperationContext context) {
+                DefaultBuildableComponentResolveResult result = new DefaultBuildableComponentResolveResult();
+                try {
+                    delegate.resolve(id, DefaultComponentOverrideMetadata.EMPTY, result);
+                } catch (Exception e) {
+                    // The failure is reported when the component is resolved, if it is part of the graph
+                    LOGGER.debug("Could not prefetch metadata for {}", id, e);
+                    return;
+                }
+                if (result.hasResult() && result.getFailure() == null) {
+                    prefetchDependenciesOf(result.getMetadata());
+                }
+            }
+
+            @Override
+            public BuildOperationDescriptor.Builder description() {
+                return BuildOperationDescriptor.displayName("Prefetch metadata of " + id.getDisplayName())
+                    .parent(parentOperation);
+            }
+        });
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes;
+
+import com.google.common.collect.Sets;
+import org.gradle.internal.Cast;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable set of values interned in a {@link DenseIdentifierTable}, backed by a bitset.
+ *
+ * Unions, intersections and comparisons of sets from the same table are performed on the bitsets,
+ * without looking at the values themselves.
+ */
+public final class DenseIdentifierSet<T> extends AbstractSet<T> {
+    private final DenseIdentifierTable<T> table;
+    private final BitSet bits;
+    private final int size;
+    private final int hashCode;
+
+    private DenseIdentifierSet(DenseIdentifierTable<T> table, BitSet bits) {
+        this.table = table;
+        this.bits = bits;
+        this.size = bits.cardinality();
+        this.hashCode = computeHashCode();
+    }
+
+    public static <T> DenseIdentifierSet<T> of(DenseIdentifierTable<T> table, Collection<? extends T> values) {
+        if (values instanceof DenseIdentifierSet && ((DenseIdentifierSet<?>) values).table == table) {
+            return Cast.uncheckedCast(values);
+        }
+        BitSet bits = new BitSet();
+        for (T value : values) {
+            bits.set(table.idOf(value));
+        }
+        return new DenseIdentifierSet<>(table, bits);
+    }
+
+    /**
+     * Computes the union of the given sets.
+     */
+    public static <T> Set<T> union(Collection<? extends Set<T>> sets) {
+        DenseIdentifierTable<T> table = commonTable(sets);
+        if (table == null) {
+            Set<T> result = Sets.newHashSet();
+            for (Set<T> set : sets) {
+                result.addAll(set);
+            }
+            return result;
+        }
+        BitSet bits = new BitSet();
+        for (Set<T> set : sets) {
+            bits.or(((DenseIdentifierSet<T>) set).bits);
+        }
+        return new DenseIdentifierSet<>(table, bits);
+    }
+
+    /**
+     * Computes the intersection of the given sets.
+     */
+    public static <T> Set<T> intersection(Set<T> left, Set<T> right) {
+        if (left instanceof DenseIdentifierSet && right instanceof DenseIdentifierSet && ((DenseIdentifierSet<T>) left).table == ((DenseIdentifierSet<T>) right).table) {
+            BitSet bits = (BitSet) ((DenseIdentifierSet<T>) left).bits.clone();
+            bits.and(((DenseIdentifierSet<T>) right).bits);
+            return new DenseIdentifierSet<>(((DenseIdentifierSet<T>) left).table, bits);
+        }
+        Set<T> result = Sets.newHashSet(left);
+        result.retainAll(right);
+        return result;
+    }
+
+    private static <T> DenseIdentifierTable<T> commonTable(Collection<? extends Set<T>> sets) {
+        DenseIdentifierTable<T> table = null;
+        for (Set<T> set : sets) {
+            if (!(set instanceof DenseIdentifierSet)) {
+                return null;
+            }
+            DenseIdentifierTable<T> setTable = ((DenseIdentifierSet<T>) set).table;
+            if (table == null) {
+                table = setTable;
+            } else if (table != setTable) {
+                return null;
+            }
+        }
+        return table;
+    }
+
+    private int computeHashCode() {
+        int hash = 0;
+        for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+            hash += table.valueOf(id).hashCode();
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        int id = table.find(o);
+        return id >= 0 && bits.get(id);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int next = bits.nextSetBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public T next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                T value = table.valueOf(next);
+                next = bits.nextSetBit(next + 1);
+                return value;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof DenseIdentifierSet && ((DenseIdentifierSet<?>) o).table == table) {
+            return bits.equals(((DenseIdentifierSet<?>) o).bits);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
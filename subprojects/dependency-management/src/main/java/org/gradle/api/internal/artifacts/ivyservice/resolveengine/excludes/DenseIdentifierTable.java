@@ -0,0 +1,73 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes;
+
+import org.gradle.internal.Cast;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Assigns dense integer ids to values, in the order they are first seen, so that sets of values can be represented as bitsets.
+ *
+ * Ids are never reclaimed, so a table should only be used for values from a bounded domain, like the module identifiers and groups
+ * seen by dependency resolution in a build.
+ */
+public final class DenseIdentifierTable<T> {
+    private final ConcurrentMap<T, Integer> ids = new ConcurrentHashMap<>();
+    private volatile Object[] values = new Object[64];
+    private int size;
+
+    /**
+     * Returns the id of the given value, assigning a new one if the value was not seen before.
+     */
+    public int idOf(T value) {
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(value);
+            if (id == null) {
+                id = size;
+                Object[] current = values;
+                if (id == current.length) {
+                    current = Arrays.copyOf(current, current.length * 2);
+                }
+                current[id] = value;
+                values = current;
+                size++;
+                // Only publish the id once the value can be read back
+                ids.put(value, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Returns the id of the given value, or -1 if the value was never seen.
+     */
+    public int find(Object value) {
+        Integer id = ids.get(value);
+        return id == null ? -1 : id;
+    }
+
+    public T valueOf(int id) {
+        return Cast.uncheckedCast(values[id]);
+    }
+}
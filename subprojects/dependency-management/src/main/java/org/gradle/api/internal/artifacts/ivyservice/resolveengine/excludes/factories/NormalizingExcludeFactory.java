@@ -18,6 +18,7 @@
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.DenseIdentifierSet;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.CompositeExclude;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.ExcludeAllOf;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.ExcludeAnyOf;
@@ -182,13 +183,13 @@ private ExcludeSpec doUnion(Set<ExcludeSpec> specs) {
             }
         }
         if (moduleIdSetsExcludes.size() > 1) {
-            moduleIdSetsExcludes = ImmutableList.of(delegate.moduleIdSet(moduleIdSetsExcludes.stream().flatMap(e -> e.getModuleIds().stream()).collect(toSet())));
+            moduleIdSetsExcludes = ImmutableList.of(delegate.moduleIdSet(DenseIdentifierSet.union(moduleIdSetsExcludes.stream().map(ModuleIdSetExclude::getModuleIds).collect(Collectors.toList()))));
         }
         if (groupSetExcludes.size() > 1) {
-            groupSetExcludes = ImmutableList.of(delegate.groupSet(groupSetExcludes.stream().flatMap(e -> e.getGroups().stream()).collect(toSet())));
+            groupSetExcludes = ImmutableList.of(delegate.groupSet(DenseIdentifierSet.union(groupSetExcludes.stream().map(GroupSetExclude::getGroups).collect(Collectors.toList()))));
         }
         if (moduleSetExcludes.size() > 1) {
-            moduleSetExcludes = ImmutableList.of(delegate.moduleSet(moduleSetExcludes.stream().flatMap(e -> e.getModules().stream()).collect(toSet())));
+            moduleSetExcludes = ImmutableList.of(delegate.moduleSet(DenseIdentifierSet.union(moduleSetExcludes.stream().map(ModuleSetExclude::getModules).collect(Collectors.toList()))));
         }
         ImmutableSet.Builder<ExcludeSpec> builder = ImmutableSet.builderWithExpectedSize(
             moduleIdExcludes.size() + groupExcludes.size() + moduleExcludes.size() +
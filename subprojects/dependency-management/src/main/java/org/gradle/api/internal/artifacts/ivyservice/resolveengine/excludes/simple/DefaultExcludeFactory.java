@@ -17,6 +17,8 @@
 
 import com.google.common.collect.ImmutableSet;
 import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.DenseIdentifierSet;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.DenseIdentifierTable;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.factories.ExcludeFactory;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.ExcludeEverything;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.ExcludeNothing;
@@ -32,6 +34,11 @@
 import java.util.Set;
 
 public class DefaultExcludeFactory implements ExcludeFactory {
+    // Sets of module ids, groups and modules are interned as bitsets, which makes their union, intersection and comparison cheap
+    private final DenseIdentifierTable<ModuleIdentifier> moduleIds = new DenseIdentifierTable<>();
+    private final DenseIdentifierTable<String> groups = new DenseIdentifierTable<>();
+    private final DenseIdentifierTable<String> moduleNames = new DenseIdentifierTable<>();
+
     @Override
     public ExcludeNothing nothing() {
         return DefaultExcludeNothing.get();
@@ -84,16 +91,16 @@ public ExcludeSpec ivyPatternExclude(ModuleIdentifier moduleId, IvyArtifactName
 
     @Override
     public ModuleIdSetExclude moduleIdSet(Set<ModuleIdentifier> modules) {
-        return DefaultModuleIdSetExclude.of(modules);
+        return DefaultModuleIdSetExclude.of(DenseIdentifierSet.of(moduleIds, modules));
     }
 
     @Override
     public GroupSetExclude groupSet(Set<String> groups) {
-        return new DefaultGroupSetExclude(groups);
+        return new DefaultGroupSetExclude(DenseIdentifierSet.of(this.groups, groups));
     }
 
     @Override
     public ModuleSetExclude moduleSet(Set<String> modules) {
-        return new DefaultModuleSetExclude(modules);
+        return new DefaultModuleSetExclude(DenseIdentifierSet.of(moduleNames, modules));
     }
 }
@@ -16,6 +16,7 @@
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.simple;
 
 import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.DenseIdentifierSet;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.GroupSetExclude;
 import org.gradle.internal.component.model.IvyArtifactName;
 
@@ -25,7 +26,7 @@ final class DefaultGroupSetExclude implements GroupSetExclude {
     private final Set<String> groups;
     private final int hashCode;
 
-    DefaultGroupSetExclude(Set<String> groups) {
+    DefaultGroupSetExclude(DenseIdentifierSet<String> groups) {
         this.groups = groups;
         this.hashCode = groups.hashCode();
     }
@@ -16,6 +16,7 @@
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.simple;
 
 import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.DenseIdentifierSet;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.specs.ModuleSetExclude;
 import org.gradle.internal.component.model.IvyArtifactName;
 
@@ -25,7 +26,7 @@ final class DefaultModuleSetExclude implements ModuleSetExclude {
     private final Set<String> modules;
     private final int hashCode;
 
-    DefaultModuleSetExclude(Set<String> modules) {
+    DefaultModuleSetExclude(DenseIdentifierSet<String> modules) {
         this.modules = modules;
         this.hashCode = modules.hashCode();
     }
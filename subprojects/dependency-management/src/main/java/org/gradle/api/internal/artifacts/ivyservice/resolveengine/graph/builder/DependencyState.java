@@ -29,6 +29,7 @@
 import org.gradle.internal.component.model.LocalOriginDependencyMetadata;
 import org.gradle.internal.resolve.ModuleVersionResolveException;
 
+import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -48,6 +49,7 @@ class DependencyState {
     private ModuleIdentifier moduleIdentifier;
     public ModuleVersionResolveException failure;
     private boolean reasonsAlreadyAdded;
+    private EdgeState outgoingEdge;
 
     DependencyState(DependencyMetadata dependency, ComponentSelectorConverter componentSelectorConverter) {
         this(dependency, dependency.getSelector(), Collections.emptyList(), componentSelectorConverter);
@@ -117,6 +119,19 @@ private static String nameOf(ComponentSelector target) {
     }
 
 
+    /**
+     * Returns the edge created for this dependency, if any. Dependency states are owned by the node that declares the dependency,
+     * so this edge is reused each time the node is traversed, instead of looking it up in a map of the node.
+     */
+    @Nullable
+    EdgeState getOutgoingEdge() {
+        return outgoingEdge;
+    }
+
+    void setOutgoingEdge(EdgeState outgoingEdge) {
+        this.outgoingEdge = outgoingEdge;
+    }
+
     public boolean isForced() {
         if (!ruleDescriptors.isEmpty()) {
             for (ComponentSelectionDescriptorInternal ruleDescriptor : ruleDescriptors) {
@@ -106,8 +106,8 @@ public class NodeState implements DependencyGraphNode {
     private Multimap<ModuleIdentifier, DependencyState> potentiallyActivatedConstraints;
 
     // caches
-    private final Map<DependencyMetadata, DependencyState> dependencyStateCache = Maps.newHashMap();
-    private final Map<DependencyState, EdgeState> edgesCache = Maps.newHashMap();
+    // Only kept when the dependencies of the node may change, otherwise only used to deduplicate the dependencies once
+    private Map<DependencyMetadata, DependencyState> dependencyStateCache;
 
     // Caches the list of dependency states for dependencies
     private List<DependencyState> cachedDependencyStates;
@@ -523,10 +523,17 @@ private List<DependencyState> cacheDependencyStates(List<? extends DependencyMet
         if (dependencies.isEmpty()) {
             return Collections.emptyList();
         }
+        if (dependencyStateCache == null) {
+            dependencyStateCache = Maps.newHashMapWithExpectedSize(dependencies.size());
+        }
         List<DependencyState> tmp = Lists.newArrayListWithCapacity(dependencies.size());
         for (DependencyMetadata dependency : dependencies) {
             tmp.add(cachedDependencyStateFor(dependency));
         }
+        if (!dependenciesMayChange) {
+            // The dependency states are cached for the lifetime of the node
+            dependencyStateCache = null;
+        }
         return tmp;
     }
 
@@ -535,7 +542,11 @@ private DependencyState cachedDependencyStateFor(DependencyMetadata md) {
     }
 
     private void createAndLinkEdgeState(DependencyState dependencyState, Collection<EdgeState> discoveredEdges, ExcludeSpec resolutionFilter, boolean deferSelection) {
-        EdgeState dependencyEdge = edgesCache.computeIfAbsent(dependencyState, ds -> new EdgeState(this, ds, resolutionFilter, resolveState));
+        EdgeState dependencyEdge = dependencyState.getOutgoingEdge();
+        if (dependencyEdge == null) {
+            dependencyEdge = new EdgeState(this, dependencyState, resolutionFilter, resolveState);
+            dependencyState.setOutgoingEdge(dependencyEdge);
+        }
         dependencyEdge.computeSelector(); // the selector changes, if the 'versionProvidedByAncestors' state changes
         outgoingEdges.add(dependencyEdge);
         dependencyEdge.markUsed();
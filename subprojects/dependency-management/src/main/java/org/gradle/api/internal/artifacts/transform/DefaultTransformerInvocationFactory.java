@@ -187,6 +187,10 @@ private <T> T fireTransformListeners(Transformer transformer, TransformationSubj
         }
     }
 
+    static File getOutputDir(File workspace) {
+        return new File(workspace, "transformed");
+    }
+
     private static class ImmutableTransformerExecution extends AbstractTransformerExecution {
         private final FileSystemAccess fileSystemAccess;
 
@@ -329,10 +333,6 @@ public InputFingerprinter getInputFingerprinter() {
             return inputFingerprinter;
         }
 
-        private static File getOutputDir(File workspace) {
-            return new File(workspace, "transformed");
-        }
-
         private static File getResultsFile(File workspace) {
             return new File(workspace, "results.bin");
         }
@@ -16,30 +16,59 @@
 
 package org.gradle.api.internal.artifacts.transform;
 
+import org.gradle.cache.Cache;
 import org.gradle.cache.CacheBuilder;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
 import org.gradle.cache.internal.CrossBuildInMemoryCache;
+import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
 import org.gradle.internal.Try;
+import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.execution.UnitOfWork;
 import org.gradle.internal.execution.history.ExecutionHistoryStore;
 import org.gradle.internal.execution.workspace.impl.DefaultImmutableWorkspaceProvider;
 import org.gradle.internal.file.FileAccessTimeJournal;
+import org.gradle.internal.file.impl.SingleDepthFileAccessTracker;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.ListSerializer;
 
 import javax.annotation.concurrent.NotThreadSafe;
 import java.io.Closeable;
+import java.util.List;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
 @NotThreadSafe
 public class ImmutableTransformationWorkspaceServices implements TransformationWorkspaceServices, Closeable {
-    private final CrossBuildInMemoryCache<UnitOfWork.Identity, Try<TransformationResult>> identityCache;
     private final DefaultImmutableWorkspaceProvider workspaceProvider;
+    private final PersistentCache indexCache;
+    private final IndexedTransformationIdentityCache identityCache;
 
     public ImmutableTransformationWorkspaceServices(
         CacheBuilder cacheBuilder,
+        CacheBuilder indexCacheBuilder,
         FileAccessTimeJournal fileAccessTimeJournal,
         ExecutionHistoryStore executionHistoryStore,
-        CrossBuildInMemoryCache<UnitOfWork.Identity, Try<TransformationResult>> identityCache
+        InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory,
+        CrossBuildInMemoryCache<UnitOfWork.Identity, Try<TransformationResult>> inMemoryIdentityCache
     ) {
-        this.workspaceProvider = DefaultImmutableWorkspaceProvider.withExternalHistory(cacheBuilder, fileAccessTimeJournal, executionHistoryStore);
-        this.identityCache = identityCache;
+        this.indexCache = indexCacheBuilder
+            .withLockOptions(mode(FileLockManager.LockMode.OnDemand)) // Lock on demand
+            .open();
+        PersistentIndexedCache<String, List<String>> index = indexCache.createCache(
+            PersistentIndexedCacheParameters.of("transformationResults", String.class, new ListSerializer<>(BaseSerializerFactory.STRING_SERIALIZER))
+                .withCacheDecorator(inMemoryCacheDecoratorFactory.decorator(10000, false))
+        );
+        // Drop the indexed results of the workspaces removed by the cleanup of the transforms cache
+        this.workspaceProvider = DefaultImmutableWorkspaceProvider.withExternalHistory(cacheBuilder, fileAccessTimeJournal, executionHistoryStore, index::remove);
+        this.identityCache = new IndexedTransformationIdentityCache(
+            inMemoryIdentityCache,
+            index,
+            workspaceProvider.getBaseDirectory(),
+            new SingleDepthFileAccessTracker(fileAccessTimeJournal, workspaceProvider.getBaseDirectory(), 1)
+        );
     }
 
     @Override
@@ -48,12 +77,12 @@ public DefaultImmutableWorkspaceProvider getWorkspaceProvider() {
     }
 
     @Override
-    public CrossBuildInMemoryCache<UnitOfWork.Identity, Try<TransformationResult>> getIdentityCache() {
+    public Cache<UnitOfWork.Identity, Try<TransformationResult>> getIdentityCache() {
         return identityCache;
     }
 
     @Override
     public void close() {
-        workspaceProvider.close();
+        CompositeStoppable.stoppable(workspaceProvider, indexCache).stop();
     }
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.transform;
+
+import org.gradle.cache.Cache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.internal.CrossBuildInMemoryCache;
+import org.gradle.internal.Try;
+import org.gradle.internal.execution.UnitOfWork;
+import org.gradle.internal.file.FileAccessTracker;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Caches the results of immutable transforms by identity, in memory and in a persistent index.
+ *
+ * <p>The index answers the cache hits of a new daemon without locking the workspace, loading the execution history of the workspace or reading its results file.
+ * Only the existence of the workspace and of the outputs it produced is checked, as they may have been removed since the result was indexed, for example by the cleanup of the transforms cache.
+ * Entries with missing files are removed from the index, and the transform is executed again.
+ * Found workspaces are marked as accessed, so that they are retained by the cleanup.</p>
+ *
+ * <p>The index stores the same paths as the results file of the workspace, with the outputs relative to the workspace, so that it stays valid when the Gradle user home is moved.
+ * Only successful results are indexed.</p>
+ */
+class IndexedTransformationIdentityCache implements Cache<UnitOfWork.Identity, Try<TransformationResult>> {
+    private final CrossBuildInMemoryCache<UnitOfWork.Identity, Try<TransformationResult>> inMemoryCache;
+    private final PersistentIndexedCache<String, List<String>> index;
+    private final File workspaceBaseDirectory;
+    private final FileAccessTracker fileAccessTracker;
+
+    public IndexedTransformationIdentityCache(
+        CrossBuildInMemoryCache<UnitOfWork.Identity, Try<TransformationResult>> inMemoryCache,
+        PersistentIndexedCache<String, List<String>> index,
+        File workspaceBaseDirectory,
+        FileAccessTracker fileAccessTracker
+    ) {
+        this.inMemoryCache = inMemoryCache;
+        this.index = index;
+        this.workspaceBaseDirectory = workspaceBaseDirectory;
+        this.fileAccessTracker = fileAccessTracker;
+    }
+
+    @Override
+    public Try<TransformationResult> get(UnitOfWork.Identity identity, Function<? super UnitOfWork.Identity, ? extends Try<TransformationResult>> factory) {
+        return inMemoryCache.get(identity, key -> {
+            Try<TransformationResult> indexedResult = loadFromIndex(key);
+            if (indexedResult != null) {
+                return indexedResult;
+            }
+            Try<TransformationResult> result = factory.apply(key);
+            result.ifSuccessful(value -> storeInIndex(key, value));
+            return result;
+        });
+    }
+
+    @Nullable
+    @Override
+    public Try<TransformationResult> getIfPresent(UnitOfWork.Identity identity) {
+        Try<TransformationResult> result = inMemoryCache.getIfPresent(identity);
+        if (result == null) {
+            result = loadFromIndex(identity);
+            if (result != null) {
+                inMemoryCache.put(identity, result);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void put(UnitOfWork.Identity identity, Try<TransformationResult> result) {
+        inMemoryCache.put(identity, result);
+        result.ifSuccessful(value -> storeInIndex(identity, value));
+    }
+
+    private void storeInIndex(UnitOfWork.Identity identity, TransformationResult result) {
+        // The unique id of the identity is the path of its workspace
+        String workspacePath = identity.getUniqueId();
+        File outputDir = DefaultTransformerInvocationFactory.getOutputDir(new File(workspaceBaseDirectory, workspacePath));
+        index.put(workspacePath, TransformationResultSerializer.writeResultPaths(outputDir, result));
+    }
+
+    @Nullable
+    private Try<TransformationResult> loadFromIndex(UnitOfWork.Identity identity) {
+        String workspacePath = identity.getUniqueId();
+        List<String> resultPaths = index.getIfPresent(workspacePath);
+        if (resultPaths == null) {
+            return null;
+        }
+        File workspace = new File(workspaceBaseDirectory, workspacePath);
+        TransformationResult result = workspace.isDirectory()
+            ? TransformationResultSerializer.readResultPaths(DefaultTransformerInvocationFactory.getOutputDir(workspace), resultPaths)
+            : null;
+        if (result == null || !producedOutputsExist(result)) {
+            index.remove(workspacePath);
+            return null;
+        }
+        fileAccessTracker.markAccessed(workspace);
+        return Try.successful(result);
+    }
+
+    private static boolean producedOutputsExist(TransformationResult result) {
+        AtomicBoolean allExist = new AtomicBoolean(true);
+        result.visitOutputs(new TransformationResult.OutputVisitor() {
+            @Override
+            public void visitEntireInputArtifact() {
+            }
+
+            @Override
+            public void visitPartOfInputArtifact(String relativePath) {
+            }
+
+            @Override
+            public void visitProducedOutput(File outputLocation) {
+                if (!outputLocation.exists()) {
+                    allExist.set(false);
+                }
+            }
+        });
+        return allExist.get();
+    }
+}
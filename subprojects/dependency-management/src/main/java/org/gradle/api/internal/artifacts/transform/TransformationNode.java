@@ -103,6 +103,13 @@ public void execute(NodeExecutionContext context) {
         getTransformedArtifacts().run(context);
     }
 
+    /**
+     * Returns true when the transformed subject of this node is available, either because the node was executed as part of the work graph or on demand.
+     */
+    public boolean isTransformed() {
+        return getTransformedArtifacts().isFinalized();
+    }
+
     public void executeIfNotAlready() {
         transformationStep.isolateParametersIfNotAlready();
         upstreamDependencies.finalizeIfNotAlready();
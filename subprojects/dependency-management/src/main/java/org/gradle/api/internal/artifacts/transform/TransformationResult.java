@@ -37,6 +37,19 @@ public interface TransformationResult {
      */
     ImmutableList<File> resolveOutputsForInputArtifact(File inputArtifact);
 
+    /**
+     * Visits the outputs of this result, in order, without resolving them.
+     */
+    void visitOutputs(OutputVisitor visitor);
+
+    interface OutputVisitor {
+        void visitEntireInputArtifact();
+
+        void visitPartOfInputArtifact(String relativePath);
+
+        void visitProducedOutput(File outputLocation);
+    }
+
     static Builder builder() {
         return new Builder();
     }
@@ -78,6 +91,8 @@ public TransformationResult build() {
          */
         private interface TransformationOutput {
             File resolveForInputArtifact(File inputArtifact);
+
+            void visit(OutputVisitor visitor);
         }
 
         private static ImmutableList<File> convertToProducedOutputLocations(ImmutableList<TransformationOutput> transformationOutputs) {
@@ -97,6 +112,11 @@ public AlreadyResolvedTransformationResult(ImmutableList<File> producedOutputLoc
             public ImmutableList<File> resolveOutputsForInputArtifact(File inputArtifact) {
                 return producedOutputLocations;
             }
+
+            @Override
+            public void visitOutputs(OutputVisitor visitor) {
+                producedOutputLocations.forEach(visitor::visitProducedOutput);
+            }
         }
 
         private static class ResolvingTransformationResult implements TransformationResult {
@@ -112,6 +132,11 @@ public ImmutableList<File> resolveOutputsForInputArtifact(File inputArtifact) {
                 transformationOutputs.forEach(output -> builder.add(output.resolveForInputArtifact(inputArtifact)));
                 return builder.build();
             }
+
+            @Override
+            public void visitOutputs(OutputVisitor visitor) {
+                transformationOutputs.forEach(output -> output.visit(visitor));
+            }
         }
 
         private static class PartOfInputArtifact implements TransformationOutput {
@@ -125,6 +150,11 @@ public PartOfInputArtifact(String relativePath) {
             public File resolveForInputArtifact(File inputArtifact) {
                 return new File(inputArtifact, relativePath);
             }
+
+            @Override
+            public void visit(OutputVisitor visitor) {
+                visitor.visitPartOfInputArtifact(relativePath);
+            }
         }
 
         private static class EntireInputArtifact implements TransformationOutput {
@@ -134,6 +164,11 @@ private static class EntireInputArtifact implements TransformationOutput {
             public File resolveForInputArtifact(File inputArtifact) {
                 return inputArtifact;
             }
+
+            @Override
+            public void visit(OutputVisitor visitor) {
+                visitor.visitEntireInputArtifact();
+            }
         }
 
         private static class ProducedOutput implements TransformationOutput {
@@ -151,6 +186,11 @@ public File getOutputLocation() {
             public File resolveForInputArtifact(File inputArtifact) {
                 return outputFile;
             }
+
+            @Override
+            public void visit(OutputVisitor visitor) {
+                visitor.visitProducedOutput(outputFile);
+            }
         }
     }
 }
@@ -79,25 +79,64 @@ public TransformationResult writeToFile(File target, ImmutableList<File> result)
     public TransformationResult readResultsFile(File resultsFile) {
         Path transformerResultsPath = resultsFile.toPath();
         try {
-            TransformationResult.Builder builder = TransformationResult.builder();
-            List<String> paths = Files.readAllLines(transformerResultsPath, StandardCharsets.UTF_8);
-            for (String path : paths) {
-                if (path.startsWith(OUTPUT_FILE_PATH_PREFIX)) {
-                    builder.addOutput(new File(outputDir, path.substring(2)));
-                } else if (path.startsWith(INPUT_FILE_PATH_PREFIX)) {
-                    String relativePathString = path.substring(2);
-                    if (relativePathString.isEmpty()) {
-                        builder.addInputArtifact();
-                    } else {
-                        builder.addInputArtifact(relativePathString);
+            return readResultPaths(outputDir, Files.readAllLines(transformerResultsPath, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Converts the result to the paths stored in the results file, with outputs relative to the output directory.
+     */
+    public static ImmutableList<String> writeResultPaths(File outputDir, TransformationResult result) {
+        String outputDirPrefix = outputDir.getPath() + File.separator;
+        ImmutableList.Builder<String> resultPaths = ImmutableList.builder();
+        result.visitOutputs(new TransformationResult.OutputVisitor() {
+            @Override
+            public void visitEntireInputArtifact() {
+                resultPaths.add(INPUT_FILE_PATH_PREFIX);
+            }
+
+            @Override
+            public void visitPartOfInputArtifact(String relativePath) {
+                resultPaths.add(INPUT_FILE_PATH_PREFIX + relativePath);
+            }
+
+            @Override
+            public void visitProducedOutput(File outputLocation) {
+                if (outputLocation.equals(outputDir)) {
+                    resultPaths.add(OUTPUT_FILE_PATH_PREFIX);
+                } else {
+                    String absolutePath = outputLocation.getAbsolutePath();
+                    if (!absolutePath.startsWith(outputDirPrefix)) {
+                        throw new IllegalStateException("Invalid result path: " + absolutePath);
                     }
+                    resultPaths.add(OUTPUT_FILE_PATH_PREFIX + RelativePath.parse(true, absolutePath.substring(outputDirPrefix.length())).getPathString());
+                }
+            }
+        });
+        return resultPaths.build();
+    }
+
+    /**
+     * Converts the paths stored in the results file back to a result, resolving outputs against the output directory.
+     */
+    public static TransformationResult readResultPaths(File outputDir, List<String> paths) {
+        TransformationResult.Builder builder = TransformationResult.builder();
+        for (String path : paths) {
+            if (path.startsWith(OUTPUT_FILE_PATH_PREFIX)) {
+                builder.addOutput(new File(outputDir, path.substring(2)));
+            } else if (path.startsWith(INPUT_FILE_PATH_PREFIX)) {
+                String relativePathString = path.substring(2);
+                if (relativePathString.isEmpty()) {
+                    builder.addInputArtifact();
                 } else {
-                    throw new IllegalStateException("Cannot parse result path string: " + path);
+                    builder.addInputArtifact(relativePathString);
                 }
+            } else {
+                throw new IllegalStateException("Cannot parse result path string: " + path);
             }
-            return builder.build();
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
         }
+        return builder.build();
     }
 }
@@ -30,6 +30,8 @@
 import org.gradle.internal.Describables;
 import org.gradle.internal.DisplayName;
 import org.gradle.internal.Try;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
 import org.gradle.internal.operations.BuildOperationQueue;
 import org.gradle.internal.operations.RunnableBuildOperation;
 
@@ -96,7 +98,13 @@ public void visit(Visitor visitor) {
 
     @Override
     public void startFinalization(BuildOperationQueue<RunnableBuildOperation> actions, boolean requireFiles) {
-        // TODO - should add any nodes that have not been executed
+        // Queue the chain of each artifact that has not been transformed yet, so that the artifacts are transformed in parallel.
+        // Each chain runs its steps one after the other, without waiting for the other artifacts to complete a step
+        for (TransformationNode node : transformedArtifacts) {
+            if (!node.isTransformed()) {
+                actions.add(new TransformArtifact(node));
+            }
+        }
     }
 
     @Override
@@ -139,4 +147,22 @@ public void visitTransformSources(TransformSourceVisitor visitor) {
     public void visitExternalArtifacts(Action<ResolvableArtifact> visitor) {
         throw new UnsupportedOperationException("Should not be called.");
     }
+
+    private static class TransformArtifact implements RunnableBuildOperation {
+        private final TransformationNode node;
+
+        public TransformArtifact(TransformationNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            node.executeIfNotAlready();
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Execute transform of " + node.getInputArtifact().getId().getDisplayName());
+        }
+    }
 }
@@ -128,7 +128,7 @@ public void startFinalization(BuildOperationQueue<RunnableBuildOperation> action
 
         @Override
         public BuildOperationDescriptor.Builder description() {
-            return BuildOperationDescriptor.displayName("Execute transform");
+            return BuildOperationDescriptor.displayName("Execute transform of " + artifact.getId().getDisplayName());
         }
 
         @Override
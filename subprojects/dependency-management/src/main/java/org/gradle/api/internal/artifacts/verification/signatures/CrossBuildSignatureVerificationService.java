@@ -23,7 +23,7 @@
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.PersistentIndexedCacheParameters;
 import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
-import org.gradle.cache.scopes.BuildScopedCache;
+import org.gradle.cache.scopes.GlobalScopedCache;
 import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.serialize.AbstractSerializer;
@@ -42,6 +42,12 @@
 import static org.gradle.api.internal.artifacts.verification.signatures.CrossBuildCachingKeyService.MISSING_KEY_TIMEOUT;
 import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
+/**
+ * Remembers the results of signature verification in the Gradle user home, so that they are shared by all builds on the machine.
+ *
+ * Results are keyed by the contents of the artifact and of its signature, and by the keys the verification depends on,
+ * so that a build verifying the same artifact from another checkout or another cache directory reuses the result.
+ */
 public class CrossBuildSignatureVerificationService implements SignatureVerificationService {
     private final SignatureVerificationService delegate;
     private final FileHasher fileHasher;
@@ -54,7 +60,7 @@ public class CrossBuildSignatureVerificationService implements SignatureVerifica
 
     public CrossBuildSignatureVerificationService(SignatureVerificationService delegate,
                                                   FileHasher fileHasher,
-                                                  BuildScopedCache scopedCache,
+                                                  GlobalScopedCache scopedCache,
                                                   InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory,
                                                   BuildCommencedTimeProvider timeProvider,
                                                   boolean refreshKeys,
@@ -74,19 +80,19 @@ public CrossBuildSignatureVerificationService(SignatureVerificationService deleg
         cache = store.createCache(
             PersistentIndexedCacheParameters.of(
                 "signature-verification",
-                new CacheKeySerializer(stringSerializer, new SetSerializer<>(stringSerializer)),
+                new CacheKeySerializer(new SetSerializer<>(stringSerializer)),
                 new CacheEntrySerializer(stringSerializer)
             ).withCacheDecorator(inMemoryCacheDecoratorFactory.decorator(500, true)));
     }
 
     @Override
     public void verify(File origin, File signature, Set<String> trustedKeys, Set<String> ignoredKeys, SignatureVerificationResultBuilder builder) {
-        CacheKey cacheKey = new CacheKey(origin.getAbsolutePath(), signature.getAbsolutePath(), trustedKeys, ignoredKeys, useKeyServers, keyringFileHash);
         HashCode originHash = fileHasher.hash(origin);
         HashCode signatureHash = fileHasher.hash(signature);
+        CacheKey cacheKey = new CacheKey(originHash, signatureHash, trustedKeys, ignoredKeys, useKeyServers, keyringFileHash);
         CacheEntry entry = cache.getIfPresent(cacheKey);
-        if (entry == null || entry.updated(originHash, signatureHash) || hasExpired(entry)) {
-            entry = performActualVerification(origin, signature, trustedKeys, ignoredKeys, originHash, signatureHash);
+        if (entry == null || hasExpired(entry)) {
+            entry = performActualVerification(origin, signature, trustedKeys, ignoredKeys);
             cache.put(cacheKey, entry);
         }
         entry.applyTo(builder);
@@ -106,8 +112,8 @@ public PublicKeyService getPublicKeyService() {
         return delegate.getPublicKeyService();
     }
 
-    private CacheEntry performActualVerification(File origin, File signature, Set<String> trustedKeys, Set<String> ignoredKeys, HashCode originHash, HashCode signatureHash) {
-        CacheEntryBuilder result = new CacheEntryBuilder(timeProvider.getCurrentTime(), originHash, signatureHash);
+    private CacheEntry performActualVerification(File origin, File signature, Set<String> trustedKeys, Set<String> ignoredKeys) {
+        CacheEntryBuilder result = new CacheEntryBuilder(timeProvider.getCurrentTime());
         delegate.verify(origin, signature, trustedKeys, ignoredKeys, result);
         return result.build();
     }
@@ -119,16 +125,16 @@ public void stop() {
     }
 
     private static class CacheKey {
-        private final String filePath;
-        private final String signaturePath;
+        private final HashCode originHash;
+        private final HashCode signatureHash;
         private final Set<String> trustedKeys;
         private final Set<String> ignoredKeys;
         private final boolean useKeyServers;
         private final HashCode keyringFileHash;
 
-        private CacheKey(String filePath, String signaturePath, Set<String> trustedKeys, Set<String> ignoredKeys, boolean useKeyServers, HashCode keyringFileHash) {
-            this.filePath = filePath;
-            this.signaturePath = signaturePath;
+        private CacheKey(HashCode originHash, HashCode signatureHash, Set<String> trustedKeys, Set<String> ignoredKeys, boolean useKeyServers, HashCode keyringFileHash) {
+            this.originHash = originHash;
+            this.signatureHash = signatureHash;
             this.trustedKeys = trustedKeys;
             this.ignoredKeys = ignoredKeys;
             this.useKeyServers = useKeyServers;
@@ -146,10 +152,10 @@ public boolean equals(Object o) {
 
             CacheKey cacheKey = (CacheKey) o;
 
-            if (!filePath.equals(cacheKey.filePath)) {
+            if (!originHash.equals(cacheKey.originHash)) {
                 return false;
             }
-            if (!signaturePath.equals(cacheKey.signaturePath)) {
+            if (!signatureHash.equals(cacheKey.signatureHash)) {
                 return false;
             }
             if (!trustedKeys.equals(cacheKey.trustedKeys)) {
@@ -166,8 +172,8 @@ public boolean equals(Object o) {
 
         @Override
         public int hashCode() {
-            int result = filePath.hashCode();
-            result = 31 * result + signaturePath.hashCode();
+            int result = originHash.hashCode();
+            result = 31 * result + signatureHash.hashCode();
             result = 31 * result + trustedKeys.hashCode();
             result = 31 * result + ignoredKeys.hashCode();
             result = 31 * result + Boolean.hashCode(useKeyServers);
@@ -177,25 +183,23 @@ public int hashCode() {
     }
 
     private static class CacheKeySerializer extends AbstractSerializer<CacheKey> {
-        private final InterningStringSerializer delegate;
         private final SetSerializer<String> setSerializer;
         private final HashCodeSerializer hashCodeSerializer;
 
-        private CacheKeySerializer(InterningStringSerializer stringSerializer, SetSerializer<String> setSerializer) {
-            this.delegate = stringSerializer;
+        private CacheKeySerializer(SetSerializer<String> setSerializer) {
             this.setSerializer = setSerializer;
             this.hashCodeSerializer = new HashCodeSerializer();
         }
 
         @Override
         public CacheKey read(Decoder decoder) throws Exception {
-            return new CacheKey(delegate.read(decoder), delegate.read(decoder), setSerializer.read(decoder), setSerializer.read(decoder), decoder.readBoolean(), hashCodeSerializer.read(decoder));
+            return new CacheKey(hashCodeSerializer.read(decoder), hashCodeSerializer.read(decoder), setSerializer.read(decoder), setSerializer.read(decoder), decoder.readBoolean(), hashCodeSerializer.read(decoder));
         }
 
         @Override
         public void write(Encoder encoder, CacheKey value) throws Exception {
-            delegate.write(encoder, value.filePath);
-            delegate.write(encoder, value.signaturePath);
+            hashCodeSerializer.write(encoder, value.originHash);
+            hashCodeSerializer.write(encoder, value.signatureHash);
             setSerializer.write(encoder, value.trustedKeys);
             setSerializer.write(encoder, value.ignoredKeys);
             encoder.writeBoolean(value.useKeyServers);
@@ -205,8 +209,6 @@ public void write(Encoder encoder, CacheKey value) throws Exception {
 
     private static class CacheEntryBuilder implements SignatureVerificationResultBuilder {
         private final long timestamp;
-        private final HashCode originHash;
-        private final HashCode signatureHash;
 
         private List<String> missingKeys = null;
         private List<PGPPublicKey> trustedKeys = null;
@@ -214,10 +216,8 @@ private static class CacheEntryBuilder implements SignatureVerificationResultBui
         private List<PGPPublicKey> failedKeys = null;
         private List<String> ignoredKeys = null;
 
-        private CacheEntryBuilder(long timestamp, HashCode originHash, HashCode signatureHash) {
+        private CacheEntryBuilder(long timestamp) {
             this.timestamp = timestamp;
-            this.originHash = originHash;
-            this.signatureHash = signatureHash;
         }
 
         @Override
@@ -260,24 +260,20 @@ public void ignored(String keyId) {
         }
 
         CacheEntry build() {
-            return new CacheEntry(timestamp, originHash, signatureHash, missingKeys, trustedKeys, validKeys, failedKeys, ignoredKeys);
+            return new CacheEntry(timestamp, missingKeys, trustedKeys, validKeys, failedKeys, ignoredKeys);
         }
     }
 
     private static class CacheEntry {
         private final long timestamp;
-        private final HashCode originHash;
-        private final HashCode signatureHash;
         private final List<String> missingKeys;
         private final List<PGPPublicKey> trustedKeys;
         private final List<PGPPublicKey> validKeys;
         private final List<PGPPublicKey> failedKeys;
         private final List<String> ignoredKeys;
 
-        public CacheEntry(long timestamp, HashCode originHash, HashCode signatureHash, List<String> missingKeys, List<PGPPublicKey> trustedKeys, List<PGPPublicKey> validKeys, List<PGPPublicKey> failedKeys, List<String> ignoredKeys) {
+        public CacheEntry(long timestamp, List<String> missingKeys, List<PGPPublicKey> trustedKeys, List<PGPPublicKey> validKeys, List<PGPPublicKey> failedKeys, List<String> ignoredKeys) {
             this.timestamp = timestamp;
-            this.originHash = originHash;
-            this.signatureHash = signatureHash;
             this.missingKeys = missingKeys;
             this.trustedKeys = trustedKeys;
             this.validKeys = validKeys;
@@ -312,11 +308,6 @@ void applyTo(SignatureVerificationResultBuilder builder) {
                 }
             }
         }
-
-        public boolean updated(HashCode originHash, HashCode signatureHash) {
-            return !this.originHash.equals(originHash) ||
-                !this.signatureHash.equals(signatureHash);
-        }
     }
 
     private static class CacheEntrySerializer extends AbstractSerializer<CacheEntry> {
@@ -330,14 +321,12 @@ private CacheEntrySerializer(InterningStringSerializer stringSerializer) {
         @Override
         public CacheEntry read(Decoder decoder) throws Exception {
             long timestamp = decoder.readLong();
-            HashCode originHash = HashCode.fromBytes(decoder.readBinary());
-            HashCode signatureHash = HashCode.fromBytes(decoder.readBinary());
             List<String> missingKeys = readStringKeys(decoder);
             List<PGPPublicKey> trustedKeys = readKeys(decoder);
             List<PGPPublicKey> validKeys = readKeys(decoder);
             List<PGPPublicKey> failedKeys = readKeys(decoder);
             List<String> ignoredKeys = readStringKeys(decoder);
-            return new CacheEntry(timestamp, originHash, signatureHash, missingKeys, trustedKeys, validKeys, failedKeys, ignoredKeys);
+            return new CacheEntry(timestamp, missingKeys, trustedKeys, validKeys, failedKeys, ignoredKeys);
         }
 
         private List<String> readStringKeys(Decoder decoder) throws Exception {
@@ -367,8 +356,6 @@ private List<PGPPublicKey> readKeys(Decoder decoder) throws Exception {
         @Override
         public void write(Encoder encoder, CacheEntry value) throws Exception {
             encoder.writeLong(value.timestamp);
-            encoder.writeBinary(value.originHash.toByteArray());
-            encoder.writeBinary(value.signatureHash.toByteArray());
             writeStringKeys(encoder, value.missingKeys);
             writeKeys(encoder, value.trustedKeys);
             writeKeys(encoder, value.validKeys);
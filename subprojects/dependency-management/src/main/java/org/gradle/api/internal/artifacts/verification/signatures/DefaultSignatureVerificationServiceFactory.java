@@ -23,7 +23,6 @@
 import org.bouncycastle.openpgp.PGPSignatureList;
 import org.gradle.api.internal.artifacts.repositories.transport.RepositoryTransportFactory;
 import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
-import org.gradle.cache.scopes.BuildScopedCache;
 import org.gradle.cache.scopes.GlobalScopedCache;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.hash.FileHasher;
@@ -62,7 +61,6 @@ public class DefaultSignatureVerificationServiceFactory implements SignatureVeri
     private final InMemoryCacheDecoratorFactory decoratorFactory;
     private final BuildOperationExecutor buildOperationExecutor;
     private final FileHasher fileHasher;
-    private final BuildScopedCache buildScopedCache;
     private final BuildCommencedTimeProvider timeProvider;
     private final boolean refreshKeys;
 
@@ -71,7 +69,6 @@ public DefaultSignatureVerificationServiceFactory(RepositoryTransportFactory tra
                                                       InMemoryCacheDecoratorFactory decoratorFactory,
                                                       BuildOperationExecutor buildOperationExecutor,
                                                       FileHasher fileHasher,
-                                                      BuildScopedCache buildScopedCache,
                                                       BuildCommencedTimeProvider timeProvider,
                                                       boolean refreshKeys) {
         this.transportFactory = transportFactory;
@@ -79,7 +76,6 @@ public DefaultSignatureVerificationServiceFactory(RepositoryTransportFactory tra
         this.decoratorFactory = decoratorFactory;
         this.buildOperationExecutor = buildOperationExecutor;
         this.fileHasher = fileHasher;
-        this.buildScopedCache = buildScopedCache;
         this.timeProvider = timeProvider;
         this.refreshKeys = refreshKeys;
     }
@@ -104,7 +100,7 @@ public SignatureVerificationService create(BuildTreeDefinedKeys keyrings, List<U
         return new CrossBuildSignatureVerificationService(
             delegate,
             fileHasher,
-            buildScopedCache,
+            cacheRepository,
             decoratorFactory,
             timeProvider,
             refreshKeys,
@@ -53,12 +53,14 @@ class CacheLayoutTest extends Specification {
         CacheLayout cacheLayout = CacheLayout.META_DATA
 
         then:
-        def expectedVersion = 99
+        def expectedVersion = 100
         cacheLayout.name == 'metadata'
         cacheLayout.key == "metadata-2.${expectedVersion}"
         cacheLayout.version == CacheVersion.parse("2.${expectedVersion}")
         cacheLayout.version.toString() == "2.${expectedVersion}"
         cacheLayout.getPath(new File('some/dir')) == new File("some/dir/metadata-2.${expectedVersion}")
+        cacheLayout.versionMapping.getVersionUsedBy(GradleVersion.version("7.5-rc-1")).get() == CacheVersion.of(2, 99)
+        cacheLayout.versionMapping.getVersionUsedBy(GradleVersion.version("7.5")).get() == CacheVersion.of(2, expectedVersion)
         !cacheLayout.versionMapping.getVersionUsedBy(GradleVersion.version("1.9-rc-1")).present
         cacheLayout.versionMapping.getVersionUsedBy(GradleVersion.version("1.9-rc-2")).get() == CacheVersion.of(2, 1)
     }
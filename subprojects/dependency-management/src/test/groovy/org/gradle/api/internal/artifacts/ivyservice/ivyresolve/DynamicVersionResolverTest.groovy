@@ -0,0 +1,146 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve
+
+import org.gradle.api.Transformer
+import org.gradle.api.internal.artifacts.ComponentMetadataProcessorFactory
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
+import org.gradle.api.internal.artifacts.configurations.dynamicversion.CachePolicy
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelector
+import org.gradle.api.internal.attributes.ImmutableAttributes
+import org.gradle.api.internal.attributes.ImmutableAttributesFactory
+import org.gradle.internal.component.external.model.DefaultModuleComponentSelector
+import org.gradle.internal.component.external.model.ModuleDependencyMetadata
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.resolve.ModuleVersionNotFoundException
+import org.gradle.internal.resolve.ModuleVersionResolveException
+import org.gradle.internal.resolve.caching.ComponentMetadataSupplierRuleExecutor
+import org.gradle.internal.resolve.result.DefaultBuildableComponentIdResolveResult
+import spock.lang.Specification
+
+class DynamicVersionResolverTest extends Specification {
+    def versionedComponentChooser = Mock(VersionedComponentChooser)
+    def attributesFactory = Stub(ImmutableAttributesFactory) {
+        concat(_, _) >> ImmutableAttributes.EMPTY
+    }
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    def resolver = new DynamicVersionResolver(versionedComponentChooser, new VersionParser(), Stub(Transformer), attributesFactory, Stub(ComponentMetadataProcessorFactory), Stub(ComponentMetadataSupplierRuleExecutor), Stub(CachePolicy), buildOperationExecutor)
+    def selector = DefaultModuleComponentSelector.newSelector(DefaultModuleIdentifier.newId("org", "foo"), "1.+")
+    def dependency = Stub(ModuleDependencyMetadata) {
+        getSelector() >> selector
+    }
+    def result = new DefaultBuildableComponentIdResolveResult()
+
+    def "lists versions remotely in all repositories that have no cached listing"() {
+        given:
+        def remote1 = Mock(ModuleComponentRepositoryAccess)
+        def remote2 = Mock(ModuleComponentRepositoryAccess)
+        def remote3 = Mock(ModuleComponentRepositoryAccess)
+        repository("repo1", Stub(ModuleComponentRepositoryAccess), remote1)
+        repository("repo2", Stub(ModuleComponentRepositoryAccess), remote2)
+        repository("repo3", cachedListing(), remote3)
+
+        when:
+        resolve()
+
+        then:
+        1 * remote1.listModuleVersions(dependency, _) >> { it[1].listed(["1.0"]) }
+        1 * remote2.listModuleVersions(dependency, _) >> { it[1].listed(["1.1"]) }
+        0 * remote3._
+        3 * versionedComponentChooser.selectNewestMatchingComponent(_, _, _, _, _) >> { it[1].noMatchFound() }
+
+        and:
+        buildOperationExecutor.operations*.displayName == ["List versions of org:foo in repo1", "List versions of org:foo in repo2"]
+        result.failure instanceof ModuleVersionNotFoundException
+    }
+
+    def "lists versions remotely as a build operation when a single repository has no cached listing"() {
+        given:
+        def remote1 = Mock(ModuleComponentRepositoryAccess)
+        repository("repo1", Stub(ModuleComponentRepositoryAccess), remote1)
+        repository("repo2", cachedListing(), Mock(ModuleComponentRepositoryAccess))
+
+        when:
+        resolve()
+
+        then:
+        1 * remote1.listModuleVersions(dependency, _) >> { it[1].listed(["1.0"]) }
+        2 * versionedComponentChooser.selectNewestMatchingComponent(_, _, _, _, _) >> { it[1].noMatchFound() }
+
+        and:
+        buildOperationExecutor.operations*.displayName == ["List versions of org:foo in repo1"]
+    }
+
+    def "lists versions remotely without selecting a version"() {
+        given:
+        def remote1 = Mock(ModuleComponentRepositoryAccess)
+        def remote2 = Mock(ModuleComponentRepositoryAccess)
+        def remote3 = Mock(ModuleComponentRepositoryAccess)
+        repository("repo1", Stub(ModuleComponentRepositoryAccess), remote1)
+        repository("repo2", Stub(ModuleComponentRepositoryAccess), remote2)
+        repository("repo3", cachedListing(), remote3)
+
+        when:
+        resolver.listVersions(dependency)
+
+        then:
+        1 * remote1.listModuleVersions(dependency, _) >> { throw new RuntimeException("broken") }
+        1 * remote2.listModuleVersions(dependency, _) >> { it[1].listed(["1.1"]) }
+        0 * remote3._
+        0 * versionedComponentChooser._
+    }
+
+    def "reports failure to list versions remotely when the repository is visited"() {
+        given:
+        def failure = new RuntimeException("broken")
+        def remote1 = Mock(ModuleComponentRepositoryAccess)
+        def remote2 = Mock(ModuleComponentRepositoryAccess)
+        repository("repo1", Stub(ModuleComponentRepositoryAccess), remote1)
+        repository("repo2", Stub(ModuleComponentRepositoryAccess), remote2)
+
+        when:
+        resolve()
+
+        then:
+        1 * remote1.listModuleVersions(dependency, _) >> { throw failure }
+        1 * remote2.listModuleVersions(dependency, _) >> { it[1].listed(["1.0"]) }
+        1 * versionedComponentChooser.selectNewestMatchingComponent(_, _, _, _, _) >> { it[1].noMatchFound() }
+
+        and:
+        result.failure instanceof ModuleVersionResolveException
+        result.failure.causes == [failure]
+    }
+
+    private void resolve() {
+        resolver.resolve(dependency, Stub(VersionSelector), null, ImmutableAttributes.EMPTY, result)
+    }
+
+    private void repository(String name, ModuleComponentRepositoryAccess localAccess, ModuleComponentRepositoryAccess remoteAccess) {
+        resolver.add(Stub(ModuleComponentRepository) {
+            getName() >> name
+            getLocalAccess() >> localAccess
+            getRemoteAccess() >> remoteAccess
+        })
+    }
+
+    private ModuleComponentRepositoryAccess cachedListing() {
+        return Stub(ModuleComponentRepositoryAccess) {
+            listModuleVersions(dependency, _) >> { it[1].listed(["0.9"]) }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser
+
+import spock.lang.Specification
+
+import javax.xml.stream.XMLStreamException
+import java.nio.charset.StandardCharsets
+
+class PomStaxParserTest extends Specification {
+    static final String POM = """<?xml version="1.0" encoding="UTF-8"?>
+<project xmlns="http://maven.apache.org/POM/4.0.0">
+    <!-- ${MetaDataParser.GRADLE_6_METADATA_MARKER} -->
+    <modelVersion>4.0.0</modelVersion>
+    <parent>
+        <groupId>group-parent</groupId>
+        <artifactId>artifact-parent</artifactId>
+        <version>1.0</version>
+    </parent>
+    <artifactId>artifact&amp;one&copy;</artifactId>
+    <artifactId>artifact-two</artifactId>
+    <version><![CDATA[1.]]>0<ignored>nested</ignored>-SNAPSHOT</version>
+    <properties>
+        <some.property>first</some.property>
+        <some.property>second</some.property>
+        <empty.property/>
+    </properties>
+    <distributionManagement>
+        <relocation>
+            <artifactId>relocated</artifactId>
+        </relocation>
+    </distributionManagement>
+    <dependencies>
+        <dependency>
+            <groupId>group-one</groupId>
+            <artifactId>artifact-one</artifactId>
+            <version>\${some.property}</version>
+            <optional>TRUE</optional>
+            <exclusions>
+                <exclusion>
+                    <groupId>excluded-group</groupId>
+                </exclusion>
+                <exclusion/>
+            </exclusions>
+        </dependency>
+        <other/>
+        <dependency>
+            <groupId>group-two</groupId>
+            <artifactId>artifact-two</artifactId>
+            <scope>test</scope>
+            <type>test-jar</type>
+            <classifier>tests</classifier>
+        </dependency>
+    </dependencies>
+    <dependencies>
+        <dependency>
+            <groupId>ignored</groupId>
+        </dependency>
+    </dependencies>
+    <dependencyManagement>
+        <dependencies>
+            <dependency>
+                <groupId>group-bom</groupId>
+                <artifactId>artifact-bom</artifactId>
+                <type>pom</type>
+                <scope>import</scope>
+            </dependency>
+        </dependencies>
+    </dependencyManagement>
+    <profiles>
+        <profile>
+            <id>profile-one</id>
+            <activation>
+                <activeByDefault>true</activeByDefault>
+            </activation>
+            <properties>
+                <some.property>profile</some.property>
+            </properties>
+        </profile>
+        <profile>
+            <id>profile-two</id>
+            <activation>
+                <property>
+                    <name>!some.property</name>
+                </property>
+            </activation>
+            <dependencies>
+                <dependency>
+                    <groupId>group-profile</groupId>
+                    <artifactId>artifact-profile</artifactId>
+                </dependency>
+            </dependencies>
+            <dependencyManagement>
+                <dependencies>
+                    <dependency>
+                        <groupId>group-profile-managed</groupId>
+                        <artifactId>artifact-profile-managed</artifactId>
+                    </dependency>
+                </dependencies>
+            </dependencyManagement>
+        </profile>
+    </profiles>
+</project>
+"""
+
+    def "reads the content of a POM"() {
+        when:
+        def document = parseWithStax(POM)
+
+        then:
+        document.rootElementName == "project"
+        document.gradleMetadataMarker
+        document.groupId == null
+        document.artifactId == "artifact&one©"
+        document.version == "1.0-SNAPSHOT"
+        document.hasParent
+        document.parentGroupId == "group-parent"
+        document.parentArtifactId == "artifact-parent"
+        document.parentVersion == "1.0"
+        document.hasRelocation
+        document.relocationGroupId == null
+        document.relocationArtifactId == "relocated"
+        document.properties == ["some.property": "second", "empty.property": ""]
+
+        document.dependencies.size() == 2
+        with(document.dependencies[0]) {
+            groupId == "group-one"
+            artifactId == "artifact-one"
+            version == '${some.property}'
+            optional == "TRUE"
+            exclusions.size() == 2
+            exclusions[0].groupId == "excluded-group"
+            exclusions[0].artifactId == null
+        }
+        with(document.dependencies[1]) {
+            scope == "test"
+            type == "test-jar"
+            classifier == "tests"
+            optional == null
+            exclusions == null
+        }
+        document.dependencyManagement*.artifactId == ["artifact-bom"]
+
+        document.profiles*.id == ["profile-one", "profile-two"]
+        with(document.profiles[0]) {
+            hasActivation
+            activeByDefault == "true"
+            !hasActivationProperty
+            properties == ["some.property": "profile"]
+        }
+        with(document.profiles[1]) {
+            hasActivationProperty
+            activationPropertyName == "!some.property"
+            dependencies*.artifactId == ["artifact-profile"]
+            dependencyManagement*.artifactId == ["artifact-profile-managed"]
+        }
+    }
+
+    def "reads the same content as the DOM parser"() {
+        expect:
+        describe(parseWithStax(pom)) == describe(parseWithDom(pom))
+
+        where:
+        pom << [
+            POM,
+            "<project/>",
+            "<model><groupId>group</groupId><artifactId>artifact</artifactId><version>1.0</version></model>",
+            "<project><groupId>  spaced  </groupId><description>&eacute;</description><properties><a>1<!-- comment -->2</a></properties></project>",
+            "<project><profiles><profile><activation><property/></activation></profile><other/></profiles></project>"
+        ]
+    }
+
+    def "fails on malformed POM"() {
+        when:
+        parseWithStax("<project><groupId>group</project>")
+
+        then:
+        thrown(XMLStreamException)
+    }
+
+    private static PomDocument parseWithStax(String pom) {
+        return PomStaxParser.parse(new ByteArrayInputStream(pom.getBytes(StandardCharsets.UTF_8)), "pom.xml")
+    }
+
+    private static PomDocument parseWithDom(String pom) {
+        def element = PomReader.parseToDom(new ByteArrayInputStream(pom.getBytes(StandardCharsets.UTF_8)), "pom.xml").documentElement
+        return PomDomParser.toPomDocument(element, "pom.xml")
+    }
+
+    private static Object describe(Object value) {
+        if (value == null || value instanceof String || value instanceof Boolean || value instanceof Map) {
+            return value
+        }
+        if (value instanceof List) {
+            return value.collect { describe(it) }
+        }
+        return value.class.declaredFields.findAll { !it.synthetic }.collectEntries { field ->
+            field.accessible = true
+            [field.name, describe(field.get(value))]
+        }
+    }
+}
@@ -47,6 +47,8 @@ import org.gradle.internal.resource.local.LocalFileStandInExternalResource
 import org.gradle.internal.resource.local.LocallyAvailableExternalResource
 import org.gradle.internal.serialize.InputStreamBackedDecoder
 import org.gradle.internal.serialize.OutputStreamBackedEncoder
+import org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedDecoder
+import org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedEncoder
 import org.gradle.util.AttributeTestUtil
 import org.gradle.util.TestUtil
 import spock.lang.Specification
@@ -94,6 +96,54 @@ class ModuleMetadataSerializerTest extends Specification {
 
     }
 
+    def "can write and re-read sample #sample.parentFile.name metadata file #sample.name with a string table"() {
+        given:
+        def metadata = parse(sample)
+        def baos = new ByteArrayOutputStream()
+        def encoder = new StringDeduplicatingKryoBackedEncoder(baos)
+        serializer.write(encoder, metadata.asImmutable(), Maps.newHashMap())
+        encoder.close()
+
+        when:
+        def decoder = new StringDeduplicatingKryoBackedDecoder(new ByteArrayInputStream(baos.toByteArray()))
+        def deserializedMetadata = serializer.read(decoder, moduleIdentifierFactory, Maps.newHashMap()).asImmutable()
+
+        then:
+        deserializedMetadata == metadata.asImmutable()
+
+        where:
+        sample << sampleFiles()
+    }
+
+    def "writes each distinct attribute container once"() {
+        given:
+        def attributeContainerSerializer = new DesugaredAttributeContainerSerializer(AttributeTestUtil.attributesFactory(), TestUtil.objectInstantiator())
+        def countingSerializer = Spy(attributeContainerSerializer)
+        def serializer = new ModuleMetadataSerializer(countingSerializer, mavenMetadataFactory, ivyMetadataFactory, new ModuleSourcesSerializer([:]))
+        def attributes = AttributeTestUtil.attributes(usage: "java-api", format: "jar")
+        def metadata = mavenMetadataFactory.create(DefaultModuleComponentIdentifier.newId(DefaultModuleIdentifier.newId('test', 'test-module'), '1.0'), [])
+        removeSources(metadata)
+        metadata.addVariant("apiElements", attributes)
+        metadata.addVariant("runtimeElements", attributes)
+        metadata.addVariant("otherElements", AttributeTestUtil.attributes(usage: "java-runtime"))
+
+        when:
+        def baos = new ByteArrayOutputStream()
+        serializer.write(new OutputStreamBackedEncoder(baos), metadata.asImmutable(), Maps.newHashMap())
+
+        then:
+        // component attributes, then the two distinct variant attributes
+        3 * countingSerializer.write(_, _)
+
+        when:
+        def variants = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(baos.toByteArray())), moduleIdentifierFactory, Maps.newHashMap()).asImmutable().variants
+
+        then:
+        3 * countingSerializer.read(_)
+        variants*.attributes == [attributes, attributes, AttributeTestUtil.attributes(usage: "java-runtime")]
+        variants[0].attributes.is(variants[1].attributes)
+    }
+
     private MutableModuleComponentResolveMetadata deserialize(byte[] serializedForm) {
         serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(serializedForm)), moduleIdentifierFactory, Maps.newHashMap())
     }
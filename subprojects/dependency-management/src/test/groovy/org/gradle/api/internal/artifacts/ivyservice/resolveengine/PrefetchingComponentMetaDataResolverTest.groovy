@@ -0,0 +1,250 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine
+
+import com.google.common.collect.ImmutableList
+import org.gradle.api.artifacts.ModuleIdentifier
+import org.gradle.api.artifacts.component.ComponentIdentifier
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleVersionLister
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelector
+import org.gradle.internal.component.external.descriptor.MavenScope
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.component.external.model.maven.MavenDependencyDescriptor
+import org.gradle.internal.component.external.model.maven.MavenDependencyType
+import org.gradle.internal.component.external.model.maven.MavenModuleResolveMetadata
+import org.gradle.internal.component.model.ComponentOverrideMetadata
+import org.gradle.internal.component.model.DependencyMetadata
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.resolve.resolver.ComponentMetaDataResolver
+import org.gradle.internal.resolve.resolver.DependencyToComponentIdResolver
+import org.gradle.internal.resolve.result.BuildableComponentIdResolveResult
+import org.gradle.internal.resolve.result.BuildableComponentResolveResult
+import org.gradle.internal.resolve.result.DefaultBuildableComponentResolveResult
+import spock.lang.Specification
+
+import java.util.concurrent.ConcurrentLinkedQueue
+
+import static org.gradle.internal.component.external.model.DefaultModuleComponentSelector.newSelector
+
+class PrefetchingComponentMetaDataResolverTest extends Specification {
+    def executorFactory = new DefaultExecutorFactory()
+    def versionSelectorScheme = new DefaultVersionSelectorScheme(new DefaultVersionComparator(), new VersionParser())
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    def modules = [:]
+    def resolved = new ConcurrentLinkedQueue<ComponentIdentifier>()
+    def delegate = new ComponentMetaDataResolver() {
+        @Override
+        void resolve(ComponentIdentifier identifier, ComponentOverrideMetadata componentOverrideMetadata, BuildableComponentResolveResult result) {
+            resolved.add(identifier)
+            def metadata = modules[identifier]
+            if (metadata == null) {
+                result.notFound(identifier)
+            } else {
+                result.resolved(metadata)
+            }
+        }
+
+        @Override
+        boolean isFetchingMetadataCheap(ComponentIdentifier identifier) {
+            return false
+        }
+    }
+
+    def listed = new ConcurrentLinkedQueue<ModuleIdentifier>()
+    def moduleVersionLister = { selector -> listed.add(selector.moduleIdentifier) } as ModuleVersionLister
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "prefetches transitive dependencies on fixed versions"() {
+        given:
+        module("a", dependency("b"), dependency("d", "[1.0,2.0)"), dependency("e", "1.0", MavenScope.Test), dependency("f", "1.0", MavenScope.Compile, MavenDependencyType.OPTIONAL_DEPENDENCY))
+        module("b", dependency("c"))
+        module("c")
+        def resolver = resolver(100)
+
+        when:
+        resolve(resolver, "a")
+        resolver.stop()
+
+        then:
+        resolved as Set == [id("a"), id("b"), id("c")] as Set
+        resolver.prefetchCount == 3
+        buildOperationExecutor.operations*.displayName.containsAll(["Prefetch metadata of org:b:1.0", "Prefetch metadata of org:c:1.0"])
+    }
+
+    def "prefetches version listings of modules with dynamic dependencies"() {
+        given:
+        module("a", dependency("b"), dependency("d", "[1.0,2.0)"))
+        module("b", dependency("d", "1.+"), dependency("e", "latest.release"))
+        def resolver = resolver(100)
+
+        when:
+        resolve(resolver, "a")
+        resolver.stop()
+
+        then:
+        resolved as Set == [id("a"), id("b")] as Set
+        listed.size() == 2
+        listed as Set == [moduleId("d"), moduleId("e")] as Set
+        resolver.prefetchCount == 3
+        buildOperationExecutor.operations*.displayName.containsAll(["Prefetch versions of org:d", "Prefetch versions of org:e"])
+    }
+
+    def "does not prefetch version listings of a module once a version of the module has been selected"() {
+        given:
+        module("a", dependency("d", "[1.0,2.0)"))
+        def componentIdResolver = Mock(DependencyToComponentIdResolver)
+        def dependency = Stub(DependencyMetadata) {
+            getSelector() >> newSelector(moduleId("d"), "[1.0,2.0)")
+        }
+        def acceptor = Stub(VersionSelector) {
+            isDynamic() >> true
+        }
+        def result = Stub(BuildableComponentIdResolveResult)
+        def resolver = resolver(100)
+
+        when:
+        resolver.awaitingVersionListings(componentIdResolver).resolve(dependency, acceptor, null, result)
+
+        then:
+        1 * componentIdResolver.resolve(dependency, acceptor, null, result)
+
+        when:
+        resolve(resolver, "a")
+        resolver.stop()
+
+        then:
+        listed.empty
+        resolver.prefetchCount == 0
+    }
+
+    def "prefetches each component once"() {
+        given:
+        module("a", dependency("b"), dependency("c"))
+        module("b", dependency("c"))
+        module("c", dependency("b"))
+        def resolver = resolver(100)
+
+        when:
+        resolve(resolver, "a")
+        resolver.stop()
+
+        then:
+        resolved.count { it == id("b") } == 1
+        resolved.count { it == id("c") } == 1
+        resolver.prefetchCount == 2
+    }
+
+    def "does not prefetch more than the maximum number of components"() {
+        given:
+        module("a", dependency("b"), dependency("c"), dependency("d"))
+        module("b")
+        module("c")
+        module("d")
+        def resolver = resolver(2)
+
+        when:
+        resolve(resolver, "a")
+        resolver.stop()
+
+        then:
+        resolved.size() == 3
+        resolver.prefetchCount == 2
+    }
+
+    def "resolves a component that has already been prefetched"() {
+        given:
+        module("a", dependency("b"))
+        module("b")
+        def resolver = resolver(100)
+
+        when:
+        resolve(resolver, "a")
+        def result = resolve(resolver, "b")
+        resolver.stop()
+
+        then:
+        result.metadata == modules[id("b")]
+    }
+
+    def "ignores components that cannot be prefetched"() {
+        given:
+        module("a", dependency("missing"))
+        def resolver = resolver(100)
+
+        when:
+        resolve(resolver, "a")
+        resolver.stop()
+        def result = resolve(resolver, "missing")
+
+        then:
+        result.failure != null
+    }
+
+    def "does not prefetch after it has been stopped"() {
+        given:
+        module("a", dependency("b"))
+        module("b")
+        def resolver = resolver(100)
+
+        when:
+        resolver.stop()
+        resolve(resolver, "a")
+
+        then:
+        resolved as List == [id("a")]
+        resolver.prefetchCount == 0
+    }
+
+    private PrefetchingComponentMetaDataResolver resolver(int maxPrefetches) {
+        return new PrefetchingComponentMetaDataResolver(delegate, moduleVersionLister, versionSelectorScheme, buildOperationExecutor, executorFactory.create("test", 2), maxPrefetches)
+    }
+
+    private DefaultBuildableComponentResolveResult resolve(PrefetchingComponentMetaDataResolver resolver, String name) {
+        def result = new DefaultBuildableComponentResolveResult()
+        resolver.resolve(id(name), Stub(ComponentOverrideMetadata), result)
+        return result
+    }
+
+    private void module(String name, MavenDependencyDescriptor... dependencies) {
+        def metadata = Stub(MavenModuleResolveMetadata) {
+            getId() >> id(name)
+            getDependencies() >> ImmutableList.copyOf(dependencies)
+            getVariants() >> ImmutableList.of()
+        }
+        modules[id(name)] = metadata
+    }
+
+    private static MavenDependencyDescriptor dependency(String name, String version = "1.0", MavenScope scope = MavenScope.Compile, MavenDependencyType type = MavenDependencyType.DEPENDENCY) {
+        return new MavenDependencyDescriptor(scope, type, newSelector(DefaultModuleIdentifier.newId("org", name), version), null, [])
+    }
+
+    private static ModuleIdentifier moduleId(String name) {
+        return DefaultModuleIdentifier.newId("org", name)
+    }
+
+    private static ComponentIdentifier id(String name) {
+        return DefaultModuleComponentIdentifier.newId(DefaultModuleIdentifier.newId("org", name), "1.0")
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes
+
+import spock.lang.Specification
+
+class DenseIdentifierSetTest extends Specification {
+    def table = new DenseIdentifierTable<String>()
+
+    def "behaves like a set"() {
+        def set = DenseIdentifierSet.of(table, ["a", "b", "c", "b"])
+
+        expect:
+        set.size() == 3
+        set.contains("b")
+        !set.contains("d")
+        set as List == ["a", "b", "c"]
+        set == ["c", "b", "a"] as Set
+        ["c", "b", "a"] as Set == set
+        set.hashCode() == (["a", "b", "c"] as Set).hashCode()
+        DenseIdentifierSet.of(table, ["c", "a", "b"]) == set
+        DenseIdentifierSet.of(table, ["a", "b"]) != set
+    }
+
+    def "computes unions"() {
+        def first = DenseIdentifierSet.of(table, ["a", "b"])
+        def second = DenseIdentifierSet.of(table, ["b", "c"])
+
+        expect:
+        DenseIdentifierSet.union([first, second]) instanceof DenseIdentifierSet
+        DenseIdentifierSet.union([first, second]) == ["a", "b", "c"] as Set
+        DenseIdentifierSet.union([first, ["d"] as Set]) == ["a", "b", "d"] as Set
+        DenseIdentifierSet.union([first, DenseIdentifierSet.of(new DenseIdentifierTable<String>(), ["e"])]) == ["a", "b", "e"] as Set
+    }
+
+    def "computes intersections"() {
+        def first = DenseIdentifierSet.of(table, ["a", "b", "c"])
+        def second = DenseIdentifierSet.of(table, ["b", "c", "d"])
+
+        expect:
+        DenseIdentifierSet.intersection(first, second) instanceof DenseIdentifierSet
+        DenseIdentifierSet.intersection(first, second) == ["b", "c"] as Set
+        DenseIdentifierSet.intersection(first, DenseIdentifierSet.of(table, ["d"])).isEmpty()
+        DenseIdentifierSet.intersection(first, ["c", "e"] as Set) == ["c"] as Set
+    }
+
+    def "reuses a set from the same table"() {
+        def set = DenseIdentifierSet.of(table, ["a", "b"])
+
+        expect:
+        DenseIdentifierSet.of(table, set).is(set)
+        !DenseIdentifierSet.of(new DenseIdentifierTable<String>(), set).is(set)
+    }
+
+    def "assigns ids in order"() {
+        expect:
+        (0..199).each { assert table.idOf("value-$it" as String) == it }
+        table.idOf("value-10") == 10
+        table.find("value-199") == 199
+        table.find("unknown") == -1
+        table.valueOf(150) == "value-150"
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.transform
+
+import org.gradle.cache.internal.TestCrossBuildInMemoryCacheFactory
+import org.gradle.internal.Try
+import org.gradle.internal.execution.UnitOfWork
+import org.gradle.internal.file.FileAccessTracker
+import org.gradle.internal.serialize.BaseSerializerFactory
+import org.gradle.internal.serialize.ListSerializer
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.testfixtures.internal.TestInMemoryPersistentIndexedCache
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.function.Function
+
+class IndexedTransformationIdentityCacheTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+    def baseDir = tmpDir.file("transforms")
+    def workspace = baseDir.file("workspace")
+    def index = new TestInMemoryPersistentIndexedCache<String, List<String>>(new ListSerializer<String>(BaseSerializerFactory.STRING_SERIALIZER))
+    def fileAccessTracker = Mock(FileAccessTracker)
+    def identity = Stub(UnitOfWork.Identity) {
+        getUniqueId() >> "workspace"
+    }
+    def inputArtifact = tmpDir.file("input")
+
+    def "answers hits of a new in-memory cache from the index"() {
+        def factory = Mock(Function)
+        def builder = TransformationResult.builder()
+        builder.addOutput(workspace.file("transformed/output.jar"))
+        builder.addInputArtifact()
+        builder.addInputArtifact("some/part")
+        def result = Try.successful(builder.build())
+
+        when:
+        def value = cache().get(identity, factory)
+
+        then:
+        1 * factory.apply(identity) >> { workspace.file("transformed/output.jar").createFile(); result }
+        0 * _
+        value == result
+
+        when:
+        def indexed = cache().getIfPresent(identity)
+
+        then:
+        1 * fileAccessTracker.markAccessed(workspace)
+        0 * _
+        indexed.get().resolveOutputsForInputArtifact(inputArtifact) == [workspace.file("transformed/output.jar"), inputArtifact, new File(inputArtifact, "some/part")]
+
+        when:
+        indexed = cache().get(identity, factory)
+
+        then:
+        1 * fileAccessTracker.markAccessed(workspace)
+        0 * _
+        indexed.get().resolveOutputsForInputArtifact(inputArtifact).size() == 3
+    }
+
+    def "indexes outputs relative to the workspace"() {
+        def builder = TransformationResult.builder()
+        builder.addOutput(workspace.file("transformed"))
+        builder.addOutput(workspace.file("transformed/output.jar"))
+        builder.addInputArtifact("some/part")
+        workspace.createDir()
+
+        when:
+        cache().put(identity, Try.successful(builder.build()))
+
+        then:
+        index.getIfPresent("workspace") == ["o/", "o/output.jar", "i/some/part"]
+
+        when:
+        def movedBaseDir = tmpDir.file("moved")
+        def movedWorkspace = movedBaseDir.file("workspace")
+        movedWorkspace.file("transformed/output.jar").createFile()
+        def indexed = new IndexedTransformationIdentityCache(new TestCrossBuildInMemoryCacheFactory.TestCache<UnitOfWork.Identity, Try<TransformationResult>>(), index, movedBaseDir, fileAccessTracker)
+            .getIfPresent(identity)
+
+        then:
+        1 * fileAccessTracker.markAccessed(movedWorkspace)
+        indexed.get().resolveOutputsForInputArtifact(inputArtifact) == [movedWorkspace.file("transformed"), movedWorkspace.file("transformed/output.jar"), new File(inputArtifact, "some/part")]
+    }
+
+    def "ignores indexed result when the workspace has been removed"() {
+        def builder = TransformationResult.builder()
+        builder.addOutput(workspace.file("transformed"))
+        cache().put(identity, Try.successful(builder.build()))
+
+        expect:
+        index.getIfPresent("workspace") != null
+        cache().getIfPresent(identity) == null
+        index.getIfPresent("workspace") == null
+    }
+
+    def "ignores indexed result when a produced output has been removed"() {
+        def builder = TransformationResult.builder()
+        builder.addOutput(workspace.file("transformed/output.jar"))
+        builder.addOutput(workspace.file("transformed/other.jar"))
+        workspace.file("transformed/output.jar").createFile()
+        def otherOutput = workspace.file("transformed/other.jar").createFile()
+        cache().put(identity, Try.successful(builder.build()))
+
+        when:
+        otherOutput.delete()
+        def indexed = cache().getIfPresent(identity)
+
+        then:
+        0 * fileAccessTracker._
+        indexed == null
+        index.getIfPresent("workspace") == null
+    }
+
+    def "does not index failures"() {
+        def failure = Try.failure(new RuntimeException("broken"))
+        def cache = cache()
+        workspace.createDir()
+
+        when:
+        def value = cache.get(identity, { failure } as Function)
+
+        then:
+        value == failure
+        cache.getIfPresent(identity) == failure
+        index.getIfPresent("workspace") == null
+        cache().getIfPresent(identity) == null
+    }
+
+    private IndexedTransformationIdentityCache cache() {
+        return new IndexedTransformationIdentityCache(new TestCrossBuildInMemoryCacheFactory.TestCache<UnitOfWork.Identity, Try<TransformationResult>>(), index, baseDir, fileAccessTracker)
+    }
+}
@@ -119,6 +119,26 @@ class TransformationResultSerializerTest extends Specification {
         loadedResults.resolveOutputsForInputArtifact(inputArtifact) == resultInNewOutputDir
     }
 
+    def "converts results to paths relative to the output directory"() {
+        def newOutputDir = file("newOutputDir")
+        def result = serializer.writeToFile(resultFile, ImmutableList.of(
+            inputArtifact.file("inside"),
+            inputArtifact,
+            outputDir,
+            outputDir.file("output.txt")
+        ))
+
+        when:
+        def resultPaths = TransformationResultSerializer.writeResultPaths(outputDir, result)
+        then:
+        resultPaths == resultFile.readLines()
+
+        when:
+        def loadedResults = TransformationResultSerializer.readResultPaths(newOutputDir, resultPaths)
+        then:
+        loadedResults.resolveOutputsForInputArtifact(inputArtifact) == [inputArtifact.file("inside"), inputArtifact, newOutputDir, newOutputDir.file("output.txt")]
+    }
+
     private void assertCanWriteAndReadResult(File... files) {
         ImmutableList<File> result = ImmutableList.<File>builder().add(files).build()
         def initialResults = serializer.writeToFile(resultFile, result)
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.transform
+
+import org.gradle.api.artifacts.component.ComponentArtifactIdentifier
+import org.gradle.api.artifacts.component.ComponentIdentifier
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ResolvableArtifact
+import org.gradle.api.internal.attributes.ImmutableAttributes
+import org.gradle.internal.operations.BuildOperationQueue
+import org.gradle.internal.operations.RunnableBuildOperation
+import spock.lang.Specification
+
+class TransformedProjectArtifactSetTest extends Specification {
+    def operationQueue = Mock(BuildOperationQueue)
+
+    def "queues each artifact that has not been transformed yet"() {
+        def transformed = Mock(TransformationNode)
+        def notTransformed = Mock(TransformationNode)
+        def artifactSet = new TransformedProjectArtifactSet(Stub(ComponentIdentifier), ImmutableAttributes.EMPTY, [], [transformed, notTransformed])
+        def operations = []
+
+        when:
+        artifactSet.startFinalization(operationQueue, true)
+
+        then:
+        1 * transformed.isTransformed() >> true
+        1 * notTransformed.isTransformed() >> false
+        1 * operationQueue.add(_) >> { RunnableBuildOperation operation -> operations << operation }
+        0 * _
+
+        when:
+        operations[0].run(null)
+
+        then:
+        1 * notTransformed.executeIfNotAlready()
+        0 * _
+    }
+
+    def "describes the transformed artifact"() {
+        def node = Stub(TransformationNode) {
+            isTransformed() >> false
+            getInputArtifact() >> Stub(ResolvableArtifact) {
+                getId() >> Stub(ComponentArtifactIdentifier) {
+                    getDisplayName() >> "lib.jar (project :lib)"
+                }
+            }
+        }
+        def artifactSet = new TransformedProjectArtifactSet(Stub(ComponentIdentifier), ImmutableAttributes.EMPTY, [], [node])
+        RunnableBuildOperation operation = null
+
+        when:
+        artifactSet.startFinalization(operationQueue, true)
+
+        then:
+        1 * operationQueue.add(_) >> { RunnableBuildOperation op -> operation = op }
+        operation.description().build().displayName == "Execute transform of lib.jar (project :lib)"
+    }
+}
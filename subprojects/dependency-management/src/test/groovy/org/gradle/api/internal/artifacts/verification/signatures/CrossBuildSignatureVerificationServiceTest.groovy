@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.verification.signatures
+
+import org.gradle.cache.internal.DefaultCacheRepository
+import org.gradle.cache.internal.DefaultInMemoryCacheDecoratorFactory
+import org.gradle.cache.internal.TestCrossBuildInMemoryCacheFactory
+import org.gradle.cache.internal.scopes.DefaultCacheScopeMapping
+import org.gradle.cache.internal.scopes.DefaultGlobalScopedCache
+import org.gradle.internal.hash.FileHasher
+import org.gradle.internal.hash.Hashing
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.testfixtures.internal.TestInMemoryCacheFactory
+import org.gradle.util.GradleVersion
+import org.gradle.util.internal.BuildCommencedTimeProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class CrossBuildSignatureVerificationServiceTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+    def cachesDir = tmpDir.file("caches")
+    def globalScopedCache = new DefaultGlobalScopedCache(cachesDir, new DefaultCacheRepository(new DefaultCacheScopeMapping(cachesDir, GradleVersion.current()), new TestInMemoryCacheFactory()))
+    def decoratorFactory = new DefaultInMemoryCacheDecoratorFactory(false, new TestCrossBuildInMemoryCacheFactory())
+    def fileHasher = Stub(FileHasher) {
+        hash(_ as File) >> { File file -> Hashing.sha1().hashBytes(file.bytes) }
+    }
+    def timeProvider = Stub(BuildCommencedTimeProvider) {
+        getCurrentTime() >> 0L
+    }
+    def delegate = Mock(SignatureVerificationService)
+
+    def "reuses the result of verifying the same artifact in another location"() {
+        def service = service()
+        def first = artifact("first", "content")
+        def second = artifact("second", "content")
+        def result = Mock(SignatureVerificationResultBuilder)
+
+        when:
+        service.verify(first.origin, first.signature, ["trusted"] as Set, ["ignored"] as Set, result)
+
+        then:
+        1 * delegate.verify(first.origin, first.signature, ["trusted"] as Set, ["ignored"] as Set, _) >> { args -> args[4].ignored("ignored") }
+        1 * result.ignored("ignored")
+
+        when:
+        service.verify(second.origin, second.signature, ["trusted"] as Set, ["ignored"] as Set, result)
+
+        then:
+        0 * delegate.verify(*_)
+        1 * result.ignored("ignored")
+    }
+
+    def "shares results between builds"() {
+        def artifact = artifact("artifact", "content")
+
+        when:
+        service().verify(artifact.origin, artifact.signature, [] as Set, ["ignored"] as Set, Stub(SignatureVerificationResultBuilder))
+        service().verify(artifact.origin, artifact.signature, [] as Set, ["ignored"] as Set, Stub(SignatureVerificationResultBuilder))
+
+        then:
+        1 * delegate.verify(*_)
+    }
+
+    def "verifies again when the artifact or the expected keys change"() {
+        def service = service()
+        def artifact = artifact("artifact", "content")
+        def changed = artifact("changed", "other content")
+
+        when:
+        service.verify(artifact.origin, artifact.signature, [] as Set, [] as Set, Stub(SignatureVerificationResultBuilder))
+        service.verify(changed.origin, changed.signature, [] as Set, [] as Set, Stub(SignatureVerificationResultBuilder))
+        service.verify(artifact.origin, artifact.signature, ["trusted"] as Set, [] as Set, Stub(SignatureVerificationResultBuilder))
+
+        then:
+        3 * delegate.verify(*_)
+    }
+
+    private CrossBuildSignatureVerificationService service() {
+        return new CrossBuildSignatureVerificationService(delegate, fileHasher, globalScopedCache, decoratorFactory, timeProvider, false, true, Hashing.signature(getClass()))
+    }
+
+    private Map<String, File> artifact(String dir, String content) {
+        def origin = tmpDir.createFile(dir, "lib.jar")
+        origin.text = content
+        def signature = tmpDir.createFile(dir, "lib.jar.asc")
+        signature.text = "signature"
+        return [origin: origin, signature: signature]
+    }
+}
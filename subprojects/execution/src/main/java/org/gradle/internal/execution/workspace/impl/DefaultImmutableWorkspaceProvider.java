@@ -18,7 +18,9 @@
 
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.cache.CacheBuilder;
+import org.gradle.cache.CleanableStore;
 import org.gradle.cache.CleanupAction;
+import org.gradle.cache.CleanupProgressMonitor;
 import org.gradle.cache.FileLockManager;
 import org.gradle.cache.PersistentCache;
 import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
@@ -33,6 +35,7 @@
 
 import java.io.Closeable;
 import java.io.File;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import static org.gradle.cache.internal.LeastRecentlyUsedCacheCleanup.DEFAULT_MAX_AGE_IN_DAYS_FOR_RECREATABLE_CACHE_ENTRIES;
@@ -75,7 +78,8 @@ public static DefaultImmutableWorkspaceProvider withBuiltInHistory(
             cacheBuilder,
             fileAccessTimeJournal,
             cache -> new DefaultExecutionHistoryStore(() -> cache, inMemoryCacheDecoratorFactory, stringInterner, classLoaderHasher),
-            treeDepthToTrackAndCleanup
+            treeDepthToTrackAndCleanup,
+            __ -> {}
         );
     }
 
@@ -83,12 +87,25 @@ public static DefaultImmutableWorkspaceProvider withExternalHistory(
         CacheBuilder cacheBuilder,
         FileAccessTimeJournal fileAccessTimeJournal,
         ExecutionHistoryStore executionHistoryStore
+    ) {
+        return withExternalHistory(cacheBuilder, fileAccessTimeJournal, executionHistoryStore, __ -> {});
+    }
+
+    /**
+     * Creates a workspace provider that notifies the given listener with the path of each workspace removed by the cleanup of the cache.
+     */
+    public static DefaultImmutableWorkspaceProvider withExternalHistory(
+        CacheBuilder cacheBuilder,
+        FileAccessTimeJournal fileAccessTimeJournal,
+        ExecutionHistoryStore executionHistoryStore,
+        Consumer<String> workspaceRemovalListener
     ) {
         return new DefaultImmutableWorkspaceProvider(
             cacheBuilder,
             fileAccessTimeJournal,
             __ -> executionHistoryStore,
-            DEFAULT_FILE_TREE_DEPTH_TO_TRACK_AND_CLEANUP
+            DEFAULT_FILE_TREE_DEPTH_TO_TRACK_AND_CLEANUP,
+            workspaceRemovalListener
         );
     }
 
@@ -96,10 +113,11 @@ private DefaultImmutableWorkspaceProvider(
         CacheBuilder cacheBuilder,
         FileAccessTimeJournal fileAccessTimeJournal,
         Function<PersistentCache, ExecutionHistoryStore> historyFactory,
-        int treeDepthToTrackAndCleanup
+        int treeDepthToTrackAndCleanup,
+        Consumer<String> workspaceRemovalListener
     ) {
         PersistentCache cache = cacheBuilder
-            .withCleanup(createCleanupAction(fileAccessTimeJournal, treeDepthToTrackAndCleanup))
+            .withCleanup(createCleanupAction(fileAccessTimeJournal, treeDepthToTrackAndCleanup, workspaceRemovalListener))
             .withLockOptions(mode(FileLockManager.LockMode.OnDemand)) // Lock on demand
             .open();
         this.cache = cache;
@@ -108,14 +126,18 @@ private DefaultImmutableWorkspaceProvider(
         this.executionHistoryStore = historyFactory.apply(cache);
     }
 
-    private static CleanupAction createCleanupAction(FileAccessTimeJournal fileAccessTimeJournal, int treeDepthToTrackAndCleanup) {
-        return new LeastRecentlyUsedCacheCleanup(
+    private static CleanupAction createCleanupAction(FileAccessTimeJournal fileAccessTimeJournal, int treeDepthToTrackAndCleanup, Consumer<String> workspaceRemovalListener) {
+        return new WorkspaceCleanup(
             new SingleDepthFilesFinder(treeDepthToTrackAndCleanup),
             fileAccessTimeJournal,
-            DEFAULT_MAX_AGE_IN_DAYS_FOR_RECREATABLE_CACHE_ENTRIES
+            workspaceRemovalListener
         );
     }
 
+    public File getBaseDirectory() {
+        return baseDirectory;
+    }
+
     @Override
     public <T> T withWorkspace(String path, WorkspaceAction<T> action) {
         return cache.withFileLock(() -> {
@@ -129,4 +151,26 @@ public <T> T withWorkspace(String path, WorkspaceAction<T> action) {
     public void close() {
         cache.close();
     }
+
+    private static class WorkspaceCleanup extends LeastRecentlyUsedCacheCleanup {
+        private final Consumer<String> workspaceRemovalListener;
+        private File baseDirectory;
+
+        public WorkspaceCleanup(SingleDepthFilesFinder eligibleFilesFinder, FileAccessTimeJournal fileAccessTimeJournal, Consumer<String> workspaceRemovalListener) {
+            super(eligibleFilesFinder, fileAccessTimeJournal, DEFAULT_MAX_AGE_IN_DAYS_FOR_RECREATABLE_CACHE_ENTRIES);
+            this.workspaceRemovalListener = workspaceRemovalListener;
+        }
+
+        @Override
+        public void clean(CleanableStore cleanableStore, CleanupProgressMonitor progressMonitor) {
+            baseDirectory = cleanableStore.getBaseDir();
+            super.clean(cleanableStore, progressMonitor);
+        }
+
+        @Override
+        protected void handleDeletion(File file) {
+            super.handleDeletion(file);
+            workspaceRemovalListener.accept(baseDirectory.toPath().relativize(file.toPath()).toString());
+        }
+    }
 }
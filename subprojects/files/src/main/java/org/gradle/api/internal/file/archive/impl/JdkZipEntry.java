@@ -81,4 +81,14 @@ public <T> T withInputStream(InputStreamAction<T> action) throws IOException {
     public int size() {
         return (int) entry.getSize();
     }
+
+    @Override
+    public long getCrc() {
+        return entry.getCrc();
+    }
+
+    @Override
+    public long getCompressedSize() {
+        return entry.getCompressedSize();
+    }
 }
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.hash;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Hashes regular files by reading them through a {@link FileChannel}.
+ *
+ * <ul>
+ *     <li>Small files are read in one go into a heap buffer.</li>
+ *     <li>Larger files are read through pooled direct buffers, which avoids copying the content through the Java heap.</li>
+ *     <li>Very large files are hashed from memory-mapped regions, when mapping is enabled.
+ *     If the file is truncated while it is mapped, it is read again through direct buffers.</li>
+ * </ul>
+ *
+ * Produces the same hashes as a {@link DefaultFileHasher} using a {@link DefaultStreamHasher}, so both can be used with the same file hash cache.
+ */
+public class ChannelFileHasher implements FileHasher {
+    // Use the signature of the stream hasher, so the hashes are the same as the ones created by DefaultFileHasher
+    private static final HashCode SIGNATURE = Hashing.signature(DefaultStreamHasher.class);
+
+    static final int SMALL_FILE_SIZE = 64 * 1024;
+    static final int DIRECT_BUFFER_SIZE = 256 * 1024;
+    private static final long MAPPED_FILE_SIZE = 64L * 1024 * 1024;
+    private static final long MAPPED_REGION_SIZE = 64L * 1024 * 1024;
+
+    private final boolean useMemoryMapping;
+    private final long mappedFileSize;
+    private final long mappedRegionSize;
+    private final Queue<byte[]> heapBuffers = new ArrayBlockingQueue<byte[]>(16);
+    private final Queue<ByteBuffer> directBuffers = new ArrayBlockingQueue<ByteBuffer>(16);
+
+    /**
+     * @param useMemoryMapping whether to map very large files into memory for hashing.
+     * This should be disabled on platforms where a mapped file cannot be deleted until the mapping has been garbage collected.
+     */
+    public ChannelFileHasher(boolean useMemoryMapping) {
+        this(useMemoryMapping, MAPPED_FILE_SIZE, MAPPED_REGION_SIZE);
+    }
+
+    ChannelFileHasher(boolean useMemoryMapping, long mappedFileSize, long mappedRegionSize) {
+        this.useMemoryMapping = useMemoryMapping;
+        this.mappedFileSize = mappedFileSize;
+        this.mappedRegionSize = mappedRegionSize;
+    }
+
+    @Override
+    public HashCode hash(File file) {
+        return hash(file, -1);
+    }
+
+    @Override
+    public HashCode hash(File file, long length, long lastModified) {
+        return hash(file, length);
+    }
+
+    private HashCode hash(File file, long expectedLength) {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            throw new UncheckedIOException(String.format("Failed to create MD5 hash for file '%s' as it does not exist.", file), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Failed to create MD5 hash for file '%s'.", file), e);
+        }
+        try {
+            PrimitiveHasher hasher = Hashing.newPrimitiveHasher();
+            hasher.putHash(SIGNATURE);
+            // The length reported by the caller may be stale, so only use it to pick the strategy
+            long length = expectedLength >= 0 ? expectedLength : channel.size();
+            if (length < SMALL_FILE_SIZE) {
+                hashSmallFile(channel, hasher);
+            } else if (useMemoryMapping && length >= mappedFileSize) {
+                try {
+                    hashMappedFile(channel, hasher);
+                } catch (InternalError e) {
+                    // Accessing a mapped region fails with an InternalError when the file has been truncated, so start over without mapping
+                    hasher = Hashing.newPrimitiveHasher();
+                    hasher.putHash(SIGNATURE);
+                    channel.position(0);
+                    hashWithDirectBuffer(channel, hasher);
+                }
+            } else {
+                hashWithDirectBuffer(channel, hasher);
+            }
+            return hasher.hash();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create MD5 hash for file content.", e);
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Ignored
+            }
+        }
+    }
+
+    private void hashSmallFile(FileChannel channel, PrimitiveHasher hasher) throws IOException {
+        byte[] buffer = takeHeapBuffer();
+        try {
+            ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+            while (true) {
+                int nread = channel.read(wrapped);
+                if (nread < 0) {
+                    break;
+                }
+                if (!wrapped.hasRemaining()) {
+                    // The file has grown, hash what we have and continue with the rest
+                    hasher.putBytes(buffer, 0, wrapped.position());
+                    castBuffer(wrapped).clear();
+                }
+            }
+            hasher.putBytes(buffer, 0, wrapped.position());
+        } finally {
+            heapBuffers.offer(buffer);
+        }
+    }
+
+    private void hashWithDirectBuffer(FileChannel channel, PrimitiveHasher hasher) throws IOException {
+        ByteBuffer buffer = takeDirectBuffer();
+        try {
+            while (channel.read(buffer) >= 0) {
+                castBuffer(buffer).flip();
+                hasher.putBytes(buffer);
+                castBuffer(buffer).clear();
+            }
+        } finally {
+            castBuffer(buffer).clear();
+            directBuffers.offer(buffer);
+        }
+    }
+
+    private void hashMappedFile(FileChannel channel, PrimitiveHasher hasher) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        while (position < size) {
+            long regionSize = Math.min(mappedRegionSize, size - position);
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, regionSize);
+            hasher.putBytes(region);
+            position += regionSize;
+        }
+        // Hash anything appended to the file while it was being hashed, like reading the file as a stream would
+        channel.position(size);
+        hashWithDirectBuffer(channel, hasher);
+    }
+
+    private byte[] takeHeapBuffer() {
+        byte[] buffer = heapBuffers.poll();
+        if (buffer == null) {
+            buffer = new byte[SMALL_FILE_SIZE];
+        }
+        return buffer;
+    }
+
+    private ByteBuffer takeDirectBuffer() {
+        ByteBuffer buffer = directBuffers.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(DIRECT_BUFFER_SIZE);
+        }
+        return buffer;
+    }
+
+    /**
+     * Without this cast, when the code compiled by Java 9+ is executed on Java 8, it will throw
+     * java.lang.NoSuchMethodError: Method flip()Ljava/nio/ByteBuffer; does not exist in class java.nio.ByteBuffer
+     */
+    @SuppressWarnings("RedundantCast")
+    private static <T extends Buffer> Buffer castBuffer(T byteBuffer) {
+        return (Buffer) byteBuffer;
+    }
+}
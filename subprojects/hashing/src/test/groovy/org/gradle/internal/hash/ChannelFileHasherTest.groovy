@@ -0,0 +1,81 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.hash
+
+import spock.lang.Specification
+import spock.lang.TempDir
+
+class ChannelFileHasherTest extends Specification {
+    @TempDir
+    File tmpDir
+
+    def streamHasher = new DefaultFileHasher(new DefaultStreamHasher())
+
+    def "can hash file"() {
+        def file = new File(tmpDir, "file.txt")
+        file.text = "hello"
+
+        expect:
+        new ChannelFileHasher(true).hash(file).toString() == "af67a92e9f73b51572e9b94e343d2840"
+    }
+
+    def "creates the same hash as the stream hasher for file of #size bytes with mapping #useMemoryMapping"() {
+        def file = new File(tmpDir, "file.bin")
+        def content = new byte[size]
+        new Random(size).nextBytes(content)
+        file.bytes = content
+        // Use small mapped regions, so the mapped path is exercised without creating huge files
+        def hasher = new ChannelFileHasher(useMemoryMapping, 256 * 1024, 100 * 1024)
+
+        expect:
+        hasher.hash(file) == streamHasher.hash(file)
+        hasher.hash(file, size, file.lastModified()) == streamHasher.hash(file)
+        // A stale length still hashes the actual content
+        hasher.hash(file, 0, file.lastModified()) == streamHasher.hash(file)
+
+        where:
+        [size, useMemoryMapping] << [
+            [0, 1, 8191, 8192, ChannelFileHasher.SMALL_FILE_SIZE - 1, ChannelFileHasher.SMALL_FILE_SIZE, ChannelFileHasher.DIRECT_BUFFER_SIZE + 17, 1024 * 1024 + 3],
+            [true, false]
+        ].combinations()
+    }
+
+    def "can reuse buffers across files"() {
+        def hasher = new ChannelFileHasher(false)
+        def files = (1..20).collect { index ->
+            def file = new File(tmpDir, "file-${index}.bin")
+            def content = new byte[index * 20_000]
+            new Random(index).nextBytes(content)
+            file.bytes = content
+            file
+        }
+
+        expect:
+        files.every { hasher.hash(it) == streamHasher.hash(it) }
+    }
+
+    def "fails for missing file"() {
+        def file = new File(tmpDir, "missing.txt")
+
+        when:
+        new ChannelFileHasher(true).hash(file)
+
+        then:
+        def e = thrown(UncheckedIOException)
+        e.message == "Failed to create MD5 hash for file '${file}' as it does not exist."
+    }
+}
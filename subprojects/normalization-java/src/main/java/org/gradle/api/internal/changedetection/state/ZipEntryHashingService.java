@@ -0,0 +1,161 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.gradle.api.internal.file.archive.ZipEntry;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hashing;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Shared state used by {@link ZipHasher}s to hash the entries of zip files.
+ *
+ * <ul>
+ *     <li>With an executor, the entries of a zip file are hashed in parallel.</li>
+ *     <li>With an entry hash cache, the hash of an unchanged entry is reused when a rebuilt zip file is hashed again.
+ *     Entries are identified by their name, CRC, size and compressed size, as recorded in the zip file.</li>
+ * </ul>
+ */
+public class ZipEntryHashingService implements Closeable {
+    private static final ZipEntryHashingService SEQUENTIAL = new ZipEntryHashingService(null, 0);
+    private static final HashCode NO_HASH = Hashing.signature(ZipEntryHashingService.class.getName() + " : no hash");
+
+    private final ExecutorService executor;
+    private final Cache<EntryKey, HashCode> entryHashes;
+
+    private ZipEntryHashingService(@Nullable ExecutorService executor, long maxCachedEntries) {
+        this.executor = executor;
+        this.entryHashes = maxCachedEntries > 0
+            ? CacheBuilder.newBuilder().maximumSize(maxCachedEntries).build()
+            : null;
+    }
+
+    /**
+     * Hashes the entries of a zip file one after another on the calling thread, without caching entry hashes.
+     */
+    public static ZipEntryHashingService sequential() {
+        return SEQUENTIAL;
+    }
+
+    /**
+     * @param executor the executor to hash entries in parallel with, or {@code null} to hash them on the calling thread. Shut down when this service is closed.
+     * @param maxCachedEntries the maximum number of entry hashes to keep, or 0 to not cache entry hashes.
+     */
+    public static ZipEntryHashingService create(@Nullable ExecutorService executor, long maxCachedEntries) {
+        if (executor == null && maxCachedEntries <= 0) {
+            return SEQUENTIAL;
+        }
+        return new ZipEntryHashingService(executor, maxCachedEntries);
+    }
+
+    @Nullable
+    ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Returns the key of the given entry in the entry hash cache, or {@code null} if the hash of the entry cannot be cached.
+     */
+    @Nullable
+    EntryKey keyOf(HashCode configurationHash, String fullName, ZipEntry entry) {
+        if (entryHashes == null || !isCacheable(entry)) {
+            return null;
+        }
+        return new EntryKey(configurationHash, fullName, entry.getCrc(), entry.size(), entry.getCompressedSize());
+    }
+
+    /**
+     * Returns the cached hash of the given entry, {@link #NO_HASH} if the resource hasher ignored the entry, or {@code null} if the hash is not known.
+     */
+    @Nullable
+    HashCode getCachedHash(@Nullable EntryKey key) {
+        if (key == null) {
+            return null;
+        }
+        return entryHashes.getIfPresent(key);
+    }
+
+    void cacheHash(@Nullable EntryKey key, @Nullable HashCode hash) {
+        if (key == null) {
+            return;
+        }
+        entryHashes.put(key, hash == null ? NO_HASH : hash);
+    }
+
+    static boolean isNoHash(HashCode hash) {
+        return NO_HASH.equals(hash);
+    }
+
+    private static boolean isCacheable(ZipEntry entry) {
+        // Entries read from a stream may only know their CRC and sizes after their content has been read
+        return entry.getCrc() >= 0 && entry.size() >= 0 && entry.getCompressedSize() >= 0;
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    static class EntryKey {
+        private final HashCode configurationHash;
+        private final String fullName;
+        private final long crc;
+        private final int size;
+        private final long compressedSize;
+
+        private EntryKey(HashCode configurationHash, String fullName, long crc, int size, long compressedSize) {
+            this.configurationHash = configurationHash;
+            this.fullName = fullName;
+            this.crc = crc;
+            this.size = size;
+            this.compressedSize = compressedSize;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            EntryKey that = (EntryKey) o;
+            return crc == that.crc
+                && size == that.size
+                && compressedSize == that.compressedSize
+                && fullName.equals(that.fullName)
+                && configurationHash.equals(that.configurationHash);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = configurationHash.hashCode();
+            result = 31 * result + fullName.hashCode();
+            result = 31 * result + (int) (crc ^ (crc >>> 32));
+            result = 31 * result + size;
+            result = 31 * result + (int) (compressedSize ^ (compressedSize >>> 32));
+            return result;
+        }
+    }
+}
@@ -16,8 +16,10 @@
 
 package org.gradle.api.internal.changedetection.state;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Uninterruptibles;
 import org.apache.commons.io.FilenameUtils;
 import org.gradle.api.internal.file.archive.ZipEntry;
 import org.gradle.api.internal.file.archive.ZipInput;
@@ -42,9 +44,13 @@
 import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class ZipHasher implements RegularFileSnapshotContextHasher, ConfigurableNormalizer {
 
@@ -58,17 +64,32 @@ public static boolean isZipFile(final String name) {
 
     private final ResourceHasher resourceHasher;
     private final HashingExceptionReporter hashingExceptionReporter;
+    private final ZipEntryHashingService zipEntryHashingService;
+    private final HashCode configurationHash;
 
     public ZipHasher(ResourceHasher resourceHasher) {
+        this(resourceHasher, ZipEntryHashingService.sequential());
+    }
+
+    public ZipHasher(ResourceHasher resourceHasher, ZipEntryHashingService zipEntryHashingService) {
         this(
             resourceHasher,
-            (s, e) -> LOGGER.debug("Malformed archive '{}'. Falling back to full content hash instead of entry hashing.", s.getName(), e)
+            (s, e) -> LOGGER.debug("Malformed archive '{}'. Falling back to full content hash instead of entry hashing.", s.getName(), e),
+            zipEntryHashingService
         );
     }
 
     public ZipHasher(ResourceHasher resourceHasher, HashingExceptionReporter hashingExceptionReporter) {
+        this(resourceHasher, hashingExceptionReporter, ZipEntryHashingService.sequential());
+    }
+
+    public ZipHasher(ResourceHasher resourceHasher, HashingExceptionReporter hashingExceptionReporter, ZipEntryHashingService zipEntryHashingService) {
         this.resourceHasher = resourceHasher;
         this.hashingExceptionReporter = hashingExceptionReporter;
+        this.zipEntryHashingService = zipEntryHashingService;
+        Hasher hasher = Hashing.newHasher();
+        appendConfigurationToHasher(hasher);
+        this.configurationHash = hasher.hash();
     }
 
     @Nullable
@@ -102,11 +123,68 @@ private HashCode hashZipContents(RegularFileSnapshot zipFileSnapshot) {
     private List<FileSystemLocationFingerprint> fingerprintZipEntries(String zipFile) throws IOException {
         try (ZipInput input = FileZipInput.create(new File(zipFile))) {
             List<FileSystemLocationFingerprint> fingerprints = Lists.newArrayList();
-            fingerprintZipEntries("", zipFile, fingerprints, input);
+            ExecutorService executor = zipEntryHashingService.getExecutor();
+            // Only a zip file allows reading its entries in any order, entries of a zip stream need to be read one after another
+            if (executor != null && input instanceof FileZipInput) {
+                fingerprintZipEntriesInParallel(zipFile, fingerprints, input, executor);
+            } else {
+                fingerprintZipEntries("", zipFile, fingerprints, input);
+            }
             return fingerprints;
         }
     }
 
+    private void fingerprintZipEntriesInParallel(String rootParentName, List<FileSystemLocationFingerprint> fingerprints, ZipInput input, ExecutorService executor) throws IOException {
+        fingerprints.add(newZipMarker(""));
+        List<Future<List<FileSystemLocationFingerprint>>> pendingFingerprints = new ArrayList<>();
+        for (ZipEntry zipEntry : input) {
+            if (zipEntry.isDirectory()) {
+                continue;
+            }
+            String fullName = zipEntry.getName();
+            ZipEntryContext zipEntryContext = new DefaultZipEntryContext(zipEntry, fullName, rootParentName);
+            if (isZipFile(zipEntry.getName())) {
+                pendingFingerprints.add(executor.submit(() -> {
+                    List<FileSystemLocationFingerprint> nestedFingerprints = new ArrayList<>();
+                    zipEntry.withInputStream((ZipEntry.InputStreamAction<Void>) inputStream -> {
+                        fingerprintZipEntries(fullName, rootParentName, nestedFingerprints, new StreamZipInput(inputStream));
+                        return null;
+                    });
+                    return nestedFingerprints;
+                }));
+                continue;
+            }
+            ZipEntryHashingService.EntryKey entryKey = zipEntryHashingService.keyOf(configurationHash, fullName, zipEntry);
+            HashCode cachedHash = zipEntryHashingService.getCachedHash(entryKey);
+            if (cachedHash != null) {
+                addFingerprint(fullName, cachedHash, fingerprints);
+            } else {
+                pendingFingerprints.add(executor.submit(() -> {
+                    List<FileSystemLocationFingerprint> entryFingerprints = new ArrayList<>(1);
+                    addFingerprint(fullName, hashAndCacheZipEntry(zipEntryContext, entryKey), entryFingerprints);
+                    return entryFingerprints;
+                }));
+            }
+        }
+
+        // Wait for all entries before failing, since the zip file is closed afterwards
+        Throwable failure = null;
+        for (Future<List<FileSystemLocationFingerprint>> pending : pendingFingerprints) {
+            try {
+                fingerprints.addAll(Uninterruptibles.getUninterruptibly(pending));
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            }
+        }
+        if (failure != null) {
+            Throwables.throwIfInstanceOf(failure, IOException.class);
+            Throwables.throwIfUnchecked(failure);
+            throw new RuntimeException(failure);
+        }
+    }
+
     private void fingerprintZipEntries(String parentName, String rootParentName, List<FileSystemLocationFingerprint> fingerprints, ZipInput input) throws IOException {
         fingerprints.add(newZipMarker(parentName));
         for (ZipEntry zipEntry : input) {
@@ -121,15 +199,30 @@ private void fingerprintZipEntries(String parentName, String rootParentName, Lis
                     return null;
                 });
             } else {
-                fingerprintZipEntry(zipEntryContext, fingerprints);
+                fingerprintZipEntry(zipEntryContext, zipEntryHashingService.keyOf(configurationHash, fullName, zipEntry), fingerprints);
             }
         }
     }
 
-    private void fingerprintZipEntry(ZipEntryContext zipEntryContext, List<FileSystemLocationFingerprint> fingerprints) throws IOException {
+    private void fingerprintZipEntry(ZipEntryContext zipEntryContext, @Nullable ZipEntryHashingService.EntryKey entryKey, List<FileSystemLocationFingerprint> fingerprints) throws IOException {
+        String fullName = zipEntryContext.getFullName();
+        HashCode hash = zipEntryHashingService.getCachedHash(entryKey);
+        if (hash == null) {
+            hash = hashAndCacheZipEntry(zipEntryContext, entryKey);
+        }
+        addFingerprint(fullName, hash, fingerprints);
+    }
+
+    @Nullable
+    private HashCode hashAndCacheZipEntry(ZipEntryContext zipEntryContext, @Nullable ZipEntryHashingService.EntryKey entryKey) throws IOException {
         HashCode hash = resourceHasher.hash(zipEntryContext);
-        if (hash != null) {
-            fingerprints.add(new DefaultFileSystemLocationFingerprint(zipEntryContext.getFullName(), FileType.RegularFile, hash));
+        zipEntryHashingService.cacheHash(entryKey, hash);
+        return hash;
+    }
+
+    private static void addFingerprint(String fullName, @Nullable HashCode hash, List<FileSystemLocationFingerprint> fingerprints) {
+        if (hash != null && !ZipEntryHashingService.isNoHash(hash)) {
+            fingerprints.add(new DefaultFileSystemLocationFingerprint(fullName, FileType.RegularFile, hash));
         }
     }
 
@@ -201,6 +201,16 @@ class LineEndingNormalizingResourceHasherTest extends Specification {
             int size() {
                 return file.bytes.length
             }
+
+            @Override
+            long getCrc() {
+                return -1
+            }
+
+            @Override
+            long getCompressedSize() {
+                return -1
+            }
         }
         return new DefaultZipEntryContext(zipEntry, file.path, "foo.zip")
     }
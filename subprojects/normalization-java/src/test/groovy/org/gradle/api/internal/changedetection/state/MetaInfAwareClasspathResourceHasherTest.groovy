@@ -442,6 +442,16 @@ class MetaInfAwareClasspathResourceHasherTest extends Specification {
             int size() {
                 return bos.size()
             }
+
+            @Override
+            long getCrc() {
+                return -1
+            }
+
+            @Override
+            long getCompressedSize() {
+                return -1
+            }
         }
         return new DefaultZipEntryContext(zipEntry, path, "foo.zip")
     }
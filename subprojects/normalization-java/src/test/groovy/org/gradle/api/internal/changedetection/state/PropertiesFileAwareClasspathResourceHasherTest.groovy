@@ -341,6 +341,16 @@ class PropertiesFileAwareClasspathResourceHasherTest extends Specification {
             int size() {
                 return bytes.length
             }
+
+            @Override
+            long getCrc() {
+                return -1
+            }
+
+            @Override
+            long getCompressedSize() {
+                return -1
+            }
         }
         return new DefaultZipEntryContext(zipEntry, path, "foo.zip")
     }
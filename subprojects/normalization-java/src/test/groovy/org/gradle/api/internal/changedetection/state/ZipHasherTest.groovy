@@ -21,6 +21,9 @@ import org.gradle.internal.file.FileMetadata.AccessType
 import org.gradle.internal.file.impl.DefaultFileMetadata
 import org.gradle.internal.fingerprint.hashing.RegularFileSnapshotContext
 import org.gradle.internal.fingerprint.hashing.ResourceHasher
+import org.gradle.internal.fingerprint.hashing.ZipEntryContext
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.hash.Hasher
 import org.gradle.internal.hash.TestHashCodes
 import org.gradle.internal.snapshot.RegularFileSnapshot
 import org.gradle.test.fixtures.file.TestFile
@@ -28,6 +31,8 @@ import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
 import spock.lang.Specification
 
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.Executors
 import java.util.jar.Attributes
 import java.util.jar.JarEntry
 import java.util.jar.JarOutputStream
@@ -148,6 +153,62 @@ class ZipHasherTest extends Specification {
         hash1 == hash2
     }
 
+    def "hashing entries in parallel creates the same hash"() {
+        given:
+        def jarfile = createJarWithNestedJar()
+        def parallelService = ZipEntryHashingService.create(Executors.newFixedThreadPool(4), 0)
+        def parallelZipHasher = new ZipHasher(resourceHasher(ResourceEntryFilter.FILTER_NOTHING, ResourceEntryFilter.FILTER_NOTHING), parallelService)
+
+        expect:
+        parallelZipHasher.hash(snapshotContext(jarfile)) == zipHasher.hash(snapshotContext(jarfile))
+
+        cleanup:
+        parallelService?.close()
+    }
+
+    def "only hashes changed entries of a rebuilt archive again"() {
+        given:
+        def recordingHasher = new RecordingResourceHasher(resourceHasher(ResourceEntryFilter.FILTER_NOTHING, ResourceEntryFilter.FILTER_NOTHING))
+        def cachingZipHasher = new ZipHasher(recordingHasher, ZipEntryHashingService.create(null, 100))
+        def content = tmpDir.createDir("content")
+        content.file("a.txt") << "a"
+        content.file("b.txt") << "b"
+        content.file("c.txt") << "c"
+        def jarfile = tmpDir.file("test.jar")
+        content.zipTo(jarfile)
+        def originalHash = cachingZipHasher.hash(snapshotContext(jarfile))
+
+        when:
+        recordingHasher.hashedEntries.clear()
+        content.file("b.txt").text = "B"
+        content.zipTo(jarfile)
+        def newHash = cachingZipHasher.hash(snapshotContext(jarfile))
+
+        then:
+        recordingHasher.hashedEntries == ["b.txt"]
+        newHash != originalHash
+        newHash == zipHasher.hash(snapshotContext(jarfile))
+
+        when:
+        recordingHasher.hashedEntries.clear()
+        def sameHash = cachingZipHasher.hash(snapshotContext(jarfile))
+
+        then:
+        recordingHasher.hashedEntries.empty
+        sameHash == newHash
+    }
+
+    private TestFile createJarWithNestedJar() {
+        def innerContent = tmpDir.createDir("inner")
+        (1..20).each { innerContent.file("inner-${it}.txt") << "inner $it" }
+        def outerContent = tmpDir.createDir("outer")
+        (1..50).each { outerContent.file("dir-${it % 5}/outer-${it}.txt") << "outer $it" }
+        innerContent.zipTo(outerContent.file("lib/inner.jar"))
+        def jarfile = tmpDir.file("outer.jar")
+        outerContent.zipTo(jarfile)
+        return jarfile
+    }
+
     def createJarWithAttributes(TestFile jarfile, Map<String, String> attributes) {
         def manifest = new Manifest()
         def mainAttributes = manifest.getMainAttributes()
@@ -178,4 +239,29 @@ class ZipHasherTest extends Specification {
     private static RegularFileSnapshotContext snapshotContext(TestFile file) {
         return new DefaultRegularFileSnapshotContext({ }, new RegularFileSnapshot(file.path, file.name, TestHashCodes.hashCodeFrom(0), DefaultFileMetadata.file(0, 0, AccessType.DIRECT)))
     }
+
+    private static class RecordingResourceHasher implements ResourceHasher {
+        private final ResourceHasher delegate
+        final List<String> hashedEntries = new CopyOnWriteArrayList<>()
+
+        RecordingResourceHasher(ResourceHasher delegate) {
+            this.delegate = delegate
+        }
+
+        @Override
+        HashCode hash(RegularFileSnapshotContext snapshotContext) {
+            return delegate.hash(snapshotContext)
+        }
+
+        @Override
+        HashCode hash(ZipEntryContext zipEntryContext) {
+            hashedEntries << zipEntryContext.fullName
+            return delegate.hash(zipEntryContext)
+        }
+
+        @Override
+        void appendConfigurationToHasher(Hasher hasher) {
+            delegate.appendConfigurationToHasher(hasher)
+        }
+    }
 }
@@ -31,6 +31,11 @@ public interface HttpSettings {
 
     int getMaxRedirects();
 
+    /**
+     * The maximum number of connections kept open by the client, which is also the number of requests that can be performed concurrently.
+     */
+    int getMaxConnections();
+
     HttpRedirectVerifier getRedirectVerifier();
 
     RedirectMethodHandlingStrategy getRedirectMethodHandlingStrategy();
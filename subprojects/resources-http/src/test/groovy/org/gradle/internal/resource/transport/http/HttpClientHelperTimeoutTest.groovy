@@ -51,6 +51,7 @@ class HttpClientHelperTimeoutTest extends Specification {
         Stub(HttpSettings) {
             getProxySettings() >> Mock(HttpProxySettings)
             getSecureProxySettings() >> Mock(HttpProxySettings)
+            getMaxConnections() >> 20
             getTimeoutSettings() >> { new JavaSystemPropertiesHttpTimeoutSettings() }
             getSslContextFactory() >> Mock(SslContextFactory) {
                 createSslContext() >> SSLContexts.createDefault()
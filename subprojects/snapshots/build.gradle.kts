@@ -1,6 +1,7 @@
 plugins {
     id("gradlebuild.distribution.implementation-java")
     id("gradlebuild.publish-public-libraries")
+    id("gradlebuild.jmh")
 }
 
 description = "Tools to take immutable, comparable snapshots of files and other things"
@@ -33,5 +34,8 @@ dependencies {
     testFixturesImplementation(project(":file-collections"))
     testFixturesImplementation(libs.commonsIo)
 
+    jmhImplementation(project(":files"))
+    jmhImplementation(project(":hashing"))
+
     integTestDistributionRuntimeOnly(project(":distributions-core"))
 }
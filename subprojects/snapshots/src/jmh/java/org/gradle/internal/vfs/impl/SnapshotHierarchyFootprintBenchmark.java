@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.vfs.impl;
+
+import org.gradle.internal.file.FileMetadata.AccessType;
+import org.gradle.internal.file.impl.DefaultFileMetadata;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.snapshot.CaseSensitivity;
+import org.gradle.internal.snapshot.DirectorySnapshot;
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
+import org.gradle.internal.snapshot.RegularFileSnapshot;
+import org.gradle.internal.snapshot.SnapshotHierarchy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the memory needed to keep snapshots of a large workspace in the virtual file system.
+ *
+ * Run with {@code -prof gc}: {@code gc.alloc.rate.norm} of {@code snapshot_hierarchy} is the number of bytes
+ * allocated for the whole hierarchy, which is close to the retained size since the snapshots are immutable.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class SnapshotHierarchyFootprintBenchmark {
+
+    @Param({"100"})
+    int directoryCount;
+
+    @Param({"1000"})
+    int filesPerDirectory;
+
+    private List<String> fileNames;
+    private List<String> directoryNames;
+
+    @Setup
+    public void setup() {
+        // Names are interned by the directory snapshotter, so share them between snapshots here as well
+        fileNames = new ArrayList<>(filesPerDirectory);
+        for (int i = 0; i < filesPerDirectory; i++) {
+            fileNames.add(String.format("File%05d.java", i));
+        }
+        directoryNames = new ArrayList<>(directoryCount);
+        for (int i = 0; i < directoryCount; i++) {
+            directoryNames.add(String.format("dir%05d", i));
+        }
+    }
+
+    @Benchmark
+    public SnapshotHierarchy snapshot_hierarchy() {
+        SnapshotHierarchy hierarchy = DefaultSnapshotHierarchy.empty(CaseSensitivity.CASE_SENSITIVE);
+        for (String directoryName : directoryNames) {
+            String directoryPath = "/workspace/src/" + directoryName;
+            List<FileSystemLocationSnapshot> children = new ArrayList<>(filesPerDirectory);
+            for (int i = 0; i < filesPerDirectory; i++) {
+                String fileName = fileNames.get(i);
+                children.add(new RegularFileSnapshot(
+                    directoryPath + "/" + fileName,
+                    fileName,
+                    Hashing.hashString(directoryPath + fileName),
+                    DefaultFileMetadata.file(i, i, AccessType.DIRECT)
+                ));
+            }
+            DirectorySnapshot directory = new DirectorySnapshot(directoryPath, directoryName, AccessType.DIRECT, Hashing.hashString(directoryPath), children);
+            hierarchy = hierarchy.store(directoryPath, directory, SnapshotHierarchy.NodeDiffListener.NOOP);
+        }
+        return hierarchy;
+    }
+}
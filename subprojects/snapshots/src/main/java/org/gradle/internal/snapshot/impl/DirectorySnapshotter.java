@@ -17,6 +17,7 @@
 package org.gradle.internal.snapshot.impl;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Interner;
 import com.google.common.collect.Iterables;
@@ -48,13 +49,18 @@
 import java.nio.file.Paths;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -74,7 +80,7 @@ public String remapAbsolutePath(Path path) {
 
         @Override
         public SymbolicLinkMapping withNewMapping(String source, String target, RelativePathTracker currentPathTracker) {
-            return new DefaultSymbolicLinkMapping(source, target, currentPathTracker.getSegments());
+            return new DefaultSymbolicLinkMapping(source, target, ImmutableList.copyOf(currentPathTracker.getSegments()));
         }
 
         @Override
@@ -87,12 +93,25 @@ public Iterable<String> getRemappedSegments(Iterable<String> segments) {
     private final Interner<String> stringInterner;
     private final DefaultExcludes defaultExcludes;
     private final DirectorySnapshotterStatistics.Collector collector;
+    private final DirectoryWalkerPool walkerPool;
 
     public DirectorySnapshotter(FileHasher hasher, Interner<String> stringInterner, Collection<String> defaultExcludes, DirectorySnapshotterStatistics.Collector collector) {
+        this(hasher, stringInterner, defaultExcludes, collector, DirectoryWalkerPool.sequential());
+    }
+
+    /**
+     * Creates a snapshotter that walks sibling directories and hashes the files in them in parallel on the threads of the given pool.
+     *
+     * The resulting snapshots are the same as the ones created by a sequential walk.
+     * The unfiltered snapshot consumer passed to {@link #snapshot(String, SnapshottingFilter.DirectoryWalkerPredicate, AtomicBoolean, Consumer)}
+     * still receives one snapshot at a time, though not necessarily in the order of a sequential walk.
+     */
+    public DirectorySnapshotter(FileHasher hasher, Interner<String> stringInterner, Collection<String> defaultExcludes, DirectorySnapshotterStatistics.Collector collector, DirectoryWalkerPool walkerPool) {
         this.hasher = hasher;
         this.stringInterner = stringInterner;
         this.defaultExcludes = new DefaultExcludes(defaultExcludes);
         this.collector = collector;
+        this.walkerPool = walkerPool;
     }
 
     /**
@@ -113,13 +132,101 @@ public DirectorySnapshotter(FileHasher hasher, Interner<String> stringInterner,
      * @return The (possible filtered) snapshot of the directory.
      */
     public FileSystemLocationSnapshot snapshot(String absolutePath, @Nullable SnapshottingFilter.DirectoryWalkerPredicate predicate, final AtomicBoolean hasBeenFiltered, Consumer<FileSystemLocationSnapshot> unfilteredSnapshotConsumer) {
+        Path rootPath = Paths.get(absolutePath);
+        ForkJoinPool forkJoinPool = walkerPool.getForkJoinPool();
+        if (forkJoinPool == null) {
+            try {
+                PathVisitor visitor = new PathVisitor(predicate, hasBeenFiltered, hasher, stringInterner, defaultExcludes, collector, EMPTY_SYMBOLIC_LINK_MAPPING, unfilteredSnapshotConsumer);
+                Files.walkFileTree(rootPath, DONT_FOLLOW_SYMLINKS, Integer.MAX_VALUE, visitor);
+                return visitor.getResult();
+            } catch (IOException e) {
+                throw new UncheckedIOException(String.format("Could not list contents of directory '%s'.", absolutePath), e);
+            }
+        }
+
+        ParallelWalk parallelWalk = new ParallelWalk(walkerPool.getMaxForkDepth());
+        Object consumerLock = new Object();
+        Consumer<FileSystemLocationSnapshot> synchronizedConsumer = snapshot -> {
+            synchronized (consumerLock) {
+                unfilteredSnapshotConsumer.accept(snapshot);
+            }
+        };
+        PathVisitor visitor = new PathVisitor(predicate, hasBeenFiltered, hasher, stringInterner, defaultExcludes, collector, EMPTY_SYMBOLIC_LINK_MAPPING, synchronizedConsumer, parallelWalk, 0, new ArrayDeque<>());
         try {
-            Path rootPath = Paths.get(absolutePath);
-            PathVisitor visitor = new PathVisitor(predicate, hasBeenFiltered, hasher, stringInterner, defaultExcludes, collector, EMPTY_SYMBOLIC_LINK_MAPPING, unfilteredSnapshotConsumer);
-            Files.walkFileTree(rootPath, DONT_FOLLOW_SYMLINKS, Integer.MAX_VALUE, visitor);
-            return visitor.getResult();
-        } catch (IOException e) {
-            throw new UncheckedIOException(String.format("Could not list contents of directory '%s'.", absolutePath), e);
+            forkJoinPool.invoke(new SubtreeWalk(rootPath, visitor, parallelWalk));
+        } finally {
+            collector.recordParallelWalk(parallelWalk.getForkedDirectoryCount(), parallelWalk.getMaxParallelism());
+        }
+        return visitor.getResult();
+    }
+
+    /**
+     * Tracks the directories walked in parallel and the number of concurrently active walkers of a single hierarchy.
+     */
+    private static class ParallelWalk {
+        private final int maxForkDepth;
+        private final AtomicLong forkedDirectoryCount = new AtomicLong();
+        private final AtomicInteger activeWalkers = new AtomicInteger();
+        private final AtomicInteger maxParallelism = new AtomicInteger();
+
+        public ParallelWalk(int maxForkDepth) {
+            this.maxForkDepth = maxForkDepth;
+        }
+
+        public boolean shouldFork(int depth) {
+            return depth <= maxForkDepth;
+        }
+
+        public void recordForkedDirectory() {
+            forkedDirectoryCount.incrementAndGet();
+        }
+
+        public void walkerStarted() {
+            int active = activeWalkers.incrementAndGet();
+            maxParallelism.accumulateAndGet(active, Math::max);
+        }
+
+        public void walkerFinished() {
+            activeWalkers.decrementAndGet();
+        }
+
+        public long getForkedDirectoryCount() {
+            return forkedDirectoryCount.get();
+        }
+
+        public int getMaxParallelism() {
+            return maxParallelism.get();
+        }
+    }
+
+    /**
+     * Walks a directory hierarchy, or a subdirectory of a hierarchy forked off by the walker of the parent directory.
+     */
+    private static class SubtreeWalk extends RecursiveAction {
+        private final Path root;
+        private final PathVisitor visitor;
+        private final ParallelWalk parallelWalk;
+
+        public SubtreeWalk(Path root, PathVisitor visitor, ParallelWalk parallelWalk) {
+            this.root = root;
+            this.visitor = visitor;
+            this.parallelWalk = parallelWalk;
+        }
+
+        @Override
+        protected void compute() {
+            parallelWalk.walkerStarted();
+            try {
+                Files.walkFileTree(root, DONT_FOLLOW_SYMLINKS, Integer.MAX_VALUE, visitor);
+            } catch (IOException e) {
+                throw new UncheckedIOException(String.format("Could not list contents of directory '%s'.", root), e);
+            } finally {
+                parallelWalk.walkerFinished();
+            }
+        }
+
+        public PathVisitor getVisitor() {
+            return visitor;
         }
     }
 
@@ -158,7 +265,7 @@ public String remapAbsolutePath(String absolutePath) {
 
         @Override
         public SymbolicLinkMapping withNewMapping(String source, String target, RelativePathTracker currentPathTracker) {
-            return new DefaultSymbolicLinkMapping(remapAbsolutePath(source), target, getRemappedSegments(currentPathTracker.getSegments()));
+            return new DefaultSymbolicLinkMapping(remapAbsolutePath(source), target, ImmutableList.copyOf(getRemappedSegments(currentPathTracker.getSegments())));
         }
 
         @Override
@@ -252,6 +359,10 @@ private static class PathVisitor extends DirectorySnapshotterStatistics.Collecti
         private final Deque<String> parentDirectories = new ArrayDeque<>();
         private final Set<FileSystemLocationSnapshot> filteredDirectorySnapshots = new HashSet<>();
         private final Consumer<FileSystemLocationSnapshot> unfilteredSnapshotConsumer;
+        @Nullable
+        private final ParallelWalk parallelWalk;
+        private final int depth;
+        private final Deque<List<SubtreeWalk>> forkedSubtrees = new ArrayDeque<>();
 
         public PathVisitor(
             @Nullable SnapshottingFilter.DirectoryWalkerPredicate predicate,
@@ -263,7 +374,31 @@ public PathVisitor(
             SymbolicLinkMapping symbolicLinkMapping,
             Consumer<FileSystemLocationSnapshot> unfilteredSnapshotConsumer
         ) {
-            super(statisticsCollector);
+            this(predicate, hasBeenFiltered, hasher, stringInterner, defaultExcludes, statisticsCollector, symbolicLinkMapping, unfilteredSnapshotConsumer, null, 0, new ArrayDeque<>());
+        }
+
+        /**
+         * @param parallelWalk the parallel walk this visitor takes part in, or {@code null} when walking sequentially.
+         * @param depth the depth of the root of this visitor below the root of the walked hierarchy.
+         * @param parentDirectories the ancestors of the root of this visitor, used to detect symlink cycles.
+         */
+        public PathVisitor(
+            @Nullable SnapshottingFilter.DirectoryWalkerPredicate predicate,
+            AtomicBoolean hasBeenFiltered,
+            FileHasher hasher,
+            Interner<String> stringInterner,
+            DefaultExcludes defaultExcludes,
+            DirectorySnapshotterStatistics.Collector statisticsCollector,
+            SymbolicLinkMapping symbolicLinkMapping,
+            Consumer<FileSystemLocationSnapshot> unfilteredSnapshotConsumer,
+            @Nullable ParallelWalk parallelWalk,
+            int depth,
+            Deque<String> parentDirectories
+        ) {
+            super(statisticsCollector, depth == 0);
+            this.parallelWalk = parallelWalk;
+            this.depth = depth;
+            this.parentDirectories.addAll(parentDirectories);
             this.builder = FilteredTrackingMerkleDirectorySnapshotBuilder.sortingRequired(this::consumeUnfilteredSnapshot);
             this.predicate = predicate;
             this.hasBeenFiltered = hasBeenFiltered;
@@ -289,8 +424,16 @@ protected FileVisitResult doPreVisitDirectory(Path dir, BasicFileAttributes attr
             String fileName = getInternedFileName(dir);
             pathTracker.enter(fileName);
             if (shouldVisitDirectory(dir, fileName)) {
+                if (shouldFork()) {
+                    forkSubtree(dir);
+                    pathTracker.leave();
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
                 builder.enterDirectory(AccessType.DIRECT, intern(symbolicLinkMapping.remapAbsolutePath(dir)), fileName, INCLUDE_EMPTY_DIRS);
                 parentDirectories.addFirst(dir.toString());
+                if (parallelWalk != null) {
+                    forkedSubtrees.addFirst(new ArrayList<>());
+                }
                 return FileVisitResult.CONTINUE;
             } else {
                 pathTracker.leave();
@@ -307,6 +450,9 @@ protected FileVisitResult doPostVisitDirectory(Path dir, IOException exc) {
             if (isNotFileSystemLoopException(exc)) {
                 throw new UncheckedIOException(String.format("Could not read directory path '%s'.", dir), exc);
             }
+            if (parallelWalk != null) {
+                joinForkedSubtrees(forkedSubtrees.removeFirst());
+            }
             boolean currentLevelComplete = builder.isCurrentLevelUnfiltered();
             FileSystemLocationSnapshot currentLevel = builder.leaveDirectory();
             if (!currentLevelComplete) {
@@ -354,6 +500,53 @@ protected FileVisitResult doVisitFile(Path file, BasicFileAttributes attrs) {
             }
         }
 
+        private boolean shouldFork() {
+            return parallelWalk != null
+                && !pathTracker.isRoot()
+                && parallelWalk.shouldFork(depth + pathTracker.getSegments().size());
+        }
+
+        /**
+         * Walks the given directory on a separate task, which will be joined when leaving the parent directory.
+         */
+        private void forkSubtree(Path dir) {
+            assert parallelWalk != null;
+            String dirString = dir.toString();
+            PathVisitor subtreeVisitor = new PathVisitor(
+                predicate,
+                new AtomicBoolean(false),
+                hasher,
+                stringInterner,
+                defaultExcludes,
+                collector,
+                symbolicLinkMapping.withNewMapping(dirString, dirString, pathTracker),
+                unfilteredSnapshotConsumer,
+                parallelWalk,
+                depth + pathTracker.getSegments().size(),
+                parentDirectories
+            );
+            SubtreeWalk subtreeWalk = new SubtreeWalk(dir, subtreeVisitor, parallelWalk);
+            subtreeWalk.fork();
+            parallelWalk.recordForkedDirectory();
+            forkedSubtrees.getFirst().add(subtreeWalk);
+        }
+
+        private void joinForkedSubtrees(List<SubtreeWalk> subtreeWalks) {
+            for (SubtreeWalk subtreeWalk : subtreeWalks) {
+                subtreeWalk.join();
+                PathVisitor subtreeVisitor = subtreeWalk.getVisitor();
+                DirectorySnapshot subtreeSnapshot = (DirectorySnapshot) subtreeVisitor.getResult();
+                if (subtreeSnapshot != null) {
+                    builder.visitDirectory(subtreeSnapshot);
+                    if (subtreeVisitor.hasBeenFiltered.get()) {
+                        filteredDirectorySnapshots.add(subtreeSnapshot);
+                        builder.markCurrentLevelAsFiltered();
+                        hasBeenFiltered.set(true);
+                    }
+                }
+            }
+        }
+
         @Nullable
         private DirectorySnapshot followSymlink(Path file, String internedFileName, AtomicBoolean symlinkHasBeenFiltered) {
             try {
@@ -22,6 +22,7 @@
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.text.MessageFormat;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 public interface DirectorySnapshotterStatistics {
@@ -45,11 +46,23 @@ public interface DirectorySnapshotterStatistics {
      */
     long getFailedFiles();
 
+    /**
+     * The number of directories that were walked in parallel with their siblings.
+     */
+    long getParallelDirectoryCount();
+
+    /**
+     * The highest number of walks of subdirectories of a single directory tree that were in progress at the same time.
+     */
+    int getMaxWalkParallelism();
+
     class Collector {
         private final AtomicLong hierarchyCount = new AtomicLong();
         private final AtomicLong directoryCount = new AtomicLong();
         private final AtomicLong fileCount = new AtomicLong();
         private final AtomicLong failedFileCount = new AtomicLong();
+        private final AtomicLong parallelDirectoryCount = new AtomicLong();
+        private final AtomicInteger maxWalkParallelism = new AtomicInteger();
 
         public void recordVisitHierarchy() {
             hierarchyCount.incrementAndGet();
@@ -67,11 +80,18 @@ public void recordVisitFileFailed() {
             failedFileCount.incrementAndGet();
         }
 
+        public void recordParallelWalk(long parallelDirectoryCount, int walkParallelism) {
+            this.parallelDirectoryCount.addAndGet(parallelDirectoryCount);
+            maxWalkParallelism.accumulateAndGet(walkParallelism, Math::max);
+        }
+
         public DirectorySnapshotterStatistics collect() {
             long hierarchyCount = this.hierarchyCount.getAndSet(0);
             long directoryCount = this.directoryCount.getAndSet(0);
             long fileCount = this.fileCount.getAndSet(0);
             long failedFileCount = this.failedFileCount.getAndSet(0);
+            long parallelDirectoryCount = this.parallelDirectoryCount.getAndSet(0);
+            int maxWalkParallelism = this.maxWalkParallelism.getAndSet(0);
 
             return new DirectorySnapshotterStatistics() {
                 @Override
@@ -94,10 +114,25 @@ public long getFailedFiles() {
                     return failedFileCount;
                 }
 
+                @Override
+                public long getParallelDirectoryCount() {
+                    return parallelDirectoryCount;
+                }
+
+                @Override
+                public int getMaxWalkParallelism() {
+                    return maxWalkParallelism;
+                }
+
                 @Override
                 public String toString() {
-                    return MessageFormat.format("Snapshot {0,number,integer} directory hierarchies (visited {1,number,integer} directories, {2,number,integer} files and {3,number,integer} failed files)",
+                    String summary = MessageFormat.format("Snapshot {0,number,integer} directory hierarchies (visited {1,number,integer} directories, {2,number,integer} files and {3,number,integer} failed files)",
                         hierarchyCount, directoryCount, fileCount, failedFileCount);
+                    if (parallelDirectoryCount == 0) {
+                        return summary;
+                    }
+                    return summary + MessageFormat.format(", walked {0,number,integer} directories in parallel with up to {1,number,integer} concurrent walks per hierarchy",
+                        parallelDirectoryCount, maxWalkParallelism);
                 }
             };
         }
@@ -105,15 +140,30 @@ public String toString() {
 
     abstract class CollectingFileVisitor implements FileVisitor<Path> {
         protected final Collector collector;
+        private boolean skipRootDirectory;
 
         public CollectingFileVisitor(Collector collector) {
+            this(collector, true);
+        }
+
+        /**
+         * @param newHierarchy {@code false} if this visitor walks a subdirectory of a hierarchy whose visitor already recorded the visit of the subdirectory itself.
+         */
+        protected CollectingFileVisitor(Collector collector, boolean newHierarchy) {
             this.collector = collector;
-            collector.recordVisitHierarchy();
+            this.skipRootDirectory = !newHierarchy;
+            if (newHierarchy) {
+                collector.recordVisitHierarchy();
+            }
         }
 
         @Override
         public final FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
-            collector.recordVisitDirectory();
+            if (skipRootDirectory) {
+                skipRootDirectory = false;
+            } else {
+                collector.recordVisitDirectory();
+            }
             return doPreVisitDirectory(dir, attrs);
         }
 
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.snapshot.impl;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The fork/join pool used by the {@link DirectorySnapshotter} to walk sibling directories and hash files in parallel.
+ *
+ * A pool without parallelism makes the snapshotter walk each hierarchy on the calling thread.
+ */
+public class DirectoryWalkerPool implements Closeable {
+    /**
+     * Directories at most this deep below the root of a walk are walked in parallel with their siblings.
+     * Deeper directories are walked by the thread that walks their ancestor.
+     */
+    private static final int DEFAULT_MAX_FORK_DEPTH = 4;
+
+    private static final DirectoryWalkerPool SEQUENTIAL = new DirectoryWalkerPool(null, 0);
+
+    private final ForkJoinPool forkJoinPool;
+    private final int maxForkDepth;
+
+    private DirectoryWalkerPool(@Nullable ForkJoinPool forkJoinPool, int maxForkDepth) {
+        this.forkJoinPool = forkJoinPool;
+        this.maxForkDepth = maxForkDepth;
+    }
+
+    public static DirectoryWalkerPool sequential() {
+        return SEQUENTIAL;
+    }
+
+    /**
+     * Creates a pool with the given number of walker threads, or a sequential pool if the parallelism is less than two.
+     */
+    public static DirectoryWalkerPool withParallelism(int parallelism) {
+        return withParallelism(parallelism, DEFAULT_MAX_FORK_DEPTH);
+    }
+
+    public static DirectoryWalkerPool withParallelism(int parallelism, int maxForkDepth) {
+        if (parallelism < 2) {
+            return SEQUENTIAL;
+        }
+        return new DirectoryWalkerPool(new ForkJoinPool(parallelism), maxForkDepth);
+    }
+
+    public boolean isParallel() {
+        return forkJoinPool != null;
+    }
+
+    @Nullable
+    ForkJoinPool getForkJoinPool() {
+        return forkJoinPool;
+    }
+
+    int getMaxForkDepth() {
+        return maxForkDepth;
+    }
+
+    @Override
+    public void close() {
+        if (forkJoinPool != null) {
+            forkJoinPool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.snapshot.impl
+
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.tasks.util.PatternSet
+import org.gradle.internal.fingerprint.impl.PatternSetSnapshottingFilter
+import org.gradle.internal.hash.FileHasher
+import org.gradle.internal.hash.TestFileHasher
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot
+import org.gradle.internal.snapshot.SnapshotVisitorUtil
+import org.gradle.internal.snapshot.SnapshottingFilter
+import org.gradle.test.fixtures.file.CleanupTestDirectory
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
+import org.gradle.util.UsesNativeServices
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.atomic.AtomicBoolean
+
+@UsesNativeServices
+@CleanupTestDirectory(fieldName = "tmpDir")
+class ParallelDirectorySnapshotterTest extends Specification {
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+
+    def fileHasher = new TestFileHasher()
+    def sequentialCollector = new DirectorySnapshotterStatistics.Collector()
+    def parallelCollector = new DirectorySnapshotterStatistics.Collector()
+    def walkerPool = DirectoryWalkerPool.withParallelism(4, 2)
+    def sequentialSnapshotter = new DirectorySnapshotter(fileHasher, new StringInterner(), [], sequentialCollector)
+    def parallelSnapshotter = new DirectorySnapshotter(fileHasher, new StringInterner(), [], parallelCollector, walkerPool)
+
+    def cleanup() {
+        walkerPool.close()
+    }
+
+    def "creates the same snapshot as a sequential walk"() {
+        given:
+        def rootDir = createTree()
+
+        when:
+        def sequential = snapshot(sequentialSnapshotter, rootDir, null)
+        def parallel = snapshot(parallelSnapshotter, rootDir, null)
+
+        then:
+        parallel.snapshot.hash == sequential.snapshot.hash
+        SnapshotVisitorUtil.getRelativePaths(parallel.snapshot, true) == SnapshotVisitorUtil.getRelativePaths(sequential.snapshot, true)
+        SnapshotVisitorUtil.getAbsolutePaths(parallel.snapshot, true) == SnapshotVisitorUtil.getAbsolutePaths(sequential.snapshot, true)
+        !parallel.filtered
+        parallel.unfiltered.empty
+    }
+
+    def "creates the same filtered snapshot as a sequential walk"() {
+        given:
+        def rootDir = createTree()
+        def patterns = new PatternSet()
+        patterns.include("**/*.txt")
+        patterns.exclude("dir-1/**")
+
+        when:
+        def sequential = snapshot(sequentialSnapshotter, rootDir, directoryWalkerPredicate(patterns))
+        def parallel = snapshot(parallelSnapshotter, rootDir, directoryWalkerPredicate(patterns))
+
+        then:
+        parallel.snapshot.hash == sequential.snapshot.hash
+        SnapshotVisitorUtil.getRelativePaths(parallel.snapshot, true) == SnapshotVisitorUtil.getRelativePaths(sequential.snapshot, true)
+        parallel.filtered
+        sequential.filtered
+        parallel.unfiltered*.absolutePath as Set == sequential.unfiltered*.absolutePath as Set
+        parallel.unfiltered.size() == sequential.unfiltered.size()
+    }
+
+    @Requires(TestPrecondition.SYMLINKS)
+    def "creates the same snapshot as a sequential walk for symlinked directories"() {
+        given:
+        def rootDir = createTree()
+        def linkTarget = tmpDir.createDir("linkTarget")
+        linkTarget.createFile("a/included.txt")
+        linkTarget.createFile("b/excluded.png")
+        rootDir.file("dir-2/sub-dir-1/link").createLink(linkTarget)
+        rootDir.file("dir-3/cycle").createLink(rootDir)
+        def patterns = new PatternSet()
+        patterns.exclude("**/*.png")
+
+        when:
+        def sequential = snapshot(sequentialSnapshotter, rootDir, directoryWalkerPredicate(patterns))
+        def parallel = snapshot(parallelSnapshotter, rootDir, directoryWalkerPredicate(patterns))
+
+        then:
+        parallel.snapshot.hash == sequential.snapshot.hash
+        SnapshotVisitorUtil.getAbsolutePaths(parallel.snapshot, true) == SnapshotVisitorUtil.getAbsolutePaths(sequential.snapshot, true)
+        parallel.unfiltered*.absolutePath as Set == sequential.unfiltered*.absolutePath as Set
+    }
+
+    def "records the same visits as a sequential walk and reports parallelism"() {
+        given:
+        def rootDir = createTree()
+
+        when:
+        snapshot(sequentialSnapshotter, rootDir, null)
+        snapshot(parallelSnapshotter, rootDir, null)
+        def sequentialStatistics = sequentialCollector.collect()
+        def parallelStatistics = parallelCollector.collect()
+
+        then:
+        parallelStatistics.visitedHierarchyCount == sequentialStatistics.visitedHierarchyCount
+        parallelStatistics.visitedDirectoryCount == sequentialStatistics.visitedDirectoryCount
+        parallelStatistics.visitedFiles == sequentialStatistics.visitedFiles
+        sequentialStatistics.parallelDirectoryCount == 0
+        // dir-1..dir-4 and their sub-dir-1..sub-dir-3 are at most 2 levels deep
+        parallelStatistics.parallelDirectoryCount == 4 + 4 * 3
+        parallelStatistics.maxWalkParallelism >= 1
+        parallelStatistics.toString().contains("walked 16 directories in parallel")
+    }
+
+    def "propagates failures of walks of subdirectories"() {
+        given:
+        def rootDir = createTree()
+        def brokenHasher = Stub(FileHasher) {
+            hash(_ as File, _ as long, _ as long) >> { throw new UncheckedIOException(new IOException("broken")) }
+        }
+        def snapshotter = new DirectorySnapshotter(brokenHasher, new StringInterner(), [], parallelCollector, walkerPool)
+
+        when:
+        snapshotter.snapshot(rootDir.absolutePath, null, new AtomicBoolean()) {}
+
+        then:
+        def e = thrown(UncheckedIOException)
+        e.cause.message == "broken"
+    }
+
+    private TestFile createTree() {
+        def rootDir = tmpDir.createDir("root")
+        rootDir.createFile("root.txt") << "root"
+        (1..4).each { dir ->
+            (1..3).each { subDir ->
+                (1..5).each { file ->
+                    rootDir.createFile("dir-$dir/sub-dir-$subDir/file-${file}.txt") << "content $dir $subDir $file"
+                    rootDir.createFile("dir-$dir/sub-dir-$subDir/nested/file-${file}.png") << "image $dir $subDir $file"
+                }
+            }
+        }
+        return rootDir
+    }
+
+    private static Map snapshot(DirectorySnapshotter snapshotter, File rootDir, SnapshottingFilter.DirectoryWalkerPredicate predicate) {
+        def filtered = new AtomicBoolean()
+        List<FileSystemLocationSnapshot> unfiltered = []
+        def snapshot = snapshotter.snapshot(rootDir.absolutePath, predicate, filtered) { unfiltered.add(it) }
+        return [snapshot: snapshot, filtered: filtered.get(), unfiltered: unfiltered]
+    }
+
+    private static SnapshottingFilter.DirectoryWalkerPredicate directoryWalkerPredicate(PatternSet patternSet) {
+        return new PatternSetSnapshottingFilter(patternSet, TestFiles.fileSystem()).asDirectoryWalkerPredicate
+    }
+}